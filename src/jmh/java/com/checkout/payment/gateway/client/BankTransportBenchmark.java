@@ -0,0 +1,125 @@
+package com.checkout.payment.gateway.client;
+
+import com.checkout.payment.gateway.controller.gateway.support.Http2BankSimulatorStub;
+import com.checkout.payment.gateway.model.BankPaymentRequest;
+import com.checkout.payment.gateway.model.BankPaymentResponse;
+import com.checkout.payment.gateway.resilience.Deadline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+import reactor.netty.http.HttpProtocol;
+
+/**
+ * Authorisations from 64 threads to a bank that answers in 10 ms, over the pooled HTTP/1.1
+ * client ({@code HTTP11}, up to 200 connections as configured by default) or multiplexed over
+ * clear-text HTTP/2 ({@code H2C}, at most 2 connections). The throughput run also reports
+ * {@code authorise:connections}, the number of connections the bank has seen so far; compare it
+ * with the throughput and the p0.99 rows.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(64)
+@State(Scope.Benchmark)
+public class BankTransportBenchmark {
+
+  @Param({"HTTP11", "H2C"})
+  public HttpProtocol protocol;
+
+  private Http2BankSimulatorStub bank;
+  private BankClient bankClient;
+  private BankPaymentRequest request;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    bank = new Http2BankSimulatorStub();
+    bank.setDelay(Duration.ofMillis(10));
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    BankCallGuard guard = new BankCallGuard(100, 50, 50, Duration.ofSeconds(10), 3,
+        200, 200, 200, Duration.ofSeconds(2), 0.9, Clock.systemUTC(), meterRegistry);
+    HedgingPolicy hedging = new HedgingPolicy(false, 0.95, Duration.ofMillis(10),
+        Duration.ofSeconds(1), meterRegistry);
+    bankClient = new BankClient(new RestTemplate(requestFactory()), bank.url(), guard, hedging,
+        new BankCallMetrics(true, meterRegistry));
+    request = new BankPaymentRequest("2222405343248877", "04/2099", "GBP", 100, "123");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    bank.close();
+  }
+
+  @Benchmark
+  public Optional<BankPaymentResponse> authorise(Connections connections) {
+    return bankClient.processPayment(request, Deadline.after(Duration.ofSeconds(5)));
+  }
+
+  /**
+   * The connections the bank has seen. Counters are summed over threads, so only the first thread
+   * reports it.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Connections {
+
+    public long connections;
+
+    private boolean reporter;
+
+    @Setup(Level.Iteration)
+    public void reset(ThreadParams threadParams) {
+      reporter = threadParams.getThreadIndex() == 0;
+      connections = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void count(BankTransportBenchmark benchmark) {
+      if (reporter) {
+        connections = benchmark.bank.connections();
+      }
+    }
+  }
+
+  private ClientHttpRequestFactory requestFactory() {
+    if (protocol != HttpProtocol.HTTP11) {
+      return new Http2ClientHttpRequestFactory(protocol, 2, 100, Duration.ofSeconds(2),
+          Duration.ofSeconds(10), Duration.ofSeconds(2));
+    }
+    HttpComponentsClientHttpRequestFactory requestFactory =
+        new HttpComponentsClientHttpRequestFactory(HttpClients.custom()
+            .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(200)
+                .setMaxConnPerRoute(100)
+                .build())
+            .disableAutomaticRetries()
+            .build());
+    requestFactory.setHttpContextFactory(
+        new DeadlineHttpContextFactory(Duration.ofSeconds(10), Duration.ofSeconds(2)));
+    return requestFactory;
+  }
+}
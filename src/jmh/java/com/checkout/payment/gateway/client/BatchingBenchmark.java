@@ -0,0 +1,92 @@
+package com.checkout.payment.gateway.client;
+
+import com.checkout.payment.gateway.controller.gateway.support.BankSimulatorStub;
+import com.checkout.payment.gateway.model.BankPaymentRequest;
+import com.checkout.payment.gateway.model.BankPaymentResponse;
+import com.checkout.payment.gateway.resilience.Deadline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Authorisations from 32 threads through 4 connections to a bank that takes 5 ms per call,
+ * whether it is sent one payment or a batch. {@code batchSize = 1} is batching off. The
+ * throughput rows show the gain from fewer round trips, the sample-time rows what the linger
+ * adds to each payment's latency; with fewer callers than the bank has connections, batching
+ * only adds up to {@code lingerMicros}. The stub's HTTP server runs with TCP_NODELAY so that
+ * delayed ACKs do not dominate the small single-payment calls.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+@Threads(32)
+@State(Scope.Benchmark)
+public class BatchingBenchmark {
+
+  @Param({"1", "8", "32"})
+  public int batchSize;
+
+  @Param({"1000"})
+  public long lingerMicros;
+
+  private BankSimulatorStub bank;
+  private BankClient bankClient;
+  private BankPaymentRequest request;
+
+  @Setup
+  public void setUp() {
+    bank = new BankSimulatorStub();
+    bank.setDelay(Duration.ofMillis(5));
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    BankCallGuard guard = new BankCallGuard(100, 50, 50, Duration.ofSeconds(10), 3,
+        64, 64, 64, Duration.ofSeconds(2), 0.9, Clock.systemUTC(), meterRegistry);
+    HedgingPolicy hedging = new HedgingPolicy(false, 0.95, Duration.ofMillis(10),
+        Duration.ofSeconds(1), meterRegistry);
+    BatchingPolicy batching = new BatchingPolicy(batchSize > 1, batchSize,
+        Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(lingerMicros)), meterRegistry);
+    HttpComponentsClientHttpRequestFactory requestFactory =
+        new HttpComponentsClientHttpRequestFactory(HttpClients.custom()
+            .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(4)
+                .setMaxConnPerRoute(4)
+                .build())
+            .disableAutomaticRetries()
+            .build());
+    requestFactory.setHttpContextFactory(
+        new DeadlineHttpContextFactory(Duration.ofSeconds(10), Duration.ofSeconds(5)));
+    bankClient = new BankClient(new RestTemplate(requestFactory), bank.url(), guard, hedging,
+        batching, new BankCallMetrics(true, meterRegistry));
+    request = new BankPaymentRequest("2222405343248877", "04/2099", "GBP", 100, "123");
+  }
+
+  @TearDown
+  public void tearDown() {
+    bank.close();
+  }
+
+  @Benchmark
+  public Optional<BankPaymentResponse> authorise() {
+    return bankClient.processPayment(request, Deadline.after(Duration.ofSeconds(5)));
+  }
+}
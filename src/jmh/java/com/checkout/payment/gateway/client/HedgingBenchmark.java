@@ -0,0 +1,84 @@
+package com.checkout.payment.gateway.client;
+
+import com.checkout.payment.gateway.controller.gateway.support.BankSimulatorStub;
+import com.checkout.payment.gateway.model.BankPaymentRequest;
+import com.checkout.payment.gateway.model.BankPaymentResponse;
+import com.checkout.payment.gateway.resilience.Deadline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Bank call latency distribution with and without hedging, against a bank that answers in 5 ms
+ * except for one call in 50, which takes an extra 500 ms. Compare the p0.99 and p0.999 rows.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class HedgingBenchmark {
+
+  @Param({"false", "true"})
+  public boolean hedged;
+
+  private BankSimulatorStub bank;
+  private BankClient bankClient;
+  private BankPaymentRequest request;
+
+  @Setup
+  public void setUp() {
+    bank = new BankSimulatorStub();
+    bank.setDelay(Duration.ofMillis(5));
+    bank.setSlowResponses(50, Duration.ofMillis(500));
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    BankCallGuard guard = new BankCallGuard(100, 50, 50, Duration.ofSeconds(10), 3,
+        64, 64, 64, Duration.ofSeconds(2), 0.9, Clock.systemUTC(), meterRegistry);
+    HedgingPolicy hedging = new HedgingPolicy(hedged, 0.95, Duration.ofMillis(10),
+        Duration.ofSeconds(1), meterRegistry);
+    HttpComponentsClientHttpRequestFactory requestFactory =
+        new HttpComponentsClientHttpRequestFactory(HttpClients.custom()
+            .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(64)
+                .setMaxConnPerRoute(64)
+                .build())
+            .disableAutomaticRetries()
+            .build());
+    requestFactory.setHttpContextFactory(
+        new DeadlineHttpContextFactory(Duration.ofSeconds(10), Duration.ofSeconds(2)));
+    bankClient = new BankClient(new RestTemplate(requestFactory), bank.url(), guard, hedging,
+        new BankCallMetrics(true, meterRegistry));
+    request = new BankPaymentRequest("2222405343248877", "04/2099", "GBP", 100, "123");
+  }
+
+  @TearDown
+  public void tearDown() {
+    bank.close();
+  }
+
+  @Benchmark
+  public Optional<BankPaymentResponse> authorise() {
+    return bankClient.processPayment(request, Deadline.after(Duration.ofSeconds(5)));
+  }
+}
@@ -0,0 +1,121 @@
+package com.checkout.payment.gateway.controller;
+
+import com.checkout.payment.gateway.PaymentGatewayApplication;
+import com.checkout.payment.gateway.controller.gateway.support.BankSimulatorStub;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Payments per second through a running gateway, with the bank taking {@code bankDelayMillis} per
+ * call: {@value #PAYMENTS} payments sent as that many {@code POST /payment} calls one after the
+ * other, the same calls with {@value #PARALLELISM} in flight, and one {@code POST /payments/batch}
+ * fanning out to the bank {@value #PARALLELISM} at a time.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(PaymentBatchBenchmark.PAYMENTS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentBatchBenchmark {
+
+  static final int PAYMENTS = 100;
+  private static final int PARALLELISM = 16;
+
+  @Param({"0", "10"})
+  public int bankDelayMillis;
+
+  private BankSimulatorStub bank;
+  private ConfigurableApplicationContext gateway;
+  private HttpClient client;
+  private HttpRequest single;
+  private HttpRequest batch;
+
+  @Setup
+  public void setUp() {
+    bank = new BankSimulatorStub();
+    bank.setDelay(Duration.ofMillis(bankDelayMillis));
+    gateway = new SpringApplicationBuilder(PaymentGatewayApplication.class).run(
+        "--server.port=0",
+        "--bank.simulator.url=" + bank.url(),
+        "--payments.batch.parallelism=" + PARALLELISM,
+        "--logging.level.com.checkout=WARN");
+    String gatewayUrl = "http://localhost:"
+        + ((WebServerApplicationContext) gateway).getWebServer().getPort();
+    client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    String payment = "{\"card_number\":\"2222405343248877\",\"expiry_month\":4,"
+        + "\"expiry_year\":2099,\"currency\":\"GBP\",\"amount\":100,\"cvv\":\"123\"}";
+    single = HttpRequest.newBuilder(URI.create(gatewayUrl + "/payment"))
+        .header("Content-Type", "application/json")
+        .POST(BodyPublishers.ofString(payment))
+        .build();
+    batch = HttpRequest.newBuilder(URI.create(gatewayUrl + "/payments/batch"))
+        .header("Content-Type", "application/json")
+        .POST(BodyPublishers.ofString(IntStream.range(0, PAYMENTS)
+            .mapToObj(i -> payment)
+            .collect(Collectors.joining(",", "[", "]"))))
+        .build();
+  }
+
+  @TearDown
+  public void tearDown() {
+    gateway.close();
+    bank.close();
+  }
+
+  @Benchmark
+  public int individualSequential() throws Exception {
+    int bytes = 0;
+    for (int i = 0; i < PAYMENTS; i++) {
+      bytes += client.send(single, BodyHandlers.ofString()).body().length();
+    }
+    return bytes;
+  }
+
+  @Benchmark
+  public int individualConcurrent() {
+    Semaphore inFlight = new Semaphore(PARALLELISM);
+    List<CompletableFuture<String>> responses = IntStream.range(0, PAYMENTS)
+        .mapToObj(i -> {
+          inFlight.acquireUninterruptibly();
+          return client.sendAsync(single, BodyHandlers.ofString())
+              .thenApply(response -> response.body())
+              .whenComplete((body, failure) -> inFlight.release());
+        })
+        .toList();
+    return responses.stream().mapToInt(response -> response.join().length()).sum();
+  }
+
+  @Benchmark
+  public int batch() throws Exception {
+    return client.send(batch, BodyHandlers.ofString()).body().length();
+  }
+}
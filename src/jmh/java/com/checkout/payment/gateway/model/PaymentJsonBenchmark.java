@@ -0,0 +1,118 @@
+package com.checkout.payment.gateway.model;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Jackson reading and writing of the payment models on the request path, with an
+ * {@link ObjectMapper} configured the way Spring MVC configures its own: with reflective bean
+ * binding alone, and with the hand-written {@link PaymentJsonModule} installed. Run with
+ * {@code -prof gc} to compare allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentJsonBenchmark {
+
+  @Param({"bean", "handwritten"})
+  public String binding;
+
+  private ObjectReader requestReader;
+  private ObjectWriter requestWriter;
+  private ObjectReader responseReader;
+  private ObjectWriter responseWriter;
+  private ObjectWriter bankRequestWriter;
+  private ObjectReader bankResponseReader;
+  private byte[] requestJson;
+  private byte[] responseJson;
+  private PostPaymentRequest request;
+  private PostPaymentResponse response;
+  private BankPaymentRequest bankRequest;
+  private byte[] bankResponseJson;
+
+  @Setup
+  public void setUp() throws IOException {
+    Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+    if (binding.equals("handwritten")) {
+      builder.modulesToInstall(new PaymentJsonModule());
+    }
+    ObjectMapper mapper = builder.build();
+    requestReader = mapper.readerFor(PostPaymentRequest.class);
+    requestWriter = mapper.writerFor(PostPaymentRequest.class);
+    responseReader = mapper.readerFor(PostPaymentResponse.class);
+    responseWriter = mapper.writerFor(PostPaymentResponse.class);
+    bankRequestWriter = mapper.writerFor(BankPaymentRequest.class);
+    bankResponseReader = mapper.readerFor(BankPaymentResponse.class);
+
+    requestJson = """
+        {"card_number":"2222405343248877","expiry_month":4,"expiry_year":2099,\
+        "currency":"GBP","amount":100,"cvv":"123"}""".getBytes(StandardCharsets.UTF_8);
+    request = requestReader.readValue(requestJson);
+
+    response = new PostPaymentResponse();
+    response.setId(UUID.fromString("0bb07405-6d44-4b50-a14f-7ae0beff13ad"));
+    response.setStatus(PaymentStatus.AUTHORIZED);
+    response.setCardNumberLastFour(8877);
+    response.setExpiryMonth(4);
+    response.setExpiryYear(2099);
+    response.setCurrency("GBP");
+    response.setAmount(100);
+    responseJson = responseWriter.writeValueAsBytes(response);
+
+    bankRequest = new BankPaymentRequest("2222405343248877", "04/2099", "GBP", 100, "123");
+    bankResponseJson = """
+        {"authorized":true,"authorization_code":"0bb07405-6d44-4b50-a14f-7ae0beff13ad"}"""
+        .getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public PostPaymentRequest readRequest() throws IOException {
+    return requestReader.readValue(requestJson);
+  }
+
+  @Benchmark
+  public byte[] writeRequest() throws IOException {
+    return requestWriter.writeValueAsBytes(request);
+  }
+
+  @Benchmark
+  public PostPaymentResponse readResponse() throws IOException {
+    return responseReader.readValue(responseJson);
+  }
+
+  @Benchmark
+  public byte[] writeResponse() throws IOException {
+    return responseWriter.writeValueAsBytes(response);
+  }
+
+  @Benchmark
+  public byte[] writeBankRequest() throws IOException {
+    return bankRequestWriter.writeValueAsBytes(bankRequest);
+  }
+
+  @Benchmark
+  public BankPaymentResponse readBankResponse() throws IOException {
+    return bankResponseReader.readValue(bankResponseJson);
+  }
+}
@@ -0,0 +1,117 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.zaxxer.hikari.HikariDataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Insert throughput of {@link JdbcPaymentsRepository} on H2, one statement per payment against
+ * prepared-statement batches. Scores are payments per millisecond. {@code tcp} reaches the
+ * database through a local H2 server, so every statement pays a network round trip as it would
+ * against a real database; {@code mem} and {@code file} are embedded and pay none.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JdbcInsertBenchmark {
+
+  private static final int PAYMENTS = 100;
+
+  @Param({"mem", "file", "tcp"})
+  public String database;
+
+  private Server server;
+  private HikariDataSource dataSource;
+  private JdbcPaymentsRepository repository;
+  private Path directory;
+  private List<PostPaymentResponse> payments;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException, SQLException {
+    dataSource = new HikariDataSource();
+    directory = Files.createTempDirectory("payments-jdbc-benchmark");
+    switch (database) {
+      case "file" -> dataSource.setJdbcUrl("jdbc:h2:" + directory.resolve("payments"));
+      case "tcp" -> {
+        server = Server.createTcpServer("-tcpPort", "0", "-baseDir", directory.toString(),
+            "-ifNotExists").start();
+        dataSource.setJdbcUrl("jdbc:h2:tcp://localhost:" + server.getPort() + "/payments");
+      }
+      default -> dataSource.setJdbcUrl("jdbc:h2:mem:payments;DB_CLOSE_DELAY=-1");
+    }
+    dataSource.setUsername("sa");
+    repository = new JdbcPaymentsRepository(dataSource, PAYMENTS, true, Clock.systemUTC());
+  }
+
+  @Setup(Level.Invocation)
+  public void newPayments() {
+    payments = new ArrayList<>(PAYMENTS);
+    for (int i = 0; i < PAYMENTS; i++) {
+      PostPaymentResponse payment = new PostPaymentResponse();
+      payment.setId(UUID.randomUUID());
+      payment.setStatus(PaymentStatus.AUTHORIZED);
+      payment.setCardNumberLastFour(8877);
+      payment.setExpiryMonth(4);
+      payment.setExpiryYear(2027);
+      payment.setCurrency("GBP");
+      payment.setAmount(100);
+      payments.add(payment);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    dataSource.close();
+    if (server != null) {
+      server.stop();
+    }
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(PAYMENTS)
+  public void singleRow() {
+    for (PostPaymentResponse payment : payments) {
+      repository.add(payment);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(PAYMENTS)
+  public void batched() {
+    repository.addAll(payments);
+  }
+}
@@ -0,0 +1,58 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Plain LRU read-through cache, the baseline {@link CachingPaymentsRepository} is measured
+ * against: every miss is admitted and pushes out the least recently used payment.
+ */
+final class LruPaymentsRepository implements PaymentsRepository {
+
+  private final PaymentsRepository store;
+  private final Map<UUID, PostPaymentResponse> cache;
+
+  LruPaymentsRepository(PaymentsRepository store, int maxEntries) {
+    this.store = store;
+    this.cache = new LinkedHashMap<>(maxEntries * 2, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<UUID, PostPaymentResponse> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  @Override
+  public void add(PostPaymentResponse payment) {
+    store.add(payment);
+    synchronized (cache) {
+      cache.put(payment.getId(), payment);
+    }
+  }
+
+  @Override
+  public Optional<PostPaymentResponse> get(UUID id) {
+    synchronized (cache) {
+      PostPaymentResponse cached = cache.get(id);
+      if (cached != null) {
+        return Optional.of(cached);
+      }
+    }
+    Optional<PostPaymentResponse> stored = store.get(id);
+    stored.ifPresent(payment -> {
+      synchronized (cache) {
+        cache.put(id, payment);
+      }
+    });
+    return stored;
+  }
+
+  @Override
+  public Stream<PostPaymentResponse> find(PaymentQuery query) {
+    return store.find(query);
+  }
+}
@@ -0,0 +1,128 @@
+package com.checkout.payment.gateway.repository;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.checkout.payment.gateway.controller.PaymentGatewayController;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.exception.CommonExceptionHandler;
+import com.checkout.payment.gateway.exception.EventProcessingException;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.service.PaymentGatewayService;
+import com.checkout.payment.gateway.service.PaymentMetrics;
+import com.checkout.payment.gateway.service.TimeOrderedPaymentIdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.OutputStream;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * {@code GET /payment/{id}} for ids that were never stored, from the controller down, against a
+ * store of a hundred thousand payments with a {@code roundTripMicros} round trip, with and
+ * without {@link BloomFilterPaymentsRepository} in front of it. {@code exception} is the way
+ * misses used to be answered, an {@link EventProcessingException} handled and logged with its
+ * stack trace by {@link CommonExceptionHandler}; {@code optional} is the controller's own 404.
+ * Logs are formatted as with Spring Boot's defaults, at {@code INFO}, but written nowhere.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class NegativeLookupBenchmark {
+
+  private static final int PAYMENTS = 100_000;
+
+  @Param({"false", "true"})
+  public boolean filter;
+
+  @Param({"0", "100"})
+  public long roundTripMicros;
+
+  private PaymentGatewayService service;
+  private PaymentGatewayController controller;
+  private CommonExceptionHandler exceptionHandler;
+
+  @Setup
+  public void setUp() {
+    discardLogs();
+    Clock clock = Clock.systemUTC();
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    InMemoryPaymentsRepository payments = new InMemoryPaymentsRepository(PAYMENTS,
+        Duration.ofDays(1), 16, clock, meterRegistry);
+    TimeOrderedPaymentIdGenerator ids = new TimeOrderedPaymentIdGenerator(clock);
+    for (int i = 0; i < PAYMENTS; i++) {
+      PostPaymentResponse payment = new PostPaymentResponse();
+      payment.setId(ids.next());
+      payment.setStatus(PaymentStatus.AUTHORIZED);
+      payment.setCardNumberLastFour(8877);
+      payment.setExpiryMonth(4);
+      payment.setExpiryYear(2027);
+      payment.setCurrency("GBP");
+      payment.setAmount(100);
+      payments.add(payment);
+    }
+    PaymentsRepository store =
+        new RemoteStore(payments, TimeUnit.MICROSECONDS.toNanos(roundTripMicros));
+    PaymentsRepository repository = filter
+        ? new BloomFilterPaymentsRepository(store, PAYMENTS, 0.01, meterRegistry)
+        : store;
+    service = new PaymentGatewayService(repository, null, null, null, ids,
+        new PaymentMetrics(true, meterRegistry));
+    controller = new PaymentGatewayController(service, null, null);
+    exceptionHandler = new CommonExceptionHandler();
+  }
+
+  @Benchmark
+  public ResponseEntity<?> exception() {
+    try {
+      return ResponseEntity.ok(service.getPaymentById(UUID.randomUUID()));
+    } catch (EventProcessingException e) {
+      return exceptionHandler.handleException(e);
+    }
+  }
+
+  @Benchmark
+  public ResponseEntity<?> optional() {
+    return controller.getPostPaymentEventById(UUID.randomUUID());
+  }
+
+  private static void discardLogs() {
+    LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+    PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+    encoder.setContext(context);
+    encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p %pid --- [%t] %-40.40logger{39}"
+        + " : %m%n%wEx");
+    encoder.start();
+    OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+    appender.setContext(context);
+    appender.setEncoder(encoder);
+    appender.setOutputStream(OutputStream.nullOutputStream());
+    appender.start();
+    Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+    root.detachAndStopAllAppenders();
+    root.addAppender(appender);
+    root.setLevel(Level.INFO);
+  }
+}
@@ -0,0 +1,190 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * {@code GET /payment/{id}} lookups following a Zipfian distribution (s = 0.99, as in YCSB) over
+ * a million stored payments, against a store with a {@code roundTripMicros} round trip. Compares
+ * no cache, a plain LRU cache and {@link CachingPaymentsRepository}, each holding 1% of the
+ * payments. The throughput run also reports {@code get:lookups} and {@code get:storeCalls}, the
+ * lookups made and how many of them reached the store, so the hit ratio is
+ * {@code 1 - storeCalls / lookups}; JMH only reports such counters for throughput.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class PaymentCacheBenchmark {
+
+  private static final int PAYMENTS = 1_000_000;
+  private static final double ZIPF_EXPONENT = 0.99;
+
+  @Param({"none", "lru", "w-tinylfu"})
+  public String cache;
+
+  @Param({"10000"})
+  public int cacheEntries;
+
+  @Param({"100"})
+  public long roundTripMicros;
+
+  private PaymentsRepository repository;
+  private RemoteStore store;
+  private UUID[] ids;
+  private ZipfianGenerator zipf;
+  private final LongAdder lookups = new LongAdder();
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    InMemoryPaymentsRepository payments = new InMemoryPaymentsRepository(PAYMENTS,
+        Duration.ofDays(1), 16, Clock.systemUTC(), new SimpleMeterRegistry());
+    ids = new UUID[PAYMENTS];
+    for (int i = 0; i < PAYMENTS; i++) {
+      PostPaymentResponse payment = new PostPaymentResponse();
+      payment.setId(UUID.randomUUID());
+      payment.setStatus(PaymentStatus.AUTHORIZED);
+      payment.setCardNumberLastFour(8877);
+      payment.setExpiryMonth(4);
+      payment.setExpiryYear(2027);
+      payment.setCurrency("GBP");
+      payment.setAmount(100);
+      payments.add(payment);
+      ids[i] = payment.getId();
+    }
+    store = new RemoteStore(payments, TimeUnit.MICROSECONDS.toNanos(roundTripMicros));
+    repository = switch (cache) {
+      case "lru" -> new LruPaymentsRepository(store, cacheEntries);
+      case "w-tinylfu" -> new CachingPaymentsRepository(store, cacheEntries, Duration.ofHours(1),
+          new SimpleMeterRegistry());
+      default -> store;
+    };
+    zipf = new ZipfianGenerator(PAYMENTS, ZIPF_EXPONENT);
+  }
+
+  @Setup(Level.Iteration)
+  public void resetCounts() {
+    lookups.reset();
+    store.calls().reset();
+  }
+
+  @Benchmark
+  public Optional<PostPaymentResponse> get(Lookup lookup, CacheCounters counters) {
+    lookups.increment();
+    return repository.get(ids[zipf.next(lookup.random)]);
+  }
+
+  @State(Scope.Thread)
+  public static class Lookup {
+
+    final SplittableRandom random = new SplittableRandom();
+  }
+
+  /**
+   * The iteration's lookups and store calls. Counters are summed over threads, so only the first
+   * thread reports the shared totals.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class CacheCounters {
+
+    public long lookups;
+    public long storeCalls;
+
+    private boolean reporter;
+
+    @Setup(Level.Iteration)
+    public void reset(ThreadParams threadParams) {
+      reporter = threadParams.getThreadIndex() == 0;
+      lookups = 0;
+      storeCalls = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void collect(PaymentCacheBenchmark benchmark) {
+      if (reporter) {
+        lookups = benchmark.lookups.sum();
+        storeCalls = benchmark.store.calls().sum();
+      }
+    }
+  }
+
+  /**
+   * Zipfian ranks by Gray et al.'s method, as used by YCSB, scrambled so that the popular
+   * payments are spread over the whole id array instead of being its first entries.
+   */
+  static final class ZipfianGenerator {
+
+    private final int items;
+    private final double theta;
+    private final double zetaN;
+    private final double alpha;
+    private final double eta;
+
+    ZipfianGenerator(int items, double theta) {
+      this.items = items;
+      this.theta = theta;
+      this.zetaN = zeta(items, theta);
+      this.alpha = 1 / (1 - theta);
+      this.eta = (1 - Math.pow(2.0 / items, 1 - theta)) / (1 - zeta(2, theta) / zetaN);
+    }
+
+    int next(SplittableRandom random) {
+      double u = random.nextDouble();
+      double uz = u * zetaN;
+      long rank;
+      if (uz < 1) {
+        rank = 0;
+      } else if (uz < 1 + Math.pow(0.5, theta)) {
+        rank = 1;
+      } else {
+        rank = (long) (items * Math.pow(eta * u - eta + 1, alpha));
+      }
+      return (int) Math.floorMod(mix(rank), (long) items);
+    }
+
+    private static double zeta(int n, double theta) {
+      double sum = 0;
+      for (int i = 1; i <= n; i++) {
+        sum += 1 / Math.pow(i, theta);
+      }
+      return sum;
+    }
+
+    // MurmurHash3's 64-bit finaliser.
+    private static long mix(long value) {
+      value ^= value >>> 33;
+      value *= 0xff51afd7ed558ccdL;
+      value ^= value >>> 33;
+      value *= 0xc4ceb9fe1a85ec53L;
+      return value ^ (value >>> 33);
+    }
+  }
+}
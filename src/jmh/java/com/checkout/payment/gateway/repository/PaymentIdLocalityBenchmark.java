@@ -0,0 +1,146 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.service.PaymentIdGenerator;
+import com.checkout.payment.gateway.service.RandomPaymentIdGenerator;
+import com.checkout.payment.gateway.service.TimeOrderedPaymentIdGenerator;
+import com.zaxxer.hikari.HikariDataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * Batched inserts into {@link JdbcPaymentsRepository} on a file-backed H2 database that already
+ * holds {@code preloaded} payments, keyed by random version 4 ids or time-ordered version 7 ones.
+ * The primary key is a B-tree over the id bytes: random ids land on pages all over it, version 7
+ * ids on its rightmost pages. Scores are payments per millisecond; {@code batched:databaseKiB} is
+ * the size of the database files at the end of each iteration.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentIdLocalityBenchmark {
+
+  private static final int PAYMENTS = 100;
+
+  @Param({"random", "uuidv7"})
+  public String ids;
+
+  @Param({"500000"})
+  public int preloaded;
+
+  private HikariDataSource dataSource;
+  private JdbcPaymentsRepository repository;
+  private PaymentIdGenerator generator;
+  private Path directory;
+  private List<PostPaymentResponse> payments;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("payments-id-benchmark");
+    dataSource = new HikariDataSource();
+    dataSource.setJdbcUrl("jdbc:h2:" + directory.resolve("payments"));
+    dataSource.setUsername("sa");
+    repository = new JdbcPaymentsRepository(dataSource, 1000, true, Clock.systemUTC());
+    generator = ids.equals("random")
+        ? new RandomPaymentIdGenerator()
+        : new TimeOrderedPaymentIdGenerator(Clock.systemUTC());
+    for (int loaded = 0; loaded < preloaded; loaded += 1000) {
+      repository.addAll(payments(1000));
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void newPayments() {
+    payments = payments(PAYMENTS);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    dataSource.close();
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(PAYMENTS)
+  public void batched(DatabaseSize size) {
+    repository.addAll(payments);
+  }
+
+  /**
+   * The size of the database files. Counters are summed over threads, so only the first thread
+   * reports it.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class DatabaseSize {
+
+    public long databaseKiB;
+
+    private boolean reporter;
+
+    @Setup(Level.Iteration)
+    public void reset(ThreadParams threadParams) {
+      reporter = threadParams.getThreadIndex() == 0;
+      databaseKiB = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void measure(PaymentIdLocalityBenchmark benchmark) throws IOException {
+      if (!reporter) {
+        return;
+      }
+      try (Stream<Path> files = Files.walk(benchmark.directory)) {
+        for (Path file : files.filter(Files::isRegularFile).toList()) {
+          databaseKiB += Files.size(file) / 1024;
+        }
+      }
+    }
+  }
+
+  private List<PostPaymentResponse> payments(int count) {
+    List<PostPaymentResponse> batch = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      PostPaymentResponse payment = new PostPaymentResponse();
+      payment.setId(generator.next());
+      payment.setStatus(PaymentStatus.AUTHORIZED);
+      payment.setCardNumberLastFour(8877);
+      payment.setExpiryMonth(4);
+      payment.setExpiryYear(2027);
+      payment.setCurrency("GBP");
+      payment.setAmount(100);
+      batch.add(payment);
+    }
+    return batch;
+  }
+}
@@ -0,0 +1,124 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.controller.gateway.support.MutableClock;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of {@link PaymentsRepository#find} over 1,000,000 payments stored across 100 minutes:
+ * a one-minute window (found through the time order of the store) against the same status and
+ * currency filter over every payment, and against decoding every payment and filtering the
+ * objects.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentQueryBenchmark {
+
+  private static final int PAYMENTS = 1_000_000;
+  private static final int MINUTES = 100;
+  private static final String[] CURRENCIES = {"GBP", "USD", "EUR"};
+
+  @Param({"memory", "mapped"})
+  public String type;
+
+  private PaymentsRepository repository;
+  private Path directory;
+  private PaymentQuery window;
+  private PaymentQuery statusAndCurrency;
+
+  @Setup
+  public void setUp() throws IOException {
+    MutableClock clock = new MutableClock();
+    if (type.equals("mapped")) {
+      directory = Files.createTempDirectory("payments-query-benchmark");
+      repository = new MappedFilePaymentsRepository(directory.resolve("payments.log"), PAYMENTS,
+          0, false, clock, new SimpleMeterRegistry());
+    } else {
+      repository = new InMemoryPaymentsRepository(PAYMENTS, Duration.ofDays(1), 16, clock,
+          new SimpleMeterRegistry());
+    }
+    Instant start = clock.instant();
+    for (int i = 0; i < PAYMENTS; i++) {
+      if (i > 0 && i % (PAYMENTS / MINUTES) == 0) {
+        clock.advance(Duration.ofMinutes(1));
+      }
+      repository.add(payment(i));
+    }
+    Instant windowStart = start.plus(Duration.ofMinutes(MINUTES / 2));
+    window = new PaymentQuery(PaymentStatus.AUTHORIZED, "GBP", windowStart,
+        windowStart.plus(Duration.ofMinutes(1)));
+    statusAndCurrency = new PaymentQuery(PaymentStatus.AUTHORIZED, "GBP", null, null);
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    if (repository instanceof AutoCloseable closeable) {
+      closeable.close();
+    }
+    if (directory != null) {
+      Files.deleteIfExists(directory.resolve("payments.log"));
+      Files.deleteIfExists(directory);
+    }
+  }
+
+  @Benchmark
+  public long window() {
+    try (Stream<PostPaymentResponse> found = repository.find(window)) {
+      return found.count();
+    }
+  }
+
+  @Benchmark
+  public long statusAndCurrency() {
+    try (Stream<PostPaymentResponse> found = repository.find(statusAndCurrency)) {
+      return found.count();
+    }
+  }
+
+  @Benchmark
+  public long decodeAndFilter() {
+    try (Stream<PostPaymentResponse> found = repository.find(PaymentQuery.ALL)) {
+      return found
+          .filter(payment -> payment.getStatus() == PaymentStatus.AUTHORIZED
+              && "GBP".equals(payment.getCurrency()))
+          .count();
+    }
+  }
+
+  private static PostPaymentResponse payment(int i) {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(UUID.randomUUID());
+    payment.setStatus(i % 4 == 0 ? PaymentStatus.DECLINED : PaymentStatus.AUTHORIZED);
+    payment.setCardNumberLastFour(i % 10_000);
+    payment.setExpiryMonth(i % 12 + 1);
+    payment.setExpiryYear(2030);
+    payment.setCurrency(CURRENCIES[i % CURRENCIES.length]);
+    payment.setAmount(i + 1);
+    return payment;
+  }
+}
@@ -0,0 +1,118 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares write and read throughput of the in-memory and memory-mapped payment stores, on their
+ * own and with 2 writers and 6 readers contending for the same store.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentsRepositoryBenchmark {
+
+  private static final int PRELOADED = 100_000;
+  private static final int CAPACITY = 20_000_000;
+
+  @Param({"memory", "mapped"})
+  public String type;
+
+  private PaymentsRepository repository;
+  private Path directory;
+  private UUID[] ids;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    Clock clock = Clock.systemUTC();
+    if (type.equals("mapped")) {
+      directory = Files.createTempDirectory("payments-benchmark");
+      repository = new MappedFilePaymentsRepository(directory.resolve("payments.log"), CAPACITY,
+          0, false, clock, new SimpleMeterRegistry());
+    } else {
+      repository = new InMemoryPaymentsRepository(CAPACITY, Duration.ofDays(1), 16, clock,
+          new SimpleMeterRegistry());
+    }
+    ids = new UUID[PRELOADED];
+    for (int i = 0; i < PRELOADED; i++) {
+      PostPaymentResponse payment = payment();
+      repository.add(payment);
+      ids[i] = payment.getId();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    if (repository instanceof AutoCloseable closeable) {
+      closeable.close();
+    }
+    if (directory != null) {
+      Files.deleteIfExists(directory.resolve("payments.log"));
+      Files.deleteIfExists(directory);
+    }
+  }
+
+  @Benchmark
+  public void add() {
+    repository.add(payment());
+  }
+
+  @Benchmark
+  public Optional<PostPaymentResponse> get() {
+    return repository.get(ids[ThreadLocalRandom.current().nextInt(PRELOADED)]);
+  }
+
+  @Benchmark
+  @Group("contended")
+  @GroupThreads(2)
+  public void contendedAdd() {
+    repository.add(payment());
+  }
+
+  @Benchmark
+  @Group("contended")
+  @GroupThreads(6)
+  public Optional<PostPaymentResponse> contendedGet() {
+    return repository.get(ids[ThreadLocalRandom.current().nextInt(PRELOADED)]);
+  }
+
+  private static PostPaymentResponse payment() {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(UUID.randomUUID());
+    payment.setStatus(PaymentStatus.AUTHORIZED);
+    payment.setCardNumberLastFour(8877);
+    payment.setExpiryMonth(4);
+    payment.setExpiryYear(2027);
+    payment.setCurrency("GBP");
+    payment.setAmount(100);
+    return payment;
+  }
+}
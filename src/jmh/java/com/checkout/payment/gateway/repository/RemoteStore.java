@@ -0,0 +1,50 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Stands in for a database in benchmarks: every call waits one round trip, however many payments
+ * it carries, and then uses an in-process store.
+ */
+record RemoteStore(PaymentsRepository delegate, long roundTripNanos, LongAdder calls)
+    implements PaymentsRepository {
+
+  RemoteStore(PaymentsRepository delegate, long roundTripNanos) {
+    this(delegate, roundTripNanos, new LongAdder());
+  }
+
+  @Override
+  public void add(PostPaymentResponse payment) {
+    roundTrip();
+    delegate.add(payment);
+  }
+
+  @Override
+  public void addAll(Collection<PostPaymentResponse> payments) {
+    roundTrip();
+    payments.forEach(delegate::add);
+  }
+
+  @Override
+  public Optional<PostPaymentResponse> get(UUID id) {
+    roundTrip();
+    return delegate.get(id);
+  }
+
+  @Override
+  public Stream<PostPaymentResponse> find(PaymentQuery query) {
+    roundTrip();
+    return delegate.find(query);
+  }
+
+  private void roundTrip() {
+    calls.increment();
+    LockSupport.parkNanos(roundTripNanos);
+  }
+}
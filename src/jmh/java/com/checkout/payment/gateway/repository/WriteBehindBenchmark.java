@@ -0,0 +1,78 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency of {@code add} as seen by request threads when every round trip to the store costs
+ * {@code storeRoundTripMicros}, written straight through or through
+ * {@link WriteBehindPaymentsRepository}, which pays one round trip per batch.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class WriteBehindBenchmark {
+
+  @Param({"direct", "write-behind"})
+  public String mode;
+
+  @Param({"200"})
+  public long storeRoundTripMicros;
+
+  private PaymentsRepository repository;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    PaymentsRepository store = new RemoteStore(
+        new InMemoryPaymentsRepository(20_000_000, Duration.ofDays(1), 16, Clock.systemUTC(),
+            new SimpleMeterRegistry()),
+        TimeUnit.MICROSECONDS.toNanos(storeRoundTripMicros));
+    repository = mode.equals("direct")
+        ? store
+        : new WriteBehindPaymentsRepository(store, 65_536, 256, Duration.ofMillis(10),
+            new SimpleMeterRegistry());
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    if (repository instanceof AutoCloseable closeable) {
+      closeable.close();
+    }
+  }
+
+  @Benchmark
+  public void add() {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(UUID.randomUUID());
+    payment.setStatus(PaymentStatus.AUTHORIZED);
+    payment.setCardNumberLastFour(8877);
+    payment.setExpiryMonth(4);
+    payment.setExpiryYear(2027);
+    payment.setCurrency("GBP");
+    payment.setAmount(100);
+    repository.add(payment);
+  }
+}
@@ -0,0 +1,64 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link CardVelocityCheck#allow} from eight threads, either all hammering a handful of cards
+ * ({@code cards = 4}, every thread contending on the same counters) or spread over many. The
+ * limits are high enough that nothing is refused, so every call pays for the full check.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class CardVelocityCheckBenchmark {
+
+  @Param({"4", "100000"})
+  public int cards;
+
+  private CardVelocityCheck check;
+  private PostPaymentRequest[] requests;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    check = new CardVelocityCheck(Integer.MAX_VALUE, Integer.MAX_VALUE, Duration.ofMinutes(1), 6,
+        1_000_000, Clock.systemUTC(), new SimpleMeterRegistry());
+    requests = new PostPaymentRequest[cards];
+    for (int i = 0; i < cards; i++) {
+      PostPaymentRequest request = new PostPaymentRequest();
+      request.setCardNumber(String.valueOf(4_000_000_000_000_000L + i * 7919L));
+      request.setExpiryMonth(4);
+      request.setExpiryYear(2027);
+      request.setCurrency("GBP");
+      request.setAmount(100);
+      request.setCvv("123");
+      requests[i] = request;
+    }
+  }
+
+  @Benchmark
+  public boolean allow() {
+    return check.allow(requests[ThreadLocalRandom.current().nextInt(cards)]);
+  }
+}
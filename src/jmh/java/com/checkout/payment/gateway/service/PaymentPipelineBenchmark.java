@@ -0,0 +1,141 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.client.BankCallGuard;
+import com.checkout.payment.gateway.client.BankCallMetrics;
+import com.checkout.payment.gateway.client.BankClient;
+import com.checkout.payment.gateway.client.HedgingPolicy;
+import com.checkout.payment.gateway.client.ReactiveBankClient;
+import com.checkout.payment.gateway.controller.gateway.support.BankSimulatorStub;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.repository.InMemoryPaymentsRepository;
+import com.checkout.payment.gateway.routing.Acquirer;
+import com.checkout.payment.gateway.routing.AcquirerRouter;
+import com.checkout.payment.gateway.validation.PaymentRequestValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+
+/**
+ * Servlet (blocking) against reactive payment processing, with the bank taking 20 ms per call.
+ * The {@code *Latency} benchmarks report the per-payment latency distribution (p99 and above) with
+ * 64 callers; the {@code *Burst} benchmarks push 1,000 payments at once, the servlet path through
+ * a Tomcat-sized pool of 200 threads. Run with {@code -prof gc} to compare allocation per payment.
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentPipelineBenchmark {
+
+  private static final int BURST = 1_000;
+  private static final int SERVLET_THREADS = 200;
+
+  private BankSimulatorStub bank;
+  private PaymentGatewayService service;
+  private ExecutorService servletThreads;
+  private PostPaymentRequest request;
+
+  @Setup
+  public void setUp() {
+    bank = new BankSimulatorStub();
+    bank.setDelay(Duration.ofMillis(20));
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    BankCallGuard guard = new BankCallGuard(20, 10, 50, Duration.ofSeconds(10), 3,
+        BURST, BURST, BURST, Duration.ofSeconds(2), 0.9, Clock.systemUTC(), meterRegistry);
+    HedgingPolicy hedging = new HedgingPolicy(false, 0.95, Duration.ofMillis(20),
+        Duration.ofSeconds(1), meterRegistry);
+    BankCallMetrics bankCallMetrics = new BankCallMetrics(true, meterRegistry);
+    BankClient bankClient = new BankClient(new RestTemplateBuilder()
+        .setConnectTimeout(Duration.ofSeconds(10))
+        .setReadTimeout(Duration.ofSeconds(10))
+        .build(), bank.url(), guard, hedging, bankCallMetrics);
+    ReactiveBankClient reactiveBankClient = new ReactiveBankClient(WebClient.builder()
+        .clientConnector(new ReactorClientHttpConnector(HttpClient.create()))
+        .build(), bank.url(), guard, hedging, bankCallMetrics);
+    AcquirerRouter router = new AcquirerRouter(List.of(new Acquirer("bank", Set.of(), List.of(),
+        bankClient, reactiveBankClient, Duration.ofSeconds(10), Duration.ofSeconds(1),
+        meterRegistry)), meterRegistry);
+    service = new PaymentGatewayService(
+        new InMemoryPaymentsRepository(10_000_000, Duration.ofDays(1), 16, Clock.systemUTC(),
+            meterRegistry),
+        router, new PaymentRequestValidator(Clock.systemUTC()),
+        new CardVelocityCheck(0, 0, Duration.ofMinutes(1), 6, 1_000_000, Clock.systemUTC(),
+            meterRegistry),
+        new TimeOrderedPaymentIdGenerator(Clock.systemUTC()),
+        new PaymentMetrics(true, meterRegistry));
+    servletThreads = Executors.newFixedThreadPool(SERVLET_THREADS);
+
+    request = new PostPaymentRequest();
+    request.setCardNumber("2222405343248877");
+    request.setExpiryMonth(4);
+    request.setExpiryYear(2099);
+    request.setCurrency("GBP");
+    request.setAmount(100);
+    request.setCvv("123");
+  }
+
+  @TearDown
+  public void tearDown() {
+    servletThreads.shutdownNow();
+    bank.close();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @Threads(64)
+  public PostPaymentResponse servletLatency() {
+    return service.processPayment(request);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @Threads(64)
+  public PostPaymentResponse reactiveLatency() {
+    return service.processPaymentReactive(request).block();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public List<PostPaymentResponse> servletBurst() {
+    List<CompletableFuture<PostPaymentResponse>> payments = IntStream.range(0, BURST)
+        .mapToObj(i -> CompletableFuture.supplyAsync(() -> service.processPayment(request),
+            servletThreads))
+        .toList();
+    return payments.stream().map(CompletableFuture::join).toList();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public List<PostPaymentResponse> reactiveBurst() {
+    return Flux.range(0, BURST)
+        .flatMap(i -> service.processPaymentReactive(request), BURST)
+        .collectList()
+        .block();
+  }
+}
@@ -0,0 +1,93 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.client.BankCallResult;
+import com.checkout.payment.gateway.client.BankClient;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.BankPaymentRequest;
+import com.checkout.payment.gateway.model.BankPaymentResponse;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.repository.InMemoryPaymentsRepository;
+import com.checkout.payment.gateway.resilience.Deadline;
+import com.checkout.payment.gateway.routing.Acquirer;
+import com.checkout.payment.gateway.routing.AcquirerRouter;
+import com.checkout.payment.gateway.validation.PaymentRequestValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * CPU cost of the gateway's own work on a payment: building the bank request, building the
+ * response, and {@code processPayment} end to end with an in-process bank that answers at once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentServiceBenchmark {
+
+  private PaymentGatewayService service;
+  private PostPaymentRequest request;
+
+  @Setup
+  public void setUp() {
+    BankPaymentResponse authorized = new BankPaymentResponse();
+    authorized.setAuthorized(true);
+    authorized.setAuthorizationCode("0bb07405-6d44-4b50-a14f-7ae0beff13ad");
+    BankClient bank = new BankClient(null, "http://bank.invalid", null, null, null) {
+      @Override
+      public BankCallResult call(BankPaymentRequest bankRequest, Deadline deadline) {
+        return new BankCallResult(BankCallResult.Outcome.ANSWERED, authorized);
+      }
+    };
+    Clock clock = Clock.systemUTC();
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    AcquirerRouter router = new AcquirerRouter(List.of(new Acquirer("bank", Set.of(), List.of(),
+        bank, null, Duration.ofSeconds(10), Duration.ofSeconds(1), meterRegistry)),
+        meterRegistry);
+    service = new PaymentGatewayService(
+        new InMemoryPaymentsRepository(1_000_000, Duration.ofMinutes(1), 16, clock,
+            meterRegistry),
+        router, new PaymentRequestValidator(clock),
+        new CardVelocityCheck(0, 0, Duration.ofMinutes(1), 6, 1_000_000, clock, meterRegistry),
+        new TimeOrderedPaymentIdGenerator(clock), new PaymentMetrics(true, meterRegistry));
+
+    request = new PostPaymentRequest();
+    request.setCardNumber("2222405343248877");
+    request.setExpiryMonth(4);
+    request.setExpiryYear(2099);
+    request.setCurrency("GBP");
+    request.setAmount(100);
+    request.setCvv("123");
+  }
+
+  @Benchmark
+  public BankPaymentRequest toBankRequest() {
+    return service.toBankRequest(request);
+  }
+
+  @Benchmark
+  public PostPaymentResponse buildResponse() {
+    return service.buildResponse(request, PaymentStatus.AUTHORIZED);
+  }
+
+  @Benchmark
+  public PostPaymentResponse processPayment() {
+    return service.processPayment(request);
+  }
+}
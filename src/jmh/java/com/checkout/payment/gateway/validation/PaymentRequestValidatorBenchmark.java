@@ -0,0 +1,63 @@
+package com.checkout.payment.gateway.validation;
+
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The validator against the regex-based one it replaced. Run with {@code -prof gc} and compare
+ * {@code gc.alloc.rate.norm}: a valid request should cost zero bytes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentRequestValidatorBenchmark {
+
+  @Param({"valid", "invalid"})
+  public String request;
+
+  private final PaymentRequestValidator validator =
+      new PaymentRequestValidator(Clock.systemUTC());
+  private final RegexPaymentRequestValidator baseline = new RegexPaymentRequestValidator();
+  private PostPaymentRequest paymentRequest;
+
+  @Setup
+  public void setUp() {
+    paymentRequest = new PostPaymentRequest();
+    paymentRequest.setCardNumber("2222405343248877");
+    paymentRequest.setExpiryMonth(4);
+    paymentRequest.setExpiryYear(2099);
+    paymentRequest.setCurrency("gbp");
+    paymentRequest.setAmount(100);
+    paymentRequest.setCvv("123");
+    if (request.equals("invalid")) {
+      paymentRequest.setCardNumber("2222-4053-4324");
+      paymentRequest.setCvv("12a");
+    }
+  }
+
+  @Benchmark
+  public List<String> charLoop() {
+    return validator.validate(paymentRequest);
+  }
+
+  @Benchmark
+  public List<String> regex() {
+    return baseline.validate(paymentRequest);
+  }
+}
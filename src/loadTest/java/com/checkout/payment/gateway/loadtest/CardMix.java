@@ -0,0 +1,50 @@
+package com.checkout.payment.gateway.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Share of payments the bank simulator authorises, declines and answers with 503. The simulator
+ * decides by the card number's last digit, so the mix is produced by picking that digit.
+ */
+record CardMix(int authorized, int declined, int unavailable) {
+
+  private static final String CARD_PREFIX = "222240534324887";
+
+  /** Parses {@code authorized,declined,unavailable} weights, e.g. {@code 70,25,5}. */
+  static CardMix parse(String weights) {
+    String[] parts = weights.split(",");
+    if (parts.length != 3) {
+      throw new IllegalArgumentException("--mix takes authorized,declined,unavailable weights");
+    }
+    CardMix mix = new CardMix(Integer.parseInt(parts[0].trim()),
+        Integer.parseInt(parts[1].trim()), Integer.parseInt(parts[2].trim()));
+    if (mix.authorized < 0 || mix.declined < 0 || mix.unavailable < 0 || mix.total() == 0) {
+      throw new IllegalArgumentException("--mix weights must be non-negative, not all zero");
+    }
+    return mix;
+  }
+
+  String nextCardNumber() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int pick = random.nextInt(total());
+    char lastDigit;
+    if (pick < authorized) {
+      lastDigit = (char) ('1' + 2 * random.nextInt(5));
+    } else if (pick < authorized + declined) {
+      lastDigit = (char) ('2' + 2 * random.nextInt(4));
+    } else {
+      lastDigit = '0';
+    }
+    return CARD_PREFIX + lastDigit;
+  }
+
+  private int total() {
+    return authorized + declined + unavailable;
+  }
+
+  @Override
+  public String toString() {
+    return "authorized:declined:unavailable = " + authorized + ":" + declined + ":"
+        + unavailable;
+  }
+}
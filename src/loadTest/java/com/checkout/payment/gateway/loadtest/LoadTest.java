@@ -0,0 +1,266 @@
+package com.checkout.payment.gateway.loadtest;
+
+import com.checkout.payment.gateway.PaymentGatewayApplication;
+import com.checkout.payment.gateway.controller.gateway.support.BankSimulatorStub;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Open-model load generator for the payment API. Requests are started at a fixed arrival rate
+ * whether or not earlier ones have finished, and each latency is measured from when the request
+ * was due rather than when it was sent, so a stalled gateway shows up in the percentiles instead
+ * of silently lowering the load (coordinated omission). At most {@code --concurrency} requests are
+ * outstanding; arrivals beyond that are counted as dropped.
+ *
+ * <p>Unless {@code --target} points at a running gateway, one is started in-process against an
+ * embedded bank simulator stub, or against {@code --bank-url} (e.g. the mountebank imposter from
+ * {@code docker-compose.yml}). Run with {@code ./gradlew loadTest -Ploadtest.args="--rate=500"};
+ * see {@link LoadTestOptions} for every option.
+ */
+public final class LoadTest {
+
+  private static final Pattern PAYMENT_ID = Pattern.compile("\"id\"\\s*:\\s*\"([0-9a-f-]{36})\"");
+  private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+  private final LoadTestOptions options;
+  private final String gatewayUrl;
+  private final HttpClient client;
+  private final ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor();
+  private final Semaphore outstanding;
+  private final Recorder postLatency = new Recorder(HIGHEST_MICROS, 3);
+  private final Recorder getLatency = new Recorder(HIGHEST_MICROS, 3);
+  private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+  private final AtomicReferenceArray<String> paymentIds = new AtomicReferenceArray<>(4096);
+  private final AtomicLong storedPayments = new AtomicLong();
+  private final LongAdder dropped = new LongAdder();
+
+  private LoadTest(LoadTestOptions options, String gatewayUrl) {
+    this.options = options;
+    this.gatewayUrl = gatewayUrl;
+    this.outstanding = new Semaphore(options.concurrency());
+    this.client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .executor(requests)
+        .build();
+  }
+
+  public static void main(String[] args) throws Exception {
+    LoadTestOptions options = LoadTestOptions.parse(args);
+    BankSimulatorStub bank = null;
+    ConfigurableApplicationContext gateway = null;
+    try {
+      String gatewayUrl = options.target();
+      if (gatewayUrl == null) {
+        String bankUrl = options.bankUrl();
+        if (bankUrl == null) {
+          bank = new BankSimulatorStub();
+          bank.setDelay(options.bankDelay());
+          bankUrl = bank.url();
+        }
+        gateway = startGateway(options, bankUrl);
+        gatewayUrl = "http://localhost:"
+            + ((WebServerApplicationContext) gateway).getWebServer().getPort();
+      }
+      new LoadTest(options, gatewayUrl).run();
+    } finally {
+      if (gateway != null) {
+        gateway.close();
+      }
+      if (bank != null) {
+        bank.close();
+      }
+    }
+  }
+
+  /** Properties go in as command-line arguments so they win over application.properties. */
+  private static ConfigurableApplicationContext startGateway(LoadTestOptions options,
+      String bankUrl) {
+    Map<String, Object> properties = new TreeMap<>();
+    properties.put("server.port", "0");
+    properties.put("bank.simulator.url", bankUrl);
+    properties.put("logging.level.com.checkout", "WARN");
+    properties.putAll(options.gatewayProperties());
+    String[] args = properties.entrySet().stream()
+        .map(property -> "--" + property.getKey() + "=" + property.getValue())
+        .toArray(String[]::new);
+    return new SpringApplicationBuilder(PaymentGatewayApplication.class).run(args);
+  }
+
+  private void run() throws IOException, InterruptedException {
+    PrintStream out = System.out;
+    out.printf("Load test against %s: %.0f req/s for %s after %s warm-up, %d concurrent max, "
+            + "%.0f%% GET, cards %s%n", gatewayUrl, options.rate(), options.duration(),
+        options.warmup(), options.concurrency(), options.getRatio() * 100, options.cardMix());
+
+    drive(options.warmup());
+    awaitOutstanding();
+    postLatency.reset();
+    getLatency.reset();
+    outcomes.clear();
+    dropped.reset();
+
+    long startedAt = System.nanoTime();
+    drive(options.duration());
+    awaitOutstanding();
+    double seconds = (System.nanoTime() - startedAt) / 1e9;
+
+    Histogram posts = postLatency.getIntervalHistogram();
+    Histogram gets = getLatency.getIntervalHistogram();
+    out.println();
+    report(out, "POST /payment", posts, seconds);
+    report(out, "GET /payment/{id}", gets, seconds);
+    out.printf("%nAchieved %.1f req/s (target %.1f), %d dropped at the concurrency limit%n",
+        (posts.getTotalCount() + gets.getTotalCount()) / seconds, options.rate(),
+        dropped.sum());
+    out.println("Outcomes:");
+    new TreeMap<>(outcomes).forEach((outcome, count) ->
+        out.printf("  %-24s %d%n", outcome, count.sum()));
+
+    Path directory = Path.of(options.histogramDirectory());
+    Files.createDirectories(directory);
+    writeHistogram(directory.resolve("post-payment.hgrm"), posts);
+    writeHistogram(directory.resolve("get-payment.hgrm"), gets);
+    out.println("HdrHistogram percentile distributions written to " + directory.toAbsolutePath());
+  }
+
+  private void drive(Duration duration) {
+    long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / options.rate());
+    long start = System.nanoTime();
+    long end = start + duration.toNanos();
+    for (long due = start; due < end; due += intervalNanos) {
+      long wait = due - System.nanoTime();
+      if (wait > 0) {
+        LockSupport.parkNanos(wait);
+      }
+      if (!outstanding.tryAcquire()) {
+        dropped.increment();
+        continue;
+      }
+      long dueAt = due;
+      requests.execute(() -> {
+        try {
+          send(dueAt);
+        } finally {
+          outstanding.release();
+        }
+      });
+    }
+  }
+
+  private void awaitOutstanding() throws InterruptedException {
+    outstanding.acquire(options.concurrency());
+    outstanding.release(options.concurrency());
+  }
+
+  private void send(long dueAt) {
+    String paymentId = ThreadLocalRandom.current().nextDouble() < options.getRatio()
+        ? knownPaymentId()
+        : null;
+    boolean isGet = paymentId != null;
+    HttpRequest request = isGet
+        ? HttpRequest.newBuilder(URI.create(gatewayUrl + "/payment/" + paymentId)).GET().build()
+        : HttpRequest.newBuilder(URI.create(gatewayUrl + "/payment"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(paymentJson()))
+            .build();
+    String outcome;
+    try {
+      HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+      outcome = (isGet ? "GET " : "POST ") + response.statusCode();
+      if (!isGet) {
+        outcome += " " + status(response.body());
+        rememberPaymentId(response.body());
+      }
+    } catch (IOException e) {
+      outcome = (isGet ? "GET " : "POST ") + e.getClass().getSimpleName();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - dueAt);
+    (isGet ? getLatency : postLatency).recordValue(Math.min(micros, HIGHEST_MICROS));
+    outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+  }
+
+  private String paymentJson() {
+    return """
+        {"card_number":"%s","expiry_month":4,"expiry_year":2099,"currency":"GBP",\
+        "amount":%d,"cvv":"123"}""".formatted(options.cardMix().nextCardNumber(),
+        ThreadLocalRandom.current().nextInt(1, 100_000));
+  }
+
+  private String knownPaymentId() {
+    long stored = storedPayments.get();
+    if (stored == 0) {
+      return null;
+    }
+    int slot = (int) (ThreadLocalRandom.current().nextLong(Math.min(stored, paymentIds.length())));
+    return paymentIds.get(slot);
+  }
+
+  private void rememberPaymentId(String body) {
+    Matcher matcher = PAYMENT_ID.matcher(body);
+    if (matcher.find() && !body.contains("\"Rejected\"")) {
+      long index = storedPayments.getAndIncrement();
+      paymentIds.set((int) (index % paymentIds.length()), matcher.group(1));
+    }
+  }
+
+  private static String status(String body) {
+    for (String status : new String[] {"Authorized", "Declined", "Rejected"}) {
+      if (body.contains("\"" + status + "\"")) {
+        return status;
+      }
+    }
+    return "";
+  }
+
+  private static void report(PrintStream out, String name, Histogram histogram, double seconds) {
+    if (histogram.getTotalCount() == 0) {
+      out.printf("%-18s no requests%n", name);
+      return;
+    }
+    out.printf("%-18s %8d req %9.1f req/s  p50 %8.2f  p90 %8.2f  p99 %8.2f  p99.9 %8.2f  "
+            + "p99.99 %8.2f  max %8.2f ms%n",
+        name, histogram.getTotalCount(), histogram.getTotalCount() / seconds,
+        millis(histogram, 50), millis(histogram, 90), millis(histogram, 99),
+        millis(histogram, 99.9), millis(histogram, 99.99), histogram.getMaxValue() / 1000.0);
+  }
+
+  private static double millis(Histogram histogram, double percentile) {
+    return histogram.getValueAtPercentile(percentile) / 1000.0;
+  }
+
+  private static void writeHistogram(Path file, Histogram histogram) throws IOException {
+    try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+      histogram.outputPercentileDistribution(out, 1000.0);
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package com.checkout.payment.gateway.loadtest;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.convert.DurationStyle;
+
+/**
+ * Command-line options of {@link LoadTest}, each given as {@code --name=value}. Any option not
+ * listed here is passed on to the embedded gateway as a Spring property, for example
+ * {@code --payments.threads.virtual.enabled=true}.
+ */
+record LoadTestOptions(
+    double rate,
+    Duration duration,
+    Duration warmup,
+    int concurrency,
+    double getRatio,
+    CardMix cardMix,
+    String target,
+    String bankUrl,
+    Duration bankDelay,
+    String histogramDirectory,
+    Map<String, String> gatewayProperties) {
+
+  static LoadTestOptions parse(String[] args) {
+    Map<String, String> options = new LinkedHashMap<>();
+    for (String arg : args) {
+      if (!arg.startsWith("--") || !arg.contains("=")) {
+        throw new IllegalArgumentException("Expected --name=value but got " + arg);
+      }
+      int split = arg.indexOf('=');
+      options.put(arg.substring(2, split), arg.substring(split + 1));
+    }
+    LoadTestOptions parsed = new LoadTestOptions(
+        Double.parseDouble(take(options, "rate", "200")),
+        DurationStyle.detectAndParse(take(options, "duration", "30s")),
+        DurationStyle.detectAndParse(take(options, "warmup", "5s")),
+        Integer.parseInt(take(options, "concurrency", "512")),
+        Double.parseDouble(take(options, "get-ratio", "0.2")),
+        CardMix.parse(take(options, "mix", "70,25,5")),
+        options.remove("target"),
+        options.remove("bank-url"),
+        DurationStyle.detectAndParse(take(options, "bank-delay", "0s")),
+        take(options, "histograms", "build/reports/loadtest"),
+        Map.copyOf(options));
+    if (parsed.rate <= 0 || parsed.concurrency < 1) {
+      throw new IllegalArgumentException("--rate and --concurrency must be positive");
+    }
+    if (parsed.getRatio < 0 || parsed.getRatio >= 1) {
+      throw new IllegalArgumentException("--get-ratio must be in [0, 1)");
+    }
+    return parsed;
+  }
+
+  private static String take(Map<String, String> options, String name, String defaultValue) {
+    String value = options.remove(name);
+    return value == null ? defaultValue : value;
+  }
+}
@@ -2,8 +2,10 @@ package com.checkout.payment.gateway;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
 
-@SpringBootApplication
+// The only database is the optional JDBC payment store, which sets up its own pool.
+@SpringBootApplication(exclude = DataSourceAutoConfiguration.class)
 public class PaymentGatewayApplication {
 
   public static void main(String[] args) {
@@ -0,0 +1,122 @@
+package com.checkout.payment.gateway.client;
+
+import com.checkout.payment.gateway.resilience.AimdConcurrencyLimiter;
+import com.checkout.payment.gateway.resilience.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Admission control shared by {@link BankClient} and {@link ReactiveBankClient}: a circuit breaker
+ * that fails fast while the bank keeps erroring, and an adaptive concurrency limit that sheds
+ * calls before a slowing bank ties up every thread or pooled connection.
+ */
+@Component
+public class BankCallGuard {
+
+  private final CircuitBreaker circuitBreaker;
+  private final AimdConcurrencyLimiter concurrencyLimiter;
+  private final Settings settings;
+
+  @Autowired
+  public BankCallGuard(
+      @Value("${bank.circuit-breaker.window-size:20}") int windowSize,
+      @Value("${bank.circuit-breaker.minimum-calls:10}") int minimumCalls,
+      @Value("${bank.circuit-breaker.failure-rate-threshold:50}") int failureRateThreshold,
+      @Value("${bank.circuit-breaker.open-duration:10s}") Duration openDuration,
+      @Value("${bank.circuit-breaker.half-open-calls:3}") int halfOpenCalls,
+      @Value("${bank.concurrency.initial-limit:100}") int initialLimit,
+      @Value("${bank.concurrency.min-limit:5}") int minLimit,
+      @Value("${bank.concurrency.max-limit:200}") int maxLimit,
+      @Value("${bank.concurrency.latency-threshold:2s}") Duration latencyThreshold,
+      @Value("${bank.concurrency.backoff-ratio:0.9}") double backoffRatio,
+      Clock clock, MeterRegistry meterRegistry) {
+    this("bank", new Settings(windowSize, minimumCalls, failureRateThreshold, openDuration,
+        halfOpenCalls, initialLimit, minLimit, maxLimit, latencyThreshold, backoffRatio, clock,
+        meterRegistry));
+  }
+
+  private BankCallGuard(String name, Settings settings) {
+    this.settings = settings;
+    this.circuitBreaker = new CircuitBreaker(name, settings.windowSize, settings.minimumCalls,
+        settings.failureRateThreshold, settings.openDuration, settings.halfOpenCalls,
+        settings.clock, settings.meterRegistry);
+    this.concurrencyLimiter = new AimdConcurrencyLimiter(name, settings.initialLimit,
+        settings.minLimit, settings.maxLimit, settings.latencyThreshold, settings.backoffRatio,
+        settings.meterRegistry);
+  }
+
+  /**
+   * A guard with the same settings but a circuit and concurrency limit of its own, published
+   * under {@code name}, for an acquirer whose health is tracked apart from the others.
+   */
+  public BankCallGuard withName(String name) {
+    return new BankCallGuard(name, settings);
+  }
+
+  /**
+   * Returns a permit for one bank call, or empty when the call should not be made at all.
+   */
+  public Optional<Permit> tryAcquire() {
+    if (!concurrencyLimiter.tryAcquire()) {
+      return Optional.empty();
+    }
+    if (!circuitBreaker.tryAcquire()) {
+      concurrencyLimiter.onIgnored();
+      return Optional.empty();
+    }
+    return Optional.of(new Permit(System.nanoTime()));
+  }
+
+  public CircuitBreaker.State circuitState() {
+    return circuitBreaker.state();
+  }
+
+  private record Settings(int windowSize, int minimumCalls, int failureRateThreshold,
+      Duration openDuration, int halfOpenCalls, int initialLimit, int minLimit, int maxLimit,
+      Duration latencyThreshold, double backoffRatio, Clock clock, MeterRegistry meterRegistry) {
+  }
+
+  /**
+   * Outcome of one admitted call. Only the first report counts, so a caller may report the
+   * outcome and still release the permit unconditionally afterwards.
+   */
+  public final class Permit {
+
+    private final long startedAt;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private Permit(long startedAt) {
+      this.startedAt = startedAt;
+    }
+
+    /** The bank answered, whether it authorised, declined or refused the request as invalid. */
+    public void success() {
+      if (released.compareAndSet(false, true)) {
+        circuitBreaker.onSuccess();
+        concurrencyLimiter.onSuccess(System.nanoTime() - startedAt);
+      }
+    }
+
+    /** The bank failed, timed out or could not be reached. */
+    public void failure() {
+      if (released.compareAndSet(false, true)) {
+        circuitBreaker.onFailure();
+        concurrencyLimiter.onDropped();
+      }
+    }
+
+    /** The call ended without saying anything about the bank, e.g. it was cancelled. */
+    public void release() {
+      if (released.compareAndSet(false, true)) {
+        circuitBreaker.onIgnored();
+        concurrencyLimiter.onIgnored();
+      }
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package com.checkout.payment.gateway.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every bank call that was actually sent in {@code bank.call.duration}, tagged with how it
+ * ended: {@code 2xx}, {@code 4xx}, {@code 5xx}, {@code timeout} when the payment's deadline
+ * passed, {@code io_error} when no HTTP response arrived, or {@code bad_response} for a 2xx
+ * whose body could not answer the payments it was for. Calls shed by the
+ * {@link BankCallGuard} are not timed.
+ */
+@Component
+public class BankCallMetrics {
+
+  enum Outcome {
+    SUCCESS("2xx"), CLIENT_ERROR("4xx"), SERVER_ERROR("5xx"), TIMEOUT("timeout"),
+    IO_ERROR("io_error"), BAD_RESPONSE("bad_response");
+
+    private final String tag;
+
+    Outcome(String tag) {
+      this.tag = tag;
+    }
+  }
+
+  private final Map<Outcome, Timer> timers = new EnumMap<>(Outcome.class);
+
+  public BankCallMetrics(
+      @Value("${payments.metrics.percentile-histograms:true}") boolean percentileHistograms,
+      MeterRegistry meterRegistry) {
+    for (Outcome outcome : Outcome.values()) {
+      timers.put(outcome, Timer.builder("bank.call.duration")
+          .description("Bank call latency by HTTP outcome")
+          .tag("outcome", outcome.tag)
+          .publishPercentileHistogram(percentileHistograms)
+          .register(meterRegistry));
+    }
+  }
+
+  void record(Outcome outcome, long startedAt) {
+    timers.get(outcome).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+  }
+}
@@ -0,0 +1,43 @@
+package com.checkout.payment.gateway.client;
+
+import com.checkout.payment.gateway.model.BankPaymentResponse;
+import java.util.Optional;
+
+/**
+ * How one call to an acquirer ended, and its answer when it gave one.
+ */
+public record BankCallResult(Outcome outcome, BankPaymentResponse body) {
+
+  public enum Outcome {
+    /** The bank answered with a 2xx. */
+    ANSWERED,
+    /** The bank refused the request as invalid (4xx). */
+    REFUSED,
+    /** The bank failed (5xx) or could not be reached. */
+    FAILED,
+    /** The call was not made: the bank's circuit is open or its concurrency limit reached. */
+    SHED,
+    /** The payment's deadline passed, or the caller gave up, before the bank answered. */
+    ABANDONED
+  }
+
+  static BankCallResult answered(BankPaymentResponse body) {
+    return new BankCallResult(Outcome.ANSWERED, body);
+  }
+
+  static BankCallResult of(Outcome outcome) {
+    return new BankCallResult(outcome, null);
+  }
+
+  public Optional<BankPaymentResponse> response() {
+    return Optional.ofNullable(body);
+  }
+
+  /**
+   * Whether another acquirer might still authorise the payment: this one failed or would not take
+   * the call, rather than answering or refusing the request itself.
+   */
+  public boolean canFailOver() {
+    return outcome == Outcome.FAILED || outcome == Outcome.SHED;
+  }
+}
@@ -1,43 +1,277 @@
 package com.checkout.payment.gateway.client;
 
 import com.checkout.payment.gateway.model.BankPaymentRequest;
+import com.checkout.payment.gateway.client.BankCallResult.Outcome;
 import com.checkout.payment.gateway.model.BankPaymentResponse;
+import com.checkout.payment.gateway.resilience.CircuitBreaker;
+import com.checkout.payment.gateway.resilience.Deadline;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 //bank client
 @Component
+@ConditionalOnExpression(BankClient.UNROUTED)
 public class BankClient {
 
   private static final Logger LOG = LoggerFactory.getLogger(BankClient.class);
 
+  static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+  /**
+   * Holds when no {@code bank.acquirers} are configured, the only case in which the bank at
+   * {@code bank.simulator.url} gets a client bean. Configured acquirers get clients of their own.
+   */
+  static final String UNROUTED = "'${bank.acquirers:}'.isEmpty()";
+
   private final RestTemplate restTemplate;
   private final String bankBaseUrl;
+  private final BankCallGuard guard;
+  private final HedgingPolicy hedging;
+  private final BankCallMetrics metrics;
+  private final ExecutorService attempts = Executors.newVirtualThreadPerTaskExecutor();
+  private final MicroBatcher<BatchedPayment> batcher;
 
+  public BankClient(RestTemplate restTemplate, String bankBaseUrl, BankCallGuard guard,
+      HedgingPolicy hedging, BankCallMetrics metrics) {
+    this(restTemplate, bankBaseUrl, guard, hedging, BatchingPolicy.DISABLED, metrics);
+  }
+
+  @Autowired
   public BankClient(RestTemplate restTemplate,
-      @Value("${bank.simulator.url:http://localhost:8080}") String bankBaseUrl) {
+      @Value("${bank.simulator.url:http://localhost:8080}") String bankBaseUrl,
+      BankCallGuard guard, HedgingPolicy hedging, BatchingPolicy batching,
+      BankCallMetrics metrics) {
     this.restTemplate = restTemplate;
     this.bankBaseUrl = bankBaseUrl;
+    this.guard = guard;
+    this.hedging = hedging;
+    this.metrics = metrics;
+    this.batcher = batching.isEnabled()
+        ? batching.newBatcher("bank-batcher " + bankBaseUrl, this::sendBatch)
+        : null;
   }
 
   public Optional<BankPaymentResponse> processPayment(BankPaymentRequest request) {
+    return processPayment(request, Deadline.none());
+  }
+
+  /**
+   * Asks the bank to authorise the payment, giving up once {@code deadline} passes. When hedging
+   * is enabled a second attempt with the same idempotency key is sent if the first is slow, and
+   * whichever answers first is used. When batching is enabled the payment instead waits to be sent
+   * to the bank together with others; see {@link BatchingPolicy}.
+   */
+  public Optional<BankPaymentResponse> processPayment(BankPaymentRequest request,
+      Deadline deadline) {
+    return call(request, deadline).response();
+  }
+
+  /**
+   * Same as {@link #processPayment(BankPaymentRequest, Deadline)}, but also says how the call
+   * ended, so that a caller can tell a bank that failed from one that answered.
+   */
+  public BankCallResult call(BankPaymentRequest request, Deadline deadline) {
+    if (batcher != null) {
+      return batched(request, deadline);
+    }
+    String idempotencyKey = UUID.randomUUID().toString();
+    Optional<Duration> hedgeDelay = hedging.hedgeDelay(deadline);
+    if (hedgeDelay.isEmpty()) {
+      return attempt(request, idempotencyKey, deadline);
+    }
+
+    CompletableFuture<BankCallResult> primary = CompletableFuture.supplyAsync(
+        () -> attempt(request, idempotencyKey, deadline), attempts);
+    try {
+      return primary.get(hedgeDelay.get().toNanos(), TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      LOG.debug("No bank response after {}, hedging", hedgeDelay.get());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return BankCallResult.of(Outcome.ABANDONED);
+    } catch (ExecutionException e) {
+      LOG.error("Bank call failed unexpectedly", e.getCause());
+      return BankCallResult.of(Outcome.FAILED);
+    }
+
+    hedging.onHedge();
+    CompletableFuture<BankCallResult> hedge = CompletableFuture.supplyAsync(
+        () -> attempt(request, idempotencyKey, deadline), attempts);
+    CompletableFuture<BankCallResult> first = new CompletableFuture<>();
+    primary.thenAccept(result -> result.response().ifPresent(r -> first.complete(result)));
+    hedge.thenAccept(result -> result.response().ifPresent(r -> first.complete(result)));
+    CompletableFuture.allOf(primary, hedge).whenComplete((ignored, error) -> first.complete(
+        error == null ? primary.join() : BankCallResult.of(Outcome.FAILED)));
+    return first.join();
+  }
+
+  public CircuitBreaker.State circuitState() {
+    return guard.circuitState();
+  }
+
+  private record BatchedPayment(BankPaymentRequest request, Deadline deadline,
+      CompletableFuture<BankCallResult> result) {
+  }
+
+  private BankCallResult attempt(BankPaymentRequest request, String idempotencyKey,
+      Deadline deadline) {
+    if (deadline.isExpired()) {
+      LOG.warn("Payment deadline passed before the bank could be called");
+      return BankCallResult.of(Outcome.ABANDONED);
+    }
+    Optional<BankCallGuard.Permit> admitted = guard.tryAcquire();
+    if (admitted.isEmpty()) {
+      LOG.debug("Bank call shed, circuit {}", guard.circuitState());
+      return BankCallResult.of(Outcome.SHED);
+    }
     String url = bankBaseUrl + "/payments";
+    HttpHeaders headers = new HttpHeaders();
+    headers.set(IDEMPOTENCY_KEY, idempotencyKey);
+    return exchange(admitted.get(), deadline,
+        () -> restTemplate.postForEntity(url, new HttpEntity<>(request, headers),
+            BankPaymentResponse.class).getBody(),
+        body -> {
+          if (body == null) {
+            LOG.error("Bank answered the payment with an empty body");
+            return BankCallResult.of(Outcome.FAILED);
+          }
+          return BankCallResult.answered(body);
+        });
+  }
+
+  private BankCallResult batched(BankPaymentRequest request, Deadline deadline) {
+    if (deadline.isExpired()) {
+      LOG.warn("Payment deadline passed before the bank could be called");
+      return BankCallResult.of(Outcome.ABANDONED);
+    }
+    CompletableFuture<BankCallResult> result = new CompletableFuture<>();
+    batcher.submit(new BatchedPayment(request, deadline, result));
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return BankCallResult.of(Outcome.ABANDONED);
+    } catch (ExecutionException e) {
+      LOG.error("Batched bank call failed unexpectedly", e.getCause());
+      return BankCallResult.of(Outcome.FAILED);
+    }
+  }
+
+  /**
+   * Sends one batch as a single call, answering each payment from its slot in the bank's answer.
+   * The call is given the time left on the most urgent payment's deadline.
+   */
+  private void sendBatch(List<BatchedPayment> batch) {
+    try {
+      List<BatchedPayment> live = batch.stream().filter(payment -> {
+        if (payment.deadline().isExpired()) {
+          payment.result().complete(BankCallResult.of(Outcome.ABANDONED));
+          return false;
+        }
+        return true;
+      }).toList();
+      if (live.isEmpty()) {
+        return;
+      }
+      Optional<BankCallGuard.Permit> admitted = guard.tryAcquire();
+      if (admitted.isEmpty()) {
+        LOG.debug("Bank batch call shed, circuit {}", guard.circuitState());
+        live.forEach(payment -> payment.result().complete(BankCallResult.of(Outcome.SHED)));
+        return;
+      }
+      Deadline deadline = live.stream().map(BatchedPayment::deadline)
+          .filter(Deadline::isBounded)
+          .min(Comparator.comparing(Deadline::remaining))
+          .orElse(Deadline.none());
+      List<BankPaymentRequest> requests = live.stream().map(BatchedPayment::request).toList();
+      BankCallResult result = exchange(admitted.get(), deadline,
+          () -> restTemplate.postForObject(bankBaseUrl + "/payments/batch", requests,
+              BankPaymentResponse[].class),
+          responses -> {
+            if (responses == null || responses.length != live.size()) {
+              LOG.error("Bank answered a batch of {} payments with {} results", live.size(),
+                  responses == null ? 0 : responses.length);
+              return BankCallResult.of(Outcome.FAILED);
+            }
+            for (int i = 0; i < responses.length; i++) {
+              // The bank leaves the slot of a payment it could not process empty
+              live.get(i).result().complete(responses[i] != null
+                  ? BankCallResult.answered(responses[i])
+                  : BankCallResult.of(Outcome.FAILED));
+            }
+            return BankCallResult.answered(null);
+          });
+      live.forEach(payment -> payment.result().complete(result));
+    } finally {
+      // Whatever went wrong, no caller is left waiting on a batch that has been dealt with
+      batch.forEach(payment -> payment.result().complete(BankCallResult.of(Outcome.FAILED)));
+    }
+  }
+
+  private <T> BankCallResult exchange(BankCallGuard.Permit permit, Deadline deadline,
+      Supplier<T> call, Function<T, BankCallResult> answered) {
+    long startedAt = System.nanoTime();
     try {
-      ResponseEntity<BankPaymentResponse> response =
-          restTemplate.postForEntity(url, request, BankPaymentResponse.class);
-      return Optional.ofNullable(response.getBody());
+      T body = DeadlineHttpContextFactory.within(deadline, call);
+      long elapsed = System.nanoTime() - startedAt;
+      BankCallResult result = answered.apply(body);
+      // A 2xx that answers nothing, like a batch reply of the wrong length, is the bank failing
+      if (result.outcome() == Outcome.FAILED) {
+        permit.failure();
+        metrics.record(BankCallMetrics.Outcome.BAD_RESPONSE, startedAt);
+        return result;
+      }
+      permit.success();
+      hedging.recordSuccess(elapsed);
+      metrics.record(BankCallMetrics.Outcome.SUCCESS, startedAt);
+      return result;
+    } catch (HttpClientErrorException e) {
+      permit.success();
+      metrics.record(BankCallMetrics.Outcome.CLIENT_ERROR, startedAt);
+      LOG.error("Bank refused the request: {} {}", e.getStatusCode(), e.getMessage());
+      return BankCallResult.of(Outcome.REFUSED);
     } catch (HttpServerErrorException e) {
+      permit.failure();
+      metrics.record(BankCallMetrics.Outcome.SERVER_ERROR, startedAt);
       LOG.error("Bank returned server error: {} {}", e.getStatusCode(), e.getMessage());
-      return Optional.empty();
+      return BankCallResult.of(Outcome.FAILED);
     } catch (RestClientException e) {
+      if (deadline.isExpired()) {
+        // The payment ran out of time, which says nothing about the bank's health.
+        permit.release();
+        metrics.record(BankCallMetrics.Outcome.TIMEOUT, startedAt);
+        LOG.warn("Payment deadline passed while waiting for the bank: {}", e.getMessage());
+        return BankCallResult.of(Outcome.ABANDONED);
+      }
+      permit.failure();
+      metrics.record(BankCallMetrics.Outcome.IO_ERROR, startedAt);
       LOG.error("Failed to communicate with the bank: {}", e.getMessage());
-      return Optional.empty();
+      return BankCallResult.of(Outcome.FAILED);
+    } finally {
+      permit.release();
     }
   }
 }
@@ -0,0 +1,47 @@
+package com.checkout.payment.gateway.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Whether authorisations go to the bank one per call or gathered into calls to its
+ * {@code /payments/batch} endpoint. With {@code bank.batching.enabled=true}, concurrent payments
+ * are sent together once {@code max-size} of them are waiting or the first has waited
+ * {@code linger}: larger batches mean fewer round trips, a longer linger means every payment
+ * waits longer for its batch to leave. Payments that are batched are never hedged.
+ */
+@Component
+public class BatchingPolicy {
+
+  static final BatchingPolicy DISABLED = new BatchingPolicy(false, 1, Duration.ZERO, null);
+
+  private final boolean enabled;
+  private final int maxSize;
+  private final long lingerNanos;
+  private final MeterRegistry meterRegistry;
+
+  public BatchingPolicy(@Value("${bank.batching.enabled:false}") boolean enabled,
+      @Value("${bank.batching.max-size:32}") int maxSize,
+      @Value("${bank.batching.linger:500us}") Duration linger,
+      MeterRegistry meterRegistry) {
+    if (maxSize < 1 || linger.isNegative()) {
+      throw new IllegalArgumentException("Invalid bank batching settings");
+    }
+    this.enabled = enabled;
+    this.maxSize = maxSize;
+    this.lingerNanos = linger.toNanos();
+    this.meterRegistry = meterRegistry;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  <T> MicroBatcher<T> newBatcher(String name, Consumer<List<T>> send) {
+    return new MicroBatcher<>(name, maxSize, lingerNanos, send, meterRegistry);
+  }
+}
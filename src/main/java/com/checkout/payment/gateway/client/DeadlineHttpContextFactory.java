@@ -0,0 +1,70 @@
+package com.checkout.payment.gateway.client;
+
+import com.checkout.payment.gateway.resilience.Deadline;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.HttpMethod;
+
+/**
+ * Gives a blocking HttpClient 5 request the time left on the deadline of the payment it is made
+ * for, instead of the client-wide response and connection-request timeouts. RestTemplate has no
+ * per-request options, so the deadline travels on the calling thread for the duration of
+ * {@link #within(Deadline, Supplier)}.
+ */
+public class DeadlineHttpContextFactory implements BiFunction<HttpMethod, URI, HttpContext> {
+
+  private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+  private final Duration responseTimeout;
+  private final Duration connectionRequestTimeout;
+
+  public DeadlineHttpContextFactory(Duration responseTimeout, Duration connectionRequestTimeout) {
+    this.responseTimeout = responseTimeout;
+    this.connectionRequestTimeout = connectionRequestTimeout;
+  }
+
+  public static <T> T within(Deadline deadline, Supplier<T> call) {
+    Deadline previous = CURRENT.get();
+    CURRENT.set(deadline);
+    try {
+      return call.get();
+    } finally {
+      if (previous == null) {
+        CURRENT.remove();
+      } else {
+        CURRENT.set(previous);
+      }
+    }
+  }
+
+  /** The deadline of the call being made on this thread, if any. */
+  static Optional<Deadline> current() {
+    return Optional.ofNullable(CURRENT.get());
+  }
+
+  @Override
+  public HttpContext apply(HttpMethod method, URI uri) {
+    Deadline deadline = CURRENT.get();
+    if (deadline == null || !deadline.isBounded()) {
+      return null;
+    }
+    HttpClientContext context = HttpClientContext.create();
+    context.setRequestConfig(RequestConfig.custom()
+        .setResponseTimeout(toTimeout(deadline.cap(responseTimeout)))
+        .setConnectionRequestTimeout(toTimeout(deadline.cap(connectionRequestTimeout)))
+        .build());
+    return context;
+  }
+
+  private static Timeout toTimeout(Duration duration) {
+    // A zero timeout means "wait forever" to HttpClient, so an exhausted budget becomes 1 ms.
+    return Timeout.ofMilliseconds(Math.max(1, duration.toMillis()));
+  }
+}
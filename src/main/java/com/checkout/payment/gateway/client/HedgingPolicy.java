@@ -0,0 +1,97 @@
+package com.checkout.payment.gateway.client;
+
+import com.checkout.payment.gateway.resilience.Deadline;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.DoubleStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides when a slow bank call gets a second, hedged attempt. Successful bank calls are recorded
+ * in the {@code bank.call.latency} timer, and the hedge fires once a call has been outstanding for
+ * the configured percentile of recent latencies, clamped to {@code [min-delay, max-delay]}.
+ * Hedging is off unless {@code bank.hedging.enabled=true}, and must only be turned on for an
+ * acquirer that de-duplicates on the {@code Idempotency-Key} header.
+ */
+@Component
+public class HedgingPolicy {
+
+  private static final int MIN_SAMPLES = 20;
+  private static final long REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final boolean enabled;
+  private final double percentile;
+  private final long minDelayNanos;
+  private final long maxDelayNanos;
+  private final Timer latency;
+  private final Counter hedges;
+
+  private volatile long delayNanos;
+  private volatile long refreshedAt;
+
+  public HedgingPolicy(@Value("${bank.hedging.enabled:false}") boolean enabled,
+      @Value("${bank.hedging.percentile:0.95}") double percentile,
+      @Value("${bank.hedging.min-delay:20ms}") Duration minDelay,
+      @Value("${bank.hedging.max-delay:1s}") Duration maxDelay,
+      MeterRegistry meterRegistry) {
+    this.enabled = enabled;
+    this.percentile = percentile;
+    this.minDelayNanos = minDelay.toNanos();
+    this.maxDelayNanos = maxDelay.toNanos();
+    this.latency = Timer.builder("bank.call.latency")
+        .publishPercentiles(DoubleStream.of(0.5, percentile, 0.99, 0.999).distinct().toArray())
+        .register(meterRegistry);
+    this.hedges = Counter.builder("bank.call.hedges").register(meterRegistry);
+    this.delayNanos = maxDelayNanos;
+    this.refreshedAt = System.nanoTime();
+  }
+
+  public void recordSuccess(long latencyNanos) {
+    latency.record(latencyNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * How long to wait before hedging a call made within {@code deadline}, or empty if it should
+   * not be hedged at all.
+   */
+  public Optional<Duration> hedgeDelay(Deadline deadline) {
+    if (!enabled) {
+      return Optional.empty();
+    }
+    long now = System.nanoTime();
+    if (now - refreshedAt > REFRESH_NANOS) {
+      refreshedAt = now;
+      delayNanos = computeDelay();
+    }
+    Duration delay = Duration.ofNanos(delayNanos);
+    if (deadline.isBounded() && deadline.remaining().compareTo(delay) <= 0) {
+      return Optional.empty();
+    }
+    return Optional.of(delay);
+  }
+
+  public void onHedge() {
+    hedges.increment();
+  }
+
+  private long computeDelay() {
+    HistogramSnapshot snapshot = latency.takeSnapshot();
+    if (snapshot.count() < MIN_SAMPLES) {
+      return maxDelayNanos;
+    }
+    for (ValueAtPercentile value : snapshot.percentileValues()) {
+      if (value.percentile() == percentile) {
+        long nanos = (long) value.value(TimeUnit.NANOSECONDS);
+        return Math.min(maxDelayNanos, Math.max(minDelayNanos, nanos));
+      }
+    }
+    return maxDelayNanos;
+  }
+}
@@ -0,0 +1,174 @@
+package com.checkout.payment.gateway.client;
+
+import com.checkout.payment.gateway.resilience.Deadline;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.Http2AllocationStrategy;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Sends RestTemplate requests to the bank over HTTP/2 with Reactor Netty: concurrent calls
+ * become streams multiplexed over at most {@code maxConnections} connections, rather than each
+ * holding a pooled HTTP/1.1 connection of its own. {@link HttpProtocol#H2} negotiates HTTP/2 over
+ * TLS; {@link HttpProtocol#H2C} speaks it in clear text from the first byte (prior knowledge),
+ * for a local simulator.
+ *
+ * <p>Like {@link DeadlineHttpContextFactory} for HttpClient 5, a call made within
+ * {@link DeadlineHttpContextFactory#within} is given the time left on the payment's deadline
+ * instead of the full {@code responseTimeout}. Connection usage is published under
+ * {@code reactor.netty.connection.provider.*} with {@code name=bank}.
+ */
+public class Http2ClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+  private final HttpClient httpClient;
+  private final Duration responseTimeout;
+
+  public Http2ClientHttpRequestFactory(HttpProtocol protocol, int maxConnections,
+      int maxConcurrentStreams, Duration connectTimeout, Duration responseTimeout,
+      Duration pendingAcquireTimeout) {
+    if (protocol != HttpProtocol.H2 && protocol != HttpProtocol.H2C) {
+      throw new IllegalArgumentException("Not an HTTP/2 protocol: " + protocol);
+    }
+    ConnectionProvider connections = ConnectionProvider.builder("bank")
+        .allocationStrategy(Http2AllocationStrategy.builder()
+            .minConnections(1)
+            .maxConnections(maxConnections)
+            .maxConcurrentStreams(maxConcurrentStreams)
+            .build())
+        .pendingAcquireTimeout(pendingAcquireTimeout)
+        .metrics(true)
+        .build();
+    HttpClient client = HttpClient.create(connections)
+        .protocol(protocol)
+        .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis());
+    this.httpClient = protocol == HttpProtocol.H2 ? client.secure() : client;
+    this.responseTimeout = responseTimeout;
+  }
+
+  @Override
+  public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+    return new Http2ClientHttpRequest(uri, httpMethod);
+  }
+
+  private final class Http2ClientHttpRequest extends AbstractClientHttpRequest {
+
+    private final URI uri;
+    private final HttpMethod method;
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+
+    Http2ClientHttpRequest(URI uri, HttpMethod method) {
+      this.uri = uri;
+      this.method = method;
+    }
+
+    @Override
+    public HttpMethod getMethod() {
+      return method;
+    }
+
+    @Override
+    public URI getURI() {
+      return uri;
+    }
+
+    @Override
+    protected OutputStream getBodyInternal(HttpHeaders headers) {
+      return body;
+    }
+
+    @Override
+    protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+      Duration timeout = DeadlineHttpContextFactory.current()
+          .filter(Deadline::isBounded)
+          .map(deadline -> deadline.cap(responseTimeout))
+          .orElse(responseTimeout);
+      byte[] content = body.toByteArray();
+      try {
+        return httpClient
+            .request(io.netty.handler.codec.http.HttpMethod.valueOf(method.name()))
+            .uri(uri)
+            .send((request, outbound) -> {
+              headers.forEach((name, values) -> request.requestHeaders().set(name, values));
+              request.header(HttpHeaderNames.CONTENT_LENGTH, String.valueOf(content.length));
+              return outbound.send(Mono.just(Unpooled.wrappedBuffer(content)));
+            })
+            .responseSingle((response, received) -> received.asByteArray()
+                .defaultIfEmpty(new byte[0])
+                .map(bytes -> {
+                  HttpHeaders responseHeaders = new HttpHeaders();
+                  response.responseHeaders().forEach(
+                      header -> responseHeaders.add(header.getKey(), header.getValue()));
+                  return new BufferedResponse(HttpStatusCode.valueOf(response.status().code()),
+                      response.status().reasonPhrase(), responseHeaders, bytes);
+                }))
+            .timeout(timeout)
+            .block();
+      } catch (RuntimeException e) {
+        Throwable cause = Exceptions.unwrap(e);
+        if (cause instanceof TimeoutException) {
+          throw new SocketTimeoutException("No response from " + uri + " within " + timeout);
+        }
+        if (cause instanceof IOException io) {
+          throw io;
+        }
+        throw e;
+      }
+    }
+  }
+
+  private record BufferedResponse(HttpStatusCode statusCode, String statusText,
+      HttpHeaders headers, byte[] body) implements ClientHttpResponse {
+
+    @Override
+    public HttpStatusCode getStatusCode() {
+      return statusCode;
+    }
+
+    @Override
+    @Deprecated
+    @SuppressWarnings("removal")
+    public int getRawStatusCode() {
+      return statusCode.value();
+    }
+
+    @Override
+    public String getStatusText() {
+      return statusText;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return headers;
+    }
+
+    @Override
+    public InputStream getBody() {
+      return new ByteArrayInputStream(body);
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package com.checkout.payment.gateway.client;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Groups items submitted from many threads into batches. A single dispatcher thread takes the
+ * first waiting item, keeps collecting until the batch holds {@code maxSize} items or the first
+ * one has waited {@code linger}, and hands the batch to {@code send} on a virtual thread of its
+ * own, so the next batch fills up while the last one is still being sent.
+ *
+ * <p>Records the size of every batch in {@code bank.batch.size} and how long its oldest item
+ * waited to be sent in {@code bank.batch.linger}.
+ */
+final class MicroBatcher<T> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(MicroBatcher.class);
+
+  private final BlockingQueue<Queued<T>> queue = new LinkedBlockingQueue<>();
+  private final int maxSize;
+  private final long lingerNanos;
+  private final Consumer<List<T>> send;
+  private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+  private final DistributionSummary batchSizes;
+  private final Timer lingered;
+
+  MicroBatcher(String name, int maxSize, long lingerNanos, Consumer<List<T>> send,
+      MeterRegistry meterRegistry) {
+    this.maxSize = maxSize;
+    this.lingerNanos = lingerNanos;
+    this.send = send;
+    this.batchSizes = DistributionSummary.builder("bank.batch.size")
+        .description("Payments sent to the bank in one batch call")
+        .register(meterRegistry);
+    this.lingered = Timer.builder("bank.batch.linger")
+        .description("Time the oldest payment of a batch waited for it to be sent")
+        .register(meterRegistry);
+    Thread.ofPlatform().name(name).daemon().start(this::dispatch);
+  }
+
+  void submit(T item) {
+    queue.add(new Queued<>(item, System.nanoTime()));
+  }
+
+  private void dispatch() {
+    while (true) {
+      try {
+        Queued<T> first = queue.take();
+        List<T> batch = new ArrayList<>(maxSize);
+        batch.add(first.item());
+        long sendBy = first.queuedAt() + lingerNanos;
+        while (batch.size() < maxSize) {
+          long left = sendBy - System.nanoTime();
+          Queued<T> next = left > 0 ? queue.poll(left, TimeUnit.NANOSECONDS) : queue.poll();
+          if (next == null) {
+            break;
+          }
+          batch.add(next.item());
+        }
+        lingered.record(System.nanoTime() - first.queuedAt(), TimeUnit.NANOSECONDS);
+        batchSizes.record(batch.size());
+        senders.execute(() -> send.accept(batch));
+      } catch (InterruptedException e) {
+        LOG.warn("Batch dispatcher interrupted, {} items left unsent", queue.size());
+        Thread.currentThread().interrupt();
+        return;
+      } catch (RuntimeException e) {
+        LOG.error("Failed to dispatch a batch", e);
+      }
+    }
+  }
+
+  private record Queued<T>(T item, long queuedAt) {
+  }
+}
@@ -0,0 +1,151 @@
+package com.checkout.payment.gateway.client;
+
+import com.checkout.payment.gateway.client.BankCallResult.Outcome;
+import com.checkout.payment.gateway.model.BankPaymentRequest;
+import com.checkout.payment.gateway.model.BankPaymentResponse;
+import com.checkout.payment.gateway.resilience.Deadline;
+import java.time.Duration;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link BankClient}. Completes empty, rather than with an error,
+ * whenever the bank cannot give an answer.
+ */
+@Component
+@ConditionalOnExpression(BankClient.UNROUTED)
+public class ReactiveBankClient {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ReactiveBankClient.class);
+
+  private final WebClient webClient;
+  private final String bankBaseUrl;
+  private final BankCallGuard guard;
+  private final HedgingPolicy hedging;
+  private final BankCallMetrics metrics;
+
+  public ReactiveBankClient(WebClient webClient,
+      @Value("${bank.simulator.url:http://localhost:8080}") String bankBaseUrl,
+      BankCallGuard guard, HedgingPolicy hedging, BankCallMetrics metrics) {
+    this.webClient = webClient;
+    this.bankBaseUrl = bankBaseUrl;
+    this.guard = guard;
+    this.hedging = hedging;
+    this.metrics = metrics;
+  }
+
+  public Mono<BankPaymentResponse> processPayment(BankPaymentRequest request) {
+    return processPayment(request, Deadline.none());
+  }
+
+  public Mono<BankPaymentResponse> processPayment(BankPaymentRequest request,
+      Deadline deadline) {
+    return call(request, deadline).flatMap(result -> Mono.justOrEmpty(result.response()));
+  }
+
+  /**
+   * Same as {@link #processPayment(BankPaymentRequest, Deadline)}, but also says how the call
+   * ended. Always completes with exactly one result.
+   */
+  public Mono<BankCallResult> call(BankPaymentRequest request, Deadline deadline) {
+    return Mono.defer(() -> {
+      String idempotencyKey = UUID.randomUUID().toString();
+      Optional<Duration> hedgeDelay = hedging.hedgeDelay(deadline);
+      if (hedgeDelay.isEmpty()) {
+        return attempt(request, idempotencyKey, deadline);
+      }
+      // Race for the first answer, but report how the last attempt ended if neither answers
+      AtomicReference<BankCallResult> unanswered = new AtomicReference<>();
+      return Mono.firstWithValue(
+              answered(attempt(request, idempotencyKey, deadline), unanswered),
+              answered(Mono.delay(hedgeDelay.get())
+                  .doOnNext(tick -> hedging.onHedge())
+                  .then(attempt(request, idempotencyKey, deadline)), unanswered))
+          .onErrorResume(NoSuchElementException.class,
+              e -> Mono.fromSupplier(unanswered::get));
+    });
+  }
+
+  private static Mono<BankCallResult> answered(Mono<BankCallResult> attempt,
+      AtomicReference<BankCallResult> unanswered) {
+    return attempt
+        .doOnNext(unanswered::set)
+        .filter(result -> result.response().isPresent());
+  }
+
+  private Mono<BankCallResult> attempt(BankPaymentRequest request, String idempotencyKey,
+      Deadline deadline) {
+    return Mono.defer(() -> {
+      if (deadline.isExpired()) {
+        LOG.warn("Payment deadline passed before the bank could be called");
+        return Mono.just(BankCallResult.of(Outcome.ABANDONED));
+      }
+      Optional<BankCallGuard.Permit> admitted = guard.tryAcquire();
+      if (admitted.isEmpty()) {
+        LOG.debug("Bank call shed, circuit {}", guard.circuitState());
+        return Mono.just(BankCallResult.of(Outcome.SHED));
+      }
+      BankCallGuard.Permit permit = admitted.get();
+      long startedAt = System.nanoTime();
+      Mono<BankPaymentResponse> call = webClient.post()
+          .uri(bankBaseUrl + "/payments")
+          .header(BankClient.IDEMPOTENCY_KEY, idempotencyKey)
+          .bodyValue(request)
+          .retrieve()
+          .bodyToMono(BankPaymentResponse.class);
+      if (deadline.isBounded()) {
+        call = call.timeout(deadline.remaining());
+      }
+      return call
+          .doOnNext(response -> {
+            permit.success();
+            hedging.recordSuccess(System.nanoTime() - startedAt);
+            metrics.record(BankCallMetrics.Outcome.SUCCESS, startedAt);
+          })
+          .map(BankCallResult::answered)
+          .switchIfEmpty(Mono.fromSupplier(() -> {
+            // As in BankClient: a 2xx without an answer is the bank failing, not answering
+            LOG.error("Bank answered the payment with an empty body");
+            permit.failure();
+            metrics.record(BankCallMetrics.Outcome.BAD_RESPONSE, startedAt);
+            return BankCallResult.of(Outcome.FAILED);
+          }))
+          .onErrorResume(WebClientResponseException.class, e -> {
+            LOG.error("Bank returned error: {} {}", e.getStatusCode(), e.getMessage());
+            if (e.getStatusCode().is5xxServerError()) {
+              permit.failure();
+              metrics.record(BankCallMetrics.Outcome.SERVER_ERROR, startedAt);
+              return Mono.just(BankCallResult.of(Outcome.FAILED));
+            }
+            permit.success();
+            metrics.record(BankCallMetrics.Outcome.CLIENT_ERROR, startedAt);
+            return Mono.just(BankCallResult.of(Outcome.REFUSED));
+          })
+          .onErrorResume(TimeoutException.class, e -> {
+            // The payment ran out of time, which says nothing about the bank's health.
+            permit.release();
+            metrics.record(BankCallMetrics.Outcome.TIMEOUT, startedAt);
+            LOG.warn("Payment deadline passed while waiting for the bank");
+            return Mono.just(BankCallResult.of(Outcome.ABANDONED));
+          })
+          .onErrorResume(e -> {
+            permit.failure();
+            metrics.record(BankCallMetrics.Outcome.IO_ERROR, startedAt);
+            LOG.error("Failed to communicate with the bank: {}", e.getMessage());
+            return Mono.just(BankCallResult.of(Outcome.FAILED));
+          })
+          .doFinally(signal -> permit.release());
+    });
+  }
+}
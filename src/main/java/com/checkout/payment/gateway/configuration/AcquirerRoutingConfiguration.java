@@ -0,0 +1,70 @@
+package com.checkout.payment.gateway.configuration;
+
+import com.checkout.payment.gateway.client.BankCallGuard;
+import com.checkout.payment.gateway.client.BankCallMetrics;
+import com.checkout.payment.gateway.client.BankClient;
+import com.checkout.payment.gateway.client.BatchingPolicy;
+import com.checkout.payment.gateway.client.HedgingPolicy;
+import com.checkout.payment.gateway.client.ReactiveBankClient;
+import com.checkout.payment.gateway.routing.Acquirer;
+import com.checkout.payment.gateway.routing.AcquirerRouter;
+import com.checkout.payment.gateway.routing.CardBinRange;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Acquirers the payments are routed across, named in {@code bank.acquirers} and each configured
+ * under {@code bank.acquirer.<name>}: its {@code url}, and optionally the {@code currencies} and
+ * {@code card-bins} (see {@link CardBinRange}) it is limited to. Every acquirer gets a circuit
+ * breaker and concurrency limit of its own, with the {@code bank.circuit-breaker.*} and
+ * {@code bank.concurrency.*} settings, and shares the connection pool and the hedging and
+ * batching policies.
+ * Without {@code bank.acquirers}, every payment goes to {@code bank.simulator.url} through the
+ * {@link BankClient} and {@link ReactiveBankClient} beans, which only exist in that case.
+ */
+@Configuration
+public class AcquirerRoutingConfiguration {
+
+  @Bean
+  public AcquirerRouter acquirerRouter(@Value("${bank.acquirers:}") List<String> names,
+      @Value("${bank.routing.latency-decay:10s}") Duration latencyDecay,
+      @Value("${bank.routing.failure-penalty:1s}") Duration failurePenalty,
+      ObjectProvider<BankClient> bankClient, ObjectProvider<ReactiveBankClient> reactiveBankClient,
+      RestTemplate restTemplate,
+      WebClient webClient, BankCallGuard guard, HedgingPolicy hedging, BatchingPolicy batching,
+      BankCallMetrics metrics, Environment environment, MeterRegistry meterRegistry) {
+    if (names.isEmpty()) {
+      return new AcquirerRouter(List.of(new Acquirer("bank", Set.of(), List.of(),
+          bankClient.getObject(), reactiveBankClient.getObject(), latencyDecay, failurePenalty,
+          meterRegistry)), meterRegistry);
+    }
+    List<Acquirer> acquirers = new ArrayList<>(names.size());
+    for (String name : names) {
+      String prefix = "bank.acquirer." + name + ".";
+      String url = environment.getRequiredProperty(prefix + "url");
+      String[] currencies = environment.getProperty(prefix + "currencies", String[].class,
+          new String[0]);
+      String[] cardBins = environment.getProperty(prefix + "card-bins", String[].class,
+          new String[0]);
+      BankCallGuard acquirerGuard = guard.withName(name);
+      acquirers.add(new Acquirer(name, Set.copyOf(Arrays.asList(currencies)),
+          Stream.of(cardBins).map(CardBinRange::parse).toList(),
+          new BankClient(restTemplate, url, acquirerGuard, hedging, batching, metrics),
+          new ReactiveBankClient(webClient, url, acquirerGuard, hedging, metrics),
+          latencyDecay, failurePenalty, meterRegistry));
+    }
+    return new AcquirerRouter(acquirers, meterRegistry);
+  }
+}
@@ -1,19 +1,142 @@
 package com.checkout.payment.gateway.configuration;
 
+import com.checkout.payment.gateway.client.DeadlineHttpContextFactory;
+import com.checkout.payment.gateway.client.Http2ClientHttpRequestFactory;
+import com.checkout.payment.gateway.model.PaymentJsonModule;
+import com.fasterxml.jackson.databind.Module;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import io.netty.channel.ChannelOption;
+import java.time.Clock;
 import java.time.Duration;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
 
 @Configuration
 public class ApplicationConfiguration {
 
+  /**
+   * Keep-alive connection pool towards the bank, only built for HTTP/1.1. Pool usage is published
+   * as the {@code httpcomponents.httpclient.pool.*} gauges tagged {@code httpclient=bank}.
+   */
   @Bean
-  public RestTemplate restTemplate(RestTemplateBuilder builder) {
+  @ConditionalOnProperty(name = "bank.http.protocol", havingValue = "HTTP11",
+      matchIfMissing = true)
+  public PoolingHttpClientConnectionManager bankConnectionManager(
+      @Value("${bank.http.max-connections:200}") int maxConnections,
+      @Value("${bank.http.max-connections-per-route:100}") int maxConnectionsPerRoute,
+      @Value("${bank.http.connection-ttl:5m}") Duration connectionTtl,
+      @Value("${bank.http.connect-timeout:10s}") Duration connectTimeout,
+      @Value("${bank.http.read-timeout:10s}") Duration readTimeout,
+      MeterRegistry meterRegistry) {
+    PoolingHttpClientConnectionManager connectionManager =
+        PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(maxConnections)
+            .setMaxConnPerRoute(maxConnectionsPerRoute)
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout.toMillis()))
+                .setSocketTimeout(Timeout.ofMilliseconds(readTimeout.toMillis()))
+                .setTimeToLive(TimeValue.ofMilliseconds(connectionTtl.toMillis()))
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build())
+            .build();
+    new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "bank")
+        .bindTo(meterRegistry);
+    return connectionManager;
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "bank.http.protocol", havingValue = "HTTP11",
+      matchIfMissing = true)
+  public CloseableHttpClient bankHttpClient(
+      PoolingHttpClientConnectionManager bankConnectionManager,
+      @Value("${bank.http.read-timeout:10s}") Duration readTimeout,
+      @Value("${bank.http.connection-request-timeout:2s}") Duration connectionRequestTimeout,
+      @Value("${bank.http.idle-eviction:30s}") Duration idleEviction) {
+    return HttpClients.custom()
+        .setConnectionManager(bankConnectionManager)
+        .setDefaultRequestConfig(RequestConfig.custom()
+            .setConnectionRequestTimeout(
+                Timeout.ofMilliseconds(connectionRequestTimeout.toMillis()))
+            .setResponseTimeout(Timeout.ofMilliseconds(readTimeout.toMillis()))
+            .build())
+        .disableAutomaticRetries()
+        .evictExpiredConnections()
+        .evictIdleConnections(TimeValue.ofMilliseconds(idleEviction.toMillis()))
+        .build();
+  }
+
+  /**
+   * Blocking client for the bank calls. Over HTTP/1.1 by default, through the
+   * {@link #bankHttpClient} pool; with {@code bank.http.protocol=H2} (TLS) or {@code H2C} (clear
+   * text) calls are multiplexed over at most {@code bank.http2.max-connections} connections
+   * instead.
+   */
+  @Bean
+  public RestTemplate restTemplate(RestTemplateBuilder builder,
+      ObjectProvider<CloseableHttpClient> bankHttpClient,
+      @Value("${bank.http.protocol:HTTP11}") HttpProtocol protocol,
+      @Value("${bank.http.connect-timeout:10s}") Duration connectTimeout,
+      @Value("${bank.http.read-timeout:10s}") Duration readTimeout,
+      @Value("${bank.http.connection-request-timeout:2s}") Duration connectionRequestTimeout,
+      @Value("${bank.http2.max-connections:2}") int http2MaxConnections,
+      @Value("${bank.http2.max-concurrent-streams:100}") int http2MaxConcurrentStreams) {
+    if (protocol != HttpProtocol.HTTP11) {
+      return builder
+          .requestFactory(() -> new Http2ClientHttpRequestFactory(protocol, http2MaxConnections,
+              http2MaxConcurrentStreams, connectTimeout, readTimeout, connectionRequestTimeout))
+          .build();
+    }
+    return builder
+        .requestFactory(() -> {
+          HttpComponentsClientHttpRequestFactory requestFactory =
+              new HttpComponentsClientHttpRequestFactory(bankHttpClient.getObject());
+          requestFactory.setHttpContextFactory(
+              new DeadlineHttpContextFactory(readTimeout, connectionRequestTimeout));
+          return requestFactory;
+        })
+        .build();
+  }
+
+  @Bean
+  public WebClient webClient(WebClient.Builder builder) {
+    HttpClient httpClient = HttpClient.create()
+        .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 10000)
+        .responseTimeout(Duration.ofMillis(10000));
     return builder
-        .setConnectTimeout(Duration.ofMillis(10000))
-        .setReadTimeout(Duration.ofMillis(10000))
+        .clientConnector(new ReactorClientHttpConnector(httpClient))
         .build();
   }
+
+  /**
+   * Registered by Spring Boot on the shared {@code ObjectMapper}, so the API, the bank clients and
+   * the payment export all use the hand-written payment (de)serializers.
+   */
+  @Bean
+  public Module paymentJsonModule() {
+    return new PaymentJsonModule();
+  }
+
+  @Bean
+  public Clock clock() {
+    return Clock.systemUTC();
+  }
 }
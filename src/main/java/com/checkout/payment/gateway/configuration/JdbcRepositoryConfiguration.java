@@ -0,0 +1,47 @@
+package com.checkout.payment.gateway.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Connection pool for {@code payments.repository.type=jdbc}. The pool has a fixed size, as
+ * HikariCP recommends, and fails fast when no connection frees up within
+ * {@code connection-timeout}. Pool usage is published as the {@code hikaricp.connections.*}
+ * meters tagged {@code pool=payments}.
+ *
+ * <p>For MySQL add {@code rewriteBatchedStatements=true}, and for PostgreSQL
+ * {@code reWriteBatchedInserts=true}, to the URL so that batched inserts reach the database as
+ * multi-row statements. Those databases also need {@code initialize-schema=false} and a
+ * {@code payments} table created with their own binary type (e.g. {@code BYTEA}).
+ */
+@Configuration
+@ConditionalOnProperty(name = "payments.repository.type", havingValue = "jdbc")
+public class JdbcRepositoryConfiguration {
+
+  @Bean
+  public HikariDataSource paymentsDataSource(
+      @Value("${payments.repository.jdbc.url:jdbc:h2:./data/payments}") String url,
+      @Value("${payments.repository.jdbc.username:sa}") String username,
+      @Value("${payments.repository.jdbc.password:}") String password,
+      @Value("${payments.repository.jdbc.pool-size:10}") int poolSize,
+      @Value("${payments.repository.jdbc.connection-timeout:2s}") Duration connectionTimeout,
+      @Value("${payments.repository.jdbc.max-lifetime:30m}") Duration maxLifetime,
+      MeterRegistry meterRegistry) {
+    HikariDataSource dataSource = new HikariDataSource();
+    dataSource.setPoolName("payments");
+    dataSource.setJdbcUrl(url);
+    dataSource.setUsername(username);
+    dataSource.setPassword(password);
+    dataSource.setMaximumPoolSize(poolSize);
+    dataSource.setMinimumIdle(poolSize);
+    dataSource.setConnectionTimeout(connectionTimeout.toMillis());
+    dataSource.setMaxLifetime(maxLifetime.toMillis());
+    dataSource.setMetricRegistry(meterRegistry);
+    return dataSource;
+  }
+}
@@ -0,0 +1,66 @@
+package com.checkout.payment.gateway.configuration;
+
+import com.checkout.payment.gateway.repository.BloomFilterPaymentsRepository;
+import com.checkout.payment.gateway.repository.CachingPaymentsRepository;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.checkout.payment.gateway.repository.WriteBehindPaymentsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Assembles the payment repository the application uses: the store selected by
+ * {@code payments.repository.type}, then write-behind, then the read cache, then the Bloom filter
+ * of stored ids, each only when enabled. The cache sits outside write-behind so that reads it can
+ * answer skip the pending-write lookup too, and the filter outside the cache so that lookups of
+ * unknown ids skip both.
+ */
+@Configuration
+public class PaymentsRepositoryConfiguration {
+
+  @Bean
+  @ConditionalOnProperty(name = "payments.repository.write-behind.enabled", havingValue = "true")
+  public WriteBehindPaymentsRepository writeBehindPaymentsRepository(
+      @Qualifier(PaymentsRepository.STORE) PaymentsRepository store,
+      @Value("${payments.repository.write-behind.capacity:65536}") int capacity,
+      @Value("${payments.repository.write-behind.batch-size:256}") int batchSize,
+      @Value("${payments.repository.write-behind.flush-interval:10ms}") Duration flushInterval,
+      MeterRegistry meterRegistry) {
+    return new WriteBehindPaymentsRepository(store, capacity, batchSize, flushInterval,
+        meterRegistry);
+  }
+
+  // The layers underneath are beans in their own right and are closed as such.
+  @Bean(destroyMethod = "")
+  @Primary
+  public PaymentsRepository paymentsRepository(
+      @Qualifier(PaymentsRepository.STORE) PaymentsRepository store,
+      ObjectProvider<WriteBehindPaymentsRepository> writeBehind,
+      @Value("${payments.repository.cache.enabled:false}") boolean cacheEnabled,
+      @Value("${payments.repository.cache.max-entries:100000}") long cacheMaxEntries,
+      @Value("${payments.repository.cache.ttl:1h}") Duration cacheTtl,
+      @Value("${payments.repository.bloom-filter.enabled:false}") boolean filterEnabled,
+      @Value("${payments.repository.bloom-filter.expected-payments:1000000}")
+      long filterExpectedPayments,
+      @Value("${payments.repository.bloom-filter.false-positive-rate:0.01}")
+      double filterFalsePositiveRate,
+      MeterRegistry meterRegistry) {
+    WriteBehindPaymentsRepository queued = writeBehind.getIfAvailable();
+    PaymentsRepository repository = queued != null ? queued : store;
+    if (cacheEnabled) {
+      repository = new CachingPaymentsRepository(repository, cacheMaxEntries, cacheTtl,
+          meterRegistry);
+    }
+    if (filterEnabled) {
+      repository = new BloomFilterPaymentsRepository(repository, filterExpectedPayments,
+          filterFalsePositiveRate, meterRegistry);
+    }
+    return repository;
+  }
+}
@@ -0,0 +1,101 @@
+package com.checkout.payment.gateway.controller;
+
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.service.PaymentBatchProcessor;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+/**
+ * Accepts many payments in one request, either as a JSON array or as newline-delimited JSON, and
+ * streams one result per line back as NDJSON in input order. A result is written as soon as it and
+ * every result before it are known, so a slow payment holds back only the lines behind it.
+ */
+@RestController
+public class PaymentBatchController {
+
+  private final PaymentBatchProcessor batchProcessor;
+  private final RequestDeadlines requestDeadlines;
+  private final ObjectReader requestReader;
+  private final ObjectWriter responseWriter;
+
+  public PaymentBatchController(PaymentBatchProcessor batchProcessor,
+      RequestDeadlines requestDeadlines, ObjectMapper objectMapper) {
+    this.batchProcessor = batchProcessor;
+    this.requestDeadlines = requestDeadlines;
+    this.requestReader = objectMapper.readerFor(PostPaymentRequest.class);
+    this.responseWriter = objectMapper.writerFor(PostPaymentResponse.class);
+  }
+
+  @PostMapping(path = "/payments/batch",
+      consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+      produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<ResponseBodyEmitter> processBatch(InputStream body,
+      @RequestHeader(name = RequestDeadlines.HEADER, required = false) Long timeoutMillis) {
+    List<CompletableFuture<PostPaymentResponse>> results = batchProcessor.process(
+        readBatch(body), () -> requestDeadlines.resolve(timeoutMillis));
+
+    // Every bank call is bounded by its deadline, so the batch always finishes on its own
+    ResponseBodyEmitter emitter = new ResponseBodyEmitter(-1L);
+    CompletableFuture<Void> written = CompletableFuture.completedFuture(null);
+    for (CompletableFuture<PostPaymentResponse> result : results) {
+      written = written.thenCombine(result, (ignored, response) -> {
+        send(emitter, response);
+        return null;
+      });
+    }
+    written.whenComplete((ignored, failure) -> {
+      if (failure == null) {
+        emitter.complete();
+      } else {
+        emitter.completeWithError(failure);
+      }
+    });
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(emitter);
+  }
+
+  private List<PostPaymentRequest> readBatch(InputStream body) {
+    List<PostPaymentRequest> requests = new ArrayList<>();
+    // A top-level array is unwrapped, so the same reader handles JSON and NDJSON bodies
+    try (MappingIterator<PostPaymentRequest> items = requestReader.readValues(body)) {
+      while (items.hasNextValue()) {
+        if (requests.size() == batchProcessor.maxSize()) {
+          throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+              "A batch holds at most " + batchProcessor.maxSize() + " payments");
+        }
+        requests.add(items.nextValue());
+      }
+    } catch (IOException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed payment batch", e);
+    }
+    return requests;
+  }
+
+  private void send(ResponseBodyEmitter emitter, PostPaymentResponse response) {
+    try {
+      byte[] json = responseWriter.writeValueAsBytes(response);
+      byte[] line = new byte[json.length + 1];
+      System.arraycopy(json, 0, line, 0, json.length);
+      line[json.length] = '\n';
+      emitter.send(line, MediaType.APPLICATION_NDJSON);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
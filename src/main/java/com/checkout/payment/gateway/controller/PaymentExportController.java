@@ -0,0 +1,83 @@
+package com.checkout.payment.gateway.controller;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.repository.PaymentQuery;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Exports stored payments as NDJSON for reconciliation, optionally filtered by status and
+ * currency, both in any case, and the time window they were stored in ({@code from} inclusive,
+ * {@code to} exclusive, both ISO-8601 instants). Payments are written straight from the store's
+ * stream into the response as they are read, so an export of millions of payments needs no more
+ * memory than one of ten.
+ */
+@RestController
+public class PaymentExportController {
+
+  private final PaymentsRepository paymentsRepository;
+  private final ObjectMapper objectMapper;
+  private final ObjectWriter paymentWriter;
+
+  public PaymentExportController(PaymentsRepository paymentsRepository,
+      ObjectMapper objectMapper) {
+    this.paymentsRepository = paymentsRepository;
+    this.objectMapper = objectMapper;
+    // Leave flushing to the response buffer rather than sending a packet per payment
+    this.paymentWriter = objectMapper.writerFor(PostPaymentResponse.class)
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+  }
+
+  @GetMapping(path = "/payments", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public void exportPayments(@RequestParam(required = false) String status,
+      @RequestParam(required = false) String currency,
+      @RequestParam(required = false) Instant from,
+      @RequestParam(required = false) Instant to,
+      HttpServletResponse response) throws IOException {
+    PaymentQuery query = toQuery(status, currency, from, to);
+    response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+    try (Stream<PostPaymentResponse> payments = paymentsRepository.find(query);
+        JsonGenerator generator =
+            objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+      generator.setRootValueSeparator(null);
+      Iterator<PostPaymentResponse> iterator = payments.iterator();
+      while (iterator.hasNext()) {
+        paymentWriter.writeValue(generator, iterator.next());
+        generator.writeRaw('\n');
+      }
+    }
+  }
+
+  private static PaymentQuery toQuery(String status, String currency, Instant from,
+      Instant to) {
+    try {
+      return new PaymentQuery(status == null ? null : toStatus(status), currency, from, to);
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+    }
+  }
+
+  private static PaymentStatus toStatus(String name) {
+    for (PaymentStatus status : PaymentStatus.values()) {
+      if (status.getName().equalsIgnoreCase(name)) {
+        return status;
+      }
+    }
+    throw new IllegalArgumentException("Unknown payment status: " + name);
+  }
+}
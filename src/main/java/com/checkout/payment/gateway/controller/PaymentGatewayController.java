@@ -1,37 +1,65 @@
 package com.checkout.payment.gateway.controller;
 
 import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.ErrorResponse;
 import com.checkout.payment.gateway.model.PostPaymentRequest;
 import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.resilience.Deadline;
+import com.checkout.payment.gateway.service.IdempotencyCache;
 import com.checkout.payment.gateway.service.PaymentGatewayService;
+import java.util.Optional;
 import java.util.UUID;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController("api")
+@ConditionalOnProperty(name = "payments.pipeline", havingValue = "servlet", matchIfMissing = true)
 public class PaymentGatewayController {
 
+  // Shared, as nothing about it depends on the request; ResponseEntity headers are read-only.
+  static final ResponseEntity<ErrorResponse> NOT_FOUND =
+      new ResponseEntity<>(new ErrorResponse("Page not found"), HttpStatus.NOT_FOUND);
+
   private final PaymentGatewayService paymentGatewayService;
+  private final RequestDeadlines requestDeadlines;
+  private final IdempotencyCache idempotencyCache;
 
-  public PaymentGatewayController(PaymentGatewayService paymentGatewayService) {
+  public PaymentGatewayController(PaymentGatewayService paymentGatewayService,
+      RequestDeadlines requestDeadlines, IdempotencyCache idempotencyCache) {
     this.paymentGatewayService = paymentGatewayService;
+    this.requestDeadlines = requestDeadlines;
+    this.idempotencyCache = idempotencyCache;
   }
 
   @GetMapping("/payment/{id}")
-  public ResponseEntity<PostPaymentResponse> getPostPaymentEventById(@PathVariable UUID id) {
-    return new ResponseEntity<>(paymentGatewayService.getPaymentById(id), HttpStatus.OK);
+  public ResponseEntity<?> getPostPaymentEventById(@PathVariable UUID id) {
+    return toResponseEntity(paymentGatewayService.findPaymentById(id));
   }
 
   @PostMapping("/payment")
   public ResponseEntity<PostPaymentResponse> processPayment(
-      @RequestBody PostPaymentRequest paymentRequest) {
-    PostPaymentResponse response = paymentGatewayService.processPayment(paymentRequest);
+      @RequestBody PostPaymentRequest paymentRequest,
+      @RequestHeader(name = RequestDeadlines.HEADER, required = false) Long timeoutMillis,
+      @RequestHeader(name = IdempotencyCache.HEADER, required = false) String idempotencyKey) {
+    Deadline deadline = requestDeadlines.resolve(timeoutMillis);
+    return toResponseEntity(idempotencyCache.execute(idempotencyKey, paymentRequest, deadline,
+        () -> paymentGatewayService.processPayment(paymentRequest, deadline)));
+  }
+
+  // Unknown ids are answered here rather than by throwing to CommonExceptionHandler, which
+  // would cost a stack trace to build and another to log for every miss.
+  static ResponseEntity<?> toResponseEntity(Optional<PostPaymentResponse> payment) {
+    return payment.<ResponseEntity<?>>map(ResponseEntity::ok).orElse(NOT_FOUND);
+  }
 
+  static ResponseEntity<PostPaymentResponse> toResponseEntity(PostPaymentResponse response) {
     HttpStatus httpStatus;
     if (response.getStatus() == PaymentStatus.REJECTED) {
       httpStatus = HttpStatus.BAD_REQUEST;
@@ -0,0 +1,53 @@
+package com.checkout.payment.gateway.controller;
+
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.resilience.Deadline;
+import com.checkout.payment.gateway.service.IdempotencyCache;
+import com.checkout.payment.gateway.service.PaymentGatewayService;
+import java.util.UUID;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Payment API for {@code payments.pipeline=reactive}: the request thread is released while the
+ * bank authorises the payment and the response is written once it completes.
+ */
+@RestController
+@ConditionalOnProperty(name = "payments.pipeline", havingValue = "reactive")
+public class ReactivePaymentGatewayController {
+
+  private final PaymentGatewayService paymentGatewayService;
+  private final RequestDeadlines requestDeadlines;
+  private final IdempotencyCache idempotencyCache;
+
+  public ReactivePaymentGatewayController(PaymentGatewayService paymentGatewayService,
+      RequestDeadlines requestDeadlines, IdempotencyCache idempotencyCache) {
+    this.paymentGatewayService = paymentGatewayService;
+    this.requestDeadlines = requestDeadlines;
+    this.idempotencyCache = idempotencyCache;
+  }
+
+  @GetMapping("/payment/{id}")
+  public ResponseEntity<?> getPostPaymentEventById(@PathVariable UUID id) {
+    return PaymentGatewayController.toResponseEntity(paymentGatewayService.findPaymentById(id));
+  }
+
+  @PostMapping("/payment")
+  public Mono<ResponseEntity<PostPaymentResponse>> processPayment(
+      @RequestBody PostPaymentRequest paymentRequest,
+      @RequestHeader(name = RequestDeadlines.HEADER, required = false) Long timeoutMillis,
+      @RequestHeader(name = IdempotencyCache.HEADER, required = false) String idempotencyKey) {
+    Deadline deadline = requestDeadlines.resolve(timeoutMillis);
+    return idempotencyCache.executeReactive(idempotencyKey, paymentRequest, deadline,
+            () -> paymentGatewayService.processPaymentReactive(paymentRequest, deadline))
+        .map(PaymentGatewayController::toResponseEntity);
+  }
+}
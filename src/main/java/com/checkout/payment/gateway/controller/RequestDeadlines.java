@@ -0,0 +1,34 @@
+package com.checkout.payment.gateway.controller;
+
+import com.checkout.payment.gateway.resilience.Deadline;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Turns the optional {@value #HEADER} request header, in milliseconds, into the deadline a
+ * payment is processed under. Without the header {@code payments.deadline.default} applies, and
+ * no caller may ask for more than {@code payments.deadline.max}.
+ */
+@Component
+public class RequestDeadlines {
+
+  public static final String HEADER = "X-Request-Timeout";
+
+  private final Duration defaultTimeout;
+  private final Duration maxTimeout;
+
+  public RequestDeadlines(@Value("${payments.deadline.default:10s}") Duration defaultTimeout,
+      @Value("${payments.deadline.max:30s}") Duration maxTimeout) {
+    this.defaultTimeout = defaultTimeout;
+    this.maxTimeout = maxTimeout;
+  }
+
+  public Deadline resolve(Long timeoutMillis) {
+    if (timeoutMillis == null) {
+      return Deadline.after(defaultTimeout);
+    }
+    Duration requested = Duration.ofMillis(Math.max(0, timeoutMillis));
+    return Deadline.after(requested.compareTo(maxTimeout) < 0 ? requested : maxTimeout);
+  }
+}
@@ -19,4 +19,18 @@ public class CommonExceptionHandler {
     return new ResponseEntity<>(new ErrorResponse("Page not found"),
         HttpStatus.NOT_FOUND);
   }
+
+  // Both are answers about the client's own retry, so neither is logged as an error.
+  @ExceptionHandler(IdempotencyKeyReusedException.class)
+  public ResponseEntity<ErrorResponse> handleException(IdempotencyKeyReusedException ex) {
+    LOG.warn(ex.getMessage());
+    return new ResponseEntity<>(new ErrorResponse(ex.getMessage()),
+        HttpStatus.UNPROCESSABLE_ENTITY);
+  }
+
+  @ExceptionHandler(PaymentInProgressException.class)
+  public ResponseEntity<ErrorResponse> handleException(PaymentInProgressException ex) {
+    LOG.warn(ex.getMessage());
+    return new ResponseEntity<>(new ErrorResponse(ex.getMessage()), HttpStatus.CONFLICT);
+  }
 }
@@ -0,0 +1,11 @@
+package com.checkout.payment.gateway.exception;
+
+/**
+ * An {@code Idempotency-Key} was sent again with a different payment than it was first sent with.
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+  public IdempotencyKeyReusedException(String idempotencyKey) {
+    super("Idempotency key " + idempotencyKey + " was already used for a different payment");
+  }
+}
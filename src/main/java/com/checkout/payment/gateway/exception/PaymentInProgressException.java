@@ -0,0 +1,12 @@
+package com.checkout.payment.gateway.exception;
+
+/**
+ * The payment first sent with an {@code Idempotency-Key} was still being processed when a
+ * retry with that key ran out of time to wait for it.
+ */
+public class PaymentInProgressException extends RuntimeException {
+
+  public PaymentInProgressException(String idempotencyKey) {
+    super("Payment with idempotency key " + idempotencyKey + " is still being processed");
+  }
+}
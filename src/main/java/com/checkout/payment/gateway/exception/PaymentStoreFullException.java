@@ -0,0 +1,12 @@
+package com.checkout.payment.gateway.exception;
+
+/**
+ * The payment store has no room left for another payment and never will, so writing to it again
+ * cannot succeed.
+ */
+public class PaymentStoreFullException extends IllegalStateException {
+
+  public PaymentStoreFullException(String message) {
+    super(message);
+  }
+}
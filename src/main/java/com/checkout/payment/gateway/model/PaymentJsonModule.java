@@ -0,0 +1,247 @@
+package com.checkout.payment.gateway.model;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Hand-written Jackson (de)serializers for the fixed-shape payment models on the request path:
+ * {@link PostPaymentRequest} and {@link BankPaymentResponse} are read, {@link PostPaymentResponse}
+ * and {@link BankPaymentRequest} written. They replace reflective bean binding with straight-line
+ * code over the streaming API, with field names and status values encoded once up front.
+ *
+ * <p>The JSON is byte-for-byte what bean binding with the annotations on the models produces, and
+ * reading behaves the same for anything the bean deserializer accepts: unknown properties are
+ * skipped, {@code null} leaves a field at its default and values of another JSON type are
+ * coerced by Jackson's standard deserializers.
+ */
+public class PaymentJsonModule extends SimpleModule {
+
+  private static final SerializedString ID = new SerializedString("id");
+  private static final SerializedString STATUS = new SerializedString("status");
+  private static final SerializedString CARD_NUMBER_LAST_FOUR =
+      new SerializedString("cardNumberLastFour");
+  private static final SerializedString EXPIRY_MONTH = new SerializedString("expiryMonth");
+  private static final SerializedString EXPIRY_YEAR = new SerializedString("expiryYear");
+  private static final SerializedString CURRENCY = new SerializedString("currency");
+  private static final SerializedString AMOUNT = new SerializedString("amount");
+  private static final SerializedString CARD_NUMBER = new SerializedString("card_number");
+  private static final SerializedString EXPIRY_DATE = new SerializedString("expiry_date");
+  private static final SerializedString CVV = new SerializedString("cvv");
+  private static final SerializedString[] STATUS_NAMES = statusNames();
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  public PaymentJsonModule() {
+    super(PaymentJsonModule.class.getSimpleName());
+    addDeserializer(PostPaymentRequest.class, new PostPaymentRequestDeserializer());
+    addDeserializer(BankPaymentResponse.class, new BankPaymentResponseDeserializer());
+    addSerializer(PostPaymentResponse.class, new PostPaymentResponseSerializer());
+    addSerializer(BankPaymentRequest.class, new BankPaymentRequestSerializer());
+  }
+
+  static final class PostPaymentRequestDeserializer extends StdDeserializer<PostPaymentRequest> {
+
+    PostPaymentRequestDeserializer() {
+      super(PostPaymentRequest.class);
+    }
+
+    @Override
+    public PostPaymentRequest deserialize(JsonParser p, DeserializationContext ctxt)
+        throws IOException {
+      PostPaymentRequest request = new PostPaymentRequest();
+      // Field names come back canonicalised by the parser, so switching on them allocates nothing
+      for (String name = startObject(p, ctxt, PostPaymentRequest.class); name != null;
+          name = p.nextFieldName()) {
+        JsonToken value = p.nextToken();
+        try {
+          switch (name) {
+            case "card_number" -> request.setCardNumber(readString(p, ctxt, value));
+            case "expiry_month" -> request.setExpiryMonth(readInt(p, ctxt, value));
+            case "expiry_year" -> request.setExpiryYear(readInt(p, ctxt, value));
+            case "currency" -> request.setCurrency(readString(p, ctxt, value));
+            case "amount" -> request.setAmount(readInt(p, ctxt, value));
+            case "cvv" -> request.setCvv(readString(p, ctxt, value));
+            default -> p.skipChildren();
+          }
+        } catch (Exception e) {
+          throw JsonMappingException.wrapWithPath(e, request, name);
+        }
+      }
+      return request;
+    }
+  }
+
+  static final class BankPaymentResponseDeserializer
+      extends StdDeserializer<BankPaymentResponse> {
+
+    BankPaymentResponseDeserializer() {
+      super(BankPaymentResponse.class);
+    }
+
+    @Override
+    public BankPaymentResponse deserialize(JsonParser p, DeserializationContext ctxt)
+        throws IOException {
+      BankPaymentResponse response = new BankPaymentResponse();
+      for (String name = startObject(p, ctxt, BankPaymentResponse.class); name != null;
+          name = p.nextFieldName()) {
+        JsonToken value = p.nextToken();
+        try {
+          switch (name) {
+            case "authorized" -> response.setAuthorized(readBoolean(p, ctxt, value));
+            case "authorization_code" ->
+                response.setAuthorizationCode(readString(p, ctxt, value));
+            default -> p.skipChildren();
+          }
+        } catch (Exception e) {
+          throw JsonMappingException.wrapWithPath(e, response, name);
+        }
+      }
+      return response;
+    }
+  }
+
+  static final class PostPaymentResponseSerializer extends StdSerializer<PostPaymentResponse> {
+
+    PostPaymentResponseSerializer() {
+      super(PostPaymentResponse.class);
+    }
+
+    @Override
+    public void serialize(PostPaymentResponse response, JsonGenerator gen,
+        SerializerProvider provider) throws IOException {
+      gen.writeStartObject(response);
+      gen.writeFieldName(ID);
+      writeUuid(gen, response.getId());
+      gen.writeFieldName(STATUS);
+      PaymentStatus status = response.getStatus();
+      if (status == null) {
+        gen.writeNull();
+      } else {
+        gen.writeString(STATUS_NAMES[status.ordinal()]);
+      }
+      gen.writeFieldName(CARD_NUMBER_LAST_FOUR);
+      gen.writeNumber(response.getCardNumberLastFour());
+      gen.writeFieldName(EXPIRY_MONTH);
+      gen.writeNumber(response.getExpiryMonth());
+      gen.writeFieldName(EXPIRY_YEAR);
+      gen.writeNumber(response.getExpiryYear());
+      gen.writeFieldName(CURRENCY);
+      gen.writeString(response.getCurrency());
+      gen.writeFieldName(AMOUNT);
+      gen.writeNumber(response.getAmount());
+      gen.writeEndObject();
+    }
+  }
+
+  static final class BankPaymentRequestSerializer extends StdSerializer<BankPaymentRequest> {
+
+    BankPaymentRequestSerializer() {
+      super(BankPaymentRequest.class);
+    }
+
+    @Override
+    public void serialize(BankPaymentRequest request, JsonGenerator gen,
+        SerializerProvider provider) throws IOException {
+      // Bean binding puts the properties renamed with @JsonProperty last; keep its order
+      gen.writeStartObject(request);
+      gen.writeFieldName(CURRENCY);
+      gen.writeString(request.getCurrency());
+      gen.writeFieldName(AMOUNT);
+      gen.writeNumber(request.getAmount());
+      gen.writeFieldName(CVV);
+      gen.writeString(request.getCvv());
+      gen.writeFieldName(CARD_NUMBER);
+      gen.writeString(request.getCardNumber());
+      gen.writeFieldName(EXPIRY_DATE);
+      gen.writeString(request.getExpiryDate());
+      gen.writeEndObject();
+    }
+  }
+
+  // Returns the first field name, or null for an empty object.
+  private static String startObject(JsonParser p, DeserializationContext ctxt, Class<?> type)
+      throws IOException {
+    JsonToken token = p.currentToken();
+    if (token == JsonToken.START_OBJECT) {
+      return p.nextFieldName();
+    }
+    if (token == JsonToken.FIELD_NAME) {
+      return p.currentName();
+    }
+    ctxt.handleUnexpectedToken(type, p);
+    return null;
+  }
+
+  private static String readString(JsonParser p, DeserializationContext ctxt, JsonToken token)
+      throws IOException {
+    if (token == JsonToken.VALUE_STRING) {
+      return p.getText();
+    }
+    return token == JsonToken.VALUE_NULL ? null : ctxt.readValue(p, String.class);
+  }
+
+  private static int readInt(JsonParser p, DeserializationContext ctxt, JsonToken token)
+      throws IOException {
+    if (token == JsonToken.VALUE_NUMBER_INT && p.getNumberType() == JsonParser.NumberType.INT) {
+      return p.getIntValue();
+    }
+    Integer value = token == JsonToken.VALUE_NULL ? null : ctxt.readValue(p, Integer.TYPE);
+    return value == null ? 0 : value;
+  }
+
+  private static boolean readBoolean(JsonParser p, DeserializationContext ctxt, JsonToken token)
+      throws IOException {
+    if (token == JsonToken.VALUE_TRUE || token == JsonToken.VALUE_FALSE) {
+      return token == JsonToken.VALUE_TRUE;
+    }
+    Boolean value = token == JsonToken.VALUE_NULL ? null : ctxt.readValue(p, Boolean.TYPE);
+    return value != null && value;
+  }
+
+  // Same text as UUID.toString(), written without building the intermediate String.
+  private static void writeUuid(JsonGenerator gen, UUID id) throws IOException {
+    if (id == null) {
+      gen.writeNull();
+      return;
+    }
+    char[] text = new char[36];
+    long msb = id.getMostSignificantBits();
+    long lsb = id.getLeastSignificantBits();
+    appendHex(text, 0, msb >>> 32, 8);
+    text[8] = '-';
+    appendHex(text, 9, msb >>> 16, 4);
+    text[13] = '-';
+    appendHex(text, 14, msb, 4);
+    text[18] = '-';
+    appendHex(text, 19, lsb >>> 48, 4);
+    text[23] = '-';
+    appendHex(text, 24, lsb, 12);
+    gen.writeString(text, 0, 36);
+  }
+
+  private static void appendHex(char[] text, int offset, long value, int digits) {
+    for (int i = offset + digits - 1; i >= offset; i--) {
+      text[i] = HEX[(int) value & 0xF];
+      value >>>= 4;
+    }
+  }
+
+  private static SerializedString[] statusNames() {
+    PaymentStatus[] statuses = PaymentStatus.values();
+    SerializedString[] names = new SerializedString[statuses.length];
+    for (PaymentStatus status : statuses) {
+      names[status.ordinal()] = new SerializedString(status.getName());
+    }
+    return names;
+  }
+}
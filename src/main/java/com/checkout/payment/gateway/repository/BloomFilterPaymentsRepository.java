@@ -0,0 +1,97 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Answers lookups of ids that were never stored without reaching the store, by checking a
+ * {@link ScalableBloomFilter} of every id written through it. The filter is rebuilt from the
+ * store's payments when the repository is created, so it only needs to be told about writes
+ * from then on; ids the store has since dropped, like expired in-memory payments, remain
+ * possible and are looked up as before.
+ *
+ * <p>A filter can only rule out ids written through it, so it refuses a
+ * {@linkplain PaymentsRepository#isShared() shared} store: payments other instances write there
+ * after startup would be reported missing.
+ *
+ * <p>Lookups the filter answered are counted as {@code payments.repository.filter} with
+ * {@code result=absent}, and lookups it let through that the store did not know as
+ * {@code result=false_positive}. The size of the filter is {@code payments.repository.filter.size}.
+ */
+public class BloomFilterPaymentsRepository implements PaymentsRepository {
+
+  private final PaymentsRepository store;
+  private final ScalableBloomFilter filter;
+  private final Counter absent;
+  private final Counter falsePositives;
+
+  public BloomFilterPaymentsRepository(PaymentsRepository store, long expectedPayments,
+      double falsePositiveRate, MeterRegistry meterRegistry) {
+    if (store.isShared()) {
+      throw new IllegalArgumentException("A Bloom filter of stored ids cannot front a store "
+          + "other gateway instances write to; disable payments.repository.bloom-filter");
+    }
+    this.store = store;
+    this.filter = new ScalableBloomFilter(expectedPayments, falsePositiveRate);
+    try (Stream<PostPaymentResponse> stored = store.find(PaymentQuery.ALL)) {
+      stored.forEach(payment -> filter.add(payment.getId()));
+    }
+    this.absent = Counter.builder("payments.repository.filter")
+        .tag("result", "absent")
+        .register(meterRegistry);
+    this.falsePositives = Counter.builder("payments.repository.filter")
+        .tag("result", "false_positive")
+        .register(meterRegistry);
+    Gauge.builder("payments.repository.filter.size", filter, ScalableBloomFilter::sizeInBytes)
+        .baseUnit("bytes")
+        .register(meterRegistry);
+  }
+
+  // The filter learns of a payment before the store has it, so no reader can find the payment
+  // in the store while the filter still rules it out.
+  @Override
+  public void add(PostPaymentResponse payment) {
+    filter.add(payment.getId());
+    store.add(payment);
+  }
+
+  @Override
+  public void addAll(Collection<PostPaymentResponse> payments) {
+    payments.forEach(payment -> filter.add(payment.getId()));
+    store.addAll(payments);
+  }
+
+  @Override
+  public Optional<PostPaymentResponse> get(UUID id) {
+    if (!filter.mightContain(id)) {
+      absent.increment();
+      return Optional.empty();
+    }
+    Optional<PostPaymentResponse> stored = store.get(id);
+    if (stored.isEmpty()) {
+      falsePositives.increment();
+    }
+    return stored;
+  }
+
+  @Override
+  public Stream<PostPaymentResponse> find(PaymentQuery query) {
+    return store.find(query);
+  }
+
+  @Override
+  public boolean isFull() {
+    return store.isFull();
+  }
+
+  @Override
+  public long remainingCapacity() {
+    return store.remainingCapacity();
+  }
+}
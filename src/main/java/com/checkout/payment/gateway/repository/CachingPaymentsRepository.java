@@ -0,0 +1,84 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Keeps recently written and frequently read payments in memory in front of a slower store.
+ * Every write goes to the cache as well as the store, so a merchant polling a payment it has just
+ * created never reaches the store, and a read that misses loads the payment into the cache. Ids
+ * the store does not know are not cached.
+ *
+ * <p>The cache is bounded by entry count and uses Caffeine's W-TinyLFU policy: a newcomer only
+ * displaces an entry if it has been asked for more often recently, so a burst of one-off lookups
+ * cannot flush out the payments that are being polled. Hits, misses and evictions are published
+ * as the {@code cache.*} meters tagged {@code cache=payments}.
+ */
+public class CachingPaymentsRepository implements PaymentsRepository {
+
+  private final PaymentsRepository store;
+  private final Cache<UUID, PostPaymentResponse> cache;
+
+  public CachingPaymentsRepository(PaymentsRepository store, long maxEntries, Duration ttl,
+      MeterRegistry meterRegistry) {
+    this.store = store;
+    this.cache = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+        .maximumSize(maxEntries)
+        .expireAfterWrite(ttl)
+        .recordStats()
+        .<UUID, PostPaymentResponse>build(), "payments");
+  }
+
+  @Override
+  public void add(PostPaymentResponse payment) {
+    store.add(payment);
+    cache.put(payment.getId(), payment);
+  }
+
+  @Override
+  public void addAll(Collection<PostPaymentResponse> payments) {
+    store.addAll(payments);
+    payments.forEach(payment -> cache.put(payment.getId(), payment));
+  }
+
+  @Override
+  public Optional<PostPaymentResponse> get(UUID id) {
+    PostPaymentResponse cached = cache.getIfPresent(id);
+    if (cached != null) {
+      return Optional.of(cached);
+    }
+    // Loaded outside the cache's own compute so a slow store does not block other keys.
+    Optional<PostPaymentResponse> stored = store.get(id);
+    stored.ifPresent(payment -> cache.put(id, payment));
+    return stored;
+  }
+
+  /** Queries the store directly; a scan would only flush the cache of the payments being polled. */
+  @Override
+  public Stream<PostPaymentResponse> find(PaymentQuery query) {
+    return store.find(query);
+  }
+
+  @Override
+  public boolean isFull() {
+    return store.isFull();
+  }
+
+  @Override
+  public long remainingCapacity() {
+    return store.remainingCapacity();
+  }
+
+  @Override
+  public boolean isShared() {
+    return store.isShared();
+  }
+}
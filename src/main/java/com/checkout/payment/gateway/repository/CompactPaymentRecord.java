@@ -0,0 +1,129 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import java.util.UUID;
+
+/**
+ * Fixed-width primitive encoding of a stored payment, five longs per record:
+ *
+ * <pre>
+ *   0: id most significant bits
+ *   1: id least significant bits
+ *   2: time the payment was stored, epoch millis
+ *   3: amount (high 32) | expiry year (low 32)
+ *   4: card last four (high 32) | currency as ASCII (24) | expiry month (4) | status (4)
+ * </pre>
+ */
+final class CompactPaymentRecord {
+
+  static final int LONGS = 5;
+  static final int STORED_AT_WORD = 2;
+  static final int DETAILS_WORD = 4;
+
+  private static final PaymentStatus[] STATUSES = PaymentStatus.values();
+  private static final int NO_STATUS = 0xF;
+
+  private CompactPaymentRecord() {
+  }
+
+  static void encode(PostPaymentResponse payment, long storedAt, long[] target, int offset) {
+    target[offset] = payment.getId().getMostSignificantBits();
+    target[offset + 1] = payment.getId().getLeastSignificantBits();
+    target[offset + 2] = storedAt;
+    target[offset + 3] = (long) payment.getAmount() << 32
+        | (payment.getExpiryYear() & 0xFFFFFFFFL);
+    target[offset + 4] = (long) payment.getCardNumberLastFour() << 32
+        | (long) encodeCurrency(payment.getCurrency()) << 8
+        | encodeMonth(payment.getExpiryMonth()) << 4
+        | encodeStatus(payment.getStatus());
+  }
+
+  static PostPaymentResponse decode(long[] source, int offset) {
+    long amountAndYear = source[offset + 3];
+    long details = source[offset + 4];
+
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(new UUID(source[offset], source[offset + 1]));
+    payment.setAmount((int) (amountAndYear >>> 32));
+    payment.setExpiryYear((int) amountAndYear);
+    payment.setCardNumberLastFour((int) (details >>> 32));
+    payment.setCurrency(decodeCurrency((int) (details >>> 8) & 0xFFFFFF));
+    payment.setExpiryMonth((int) (details >>> 4) & 0xF);
+    int status = (int) details & 0xF;
+    payment.setStatus(status == NO_STATUS ? null : STATUSES[status]);
+    return payment;
+  }
+
+  static boolean hasId(long[] source, int offset, long mostSigBits, long leastSigBits) {
+    return source[offset] == mostSigBits && source[offset + 1] == leastSigBits;
+  }
+
+  static long storedAt(long[] source, int offset) {
+    return source[offset + STORED_AT_WORD];
+  }
+
+  /**
+   * Bits of word 4 that {@link #matches} compares for the given status and currency, either of
+   * which may be {@code null} to match any.
+   */
+  static long detailsMask(PaymentStatus status, String currency) {
+    return (status == null ? 0 : 0xFL) | (currency == null ? 0 : 0xFFFFFFL << 8);
+  }
+
+  static long detailsValue(PaymentStatus status, String currency) {
+    return (status == null ? 0 : encodeStatus(status))
+        | (currency == null ? 0 : (long) encodeCurrency(currency) << 8);
+  }
+
+  /** Filters on status and currency by word 4 alone, without decoding the record. */
+  static boolean matches(long details, long detailsMask, long detailsValue) {
+    return (details & detailsMask) == detailsValue;
+  }
+
+  static long details(long[] source, int offset) {
+    return source[offset + DETAILS_WORD];
+  }
+
+  static int hash(long mostSigBits, long leastSigBits) {
+    long h = (mostSigBits ^ Long.rotateLeft(leastSigBits, 32)) * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+
+  private static int encodeCurrency(String currency) {
+    if (currency == null) {
+      return 0;
+    }
+    if (currency.length() != 3) {
+      throw new IllegalArgumentException("Currency must be 3 characters to be stored");
+    }
+    int code = 0;
+    for (int i = 0; i < 3; i++) {
+      char c = currency.charAt(i);
+      if (c == 0 || c > 0xFF) {
+        throw new IllegalArgumentException("Currency must be Latin-1 to be stored");
+      }
+      code = code << 8 | c;
+    }
+    return code;
+  }
+
+  private static String decodeCurrency(int code) {
+    if (code == 0) {
+      return null;
+    }
+    return new String(new char[]{(char) (code >>> 16), (char) (code >>> 8 & 0xFF),
+        (char) (code & 0xFF)});
+  }
+
+  private static long encodeMonth(int month) {
+    if (month < 0 || month > 0xF) {
+      throw new IllegalArgumentException("Expiry month out of range: " + month);
+    }
+    return month;
+  }
+
+  private static long encodeStatus(PaymentStatus status) {
+    return status == null ? NO_STATUS : status.ordinal();
+  }
+}
@@ -0,0 +1,433 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Bounded, lock-striped payment store. Payments are spread across independently locked segments
+ * by id, so writers only contend when they land on the same segment. Each segment keeps its
+ * payments in insertion order and evicts the oldest ones once it is over capacity or they are
+ * older than the retention period. A segment never evicts its newest payment to make room, so a
+ * payment can be read back as soon as it is stored even when it lands on a segment that holds
+ * nothing older; the store may then run over capacity by up to one payment per segment until
+ * segments with older payments are next written to or swept.
+ *
+ * <p>Payments are not kept as objects: each segment appends them as {@link CompactPaymentRecord}s
+ * to a ring of fixed-size {@code long[]} chunks and finds them through an open-addressing
+ * {@code int[]} index of ring positions. A {@link PostPaymentResponse} is only materialised when a
+ * payment is read back.
+ *
+ * <p>Within a segment, payments are also in order of the time they were stored, which serves as
+ * the time index for {@link #find}: the start of a window is found by binary search and the scan
+ * stops at its end. Status and currency are compared on the encoded record, so only matching
+ * payments are decoded.
+ */
+@Repository
+@Qualifier(PaymentsRepository.STORE)
+@ConditionalOnProperty(name = "payments.repository.type", havingValue = "memory",
+    matchIfMissing = true)
+public class InMemoryPaymentsRepository implements PaymentsRepository {
+
+  private static final int MAX_STRIPES = 256;
+  private static final int CHUNK_BITS = 10;
+  private static final int CHUNK_RECORDS = 1 << CHUNK_BITS;
+  private static final int POSITION_MASK = Integer.MAX_VALUE;
+  private static final int SCAN_PAGE = 1024;
+  private static final long SCAN_START = -1;
+  private static final long SCAN_DONE = -2;
+
+  private final Segment[] segments;
+  private final int segmentMask;
+  private final int capacity;
+  private final long retentionMillis;
+  private final Clock clock;
+  private final AtomicInteger size = new AtomicInteger();
+  private final AtomicInteger sweepCursor = new AtomicInteger();
+  private final Counter capacityEvictions;
+  private final Counter expiryEvictions;
+
+  public InMemoryPaymentsRepository(
+      @Value("${payments.repository.capacity:1000000}") int capacity,
+      @Value("${payments.repository.retention:7d}") Duration retention,
+      @Value("${payments.repository.stripes:16}") int stripes,
+      Clock clock, MeterRegistry meterRegistry) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Repository capacity must be positive");
+    }
+    int segmentCount = Integer.highestOneBit(
+        Math.max(1, Math.min(Math.min(stripes, MAX_STRIPES), capacity)));
+    this.segments = new Segment[segmentCount];
+    for (int i = 0; i < segmentCount; i++) {
+      segments[i] = new Segment();
+    }
+    this.segmentMask = segmentCount - 1;
+    this.capacity = capacity;
+    this.retentionMillis = retention.toMillis();
+    this.clock = clock;
+
+    Gauge.builder("payments.repository.size", size, AtomicInteger::get)
+        .description("Number of payments currently held in the repository")
+        .register(meterRegistry);
+    this.capacityEvictions = Counter.builder("payments.repository.evictions")
+        .tag("cause", "capacity")
+        .register(meterRegistry);
+    this.expiryEvictions = Counter.builder("payments.repository.evictions")
+        .tag("cause", "expired")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public void add(PostPaymentResponse payment) {
+    long now = clock.millis();
+    UUID id = payment.getId();
+    int hash = CompactPaymentRecord.hash(id.getMostSignificantBits(), id.getLeastSignificantBits());
+    segmentFor(hash).put(payment, hash, now);
+    // Idle segments would otherwise hold on to expired payments until they are next written to.
+    segments[sweepCursor.getAndIncrement() & segmentMask].sweep(now);
+  }
+
+  @Override
+  public Optional<PostPaymentResponse> get(UUID id) {
+    long mostSigBits = id.getMostSignificantBits();
+    long leastSigBits = id.getLeastSignificantBits();
+    int hash = CompactPaymentRecord.hash(mostSigBits, leastSigBits);
+    return Optional.ofNullable(
+        segmentFor(hash).get(mostSigBits, leastSigBits, hash, clock.millis()));
+  }
+
+  @Override
+  public Stream<PostPaymentResponse> find(PaymentQuery query) {
+    long detailsMask = CompactPaymentRecord.detailsMask(query.status(), query.currency());
+    long detailsValue = CompactPaymentRecord.detailsValue(query.status(), query.currency());
+    // One spliterator over every segment: flatMap would drain a whole segment into a buffer on
+    // the first element pulled through Stream.iterator()
+    return StreamSupport.stream(
+        new StoreScan(query.fromMillis(), query.toMillis(), detailsMask, detailsValue), false);
+  }
+
+  public int size() {
+    return size.get();
+  }
+
+  // Segments are picked by the high bits of the hash, leaving the low bits for the index.
+  private Segment segmentFor(int hash) {
+    return segments[(hash >>> 24) & segmentMask];
+  }
+
+  private boolean isExpired(long storedAt, long now) {
+    return now - storedAt >= retentionMillis;
+  }
+
+  // Segments evict concurrently, so each eviction claims one slot of overflow before removing.
+  private boolean claimOverflow() {
+    int current;
+    do {
+      current = size.get();
+      if (current <= capacity) {
+        return false;
+      }
+    } while (!size.compareAndSet(current, current - 1));
+    return true;
+  }
+
+  /**
+   * Records live at ever-increasing positions between {@code head} (oldest) and {@code tail}.
+   * Position {@code p} is stored in chunk {@code p >>> CHUNK_BITS}, mapped onto the
+   * {@code chunks} ring, and index entries refer to records by the low 31 bits of their position.
+   */
+  private final class Segment {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long[][] chunks = new long[1][];
+    private long head;
+    private long tail;
+    private int[] index = new int[16];
+    private int indexed;
+    private long lastStoredAt = Long.MIN_VALUE;
+
+    private void put(PostPaymentResponse payment, int hash, long now) {
+      UUID id = payment.getId();
+      lock.writeLock().lock();
+      try {
+        int slot = find(id.getMostSignificantBits(), id.getLeastSignificantBits(), hash);
+        if (slot >= 0) {
+          long position = positionOf(index[slot]);
+          long[] chunk = chunkOf(position);
+          int offset = offsetOf(position);
+          CompactPaymentRecord.encode(payment, CompactPaymentRecord.storedAt(chunk, offset),
+              chunk, offset);
+        } else {
+          // Never older than the record before it, even if the clock steps back or a writer that
+          // read the clock earlier gets the lock later, so that positions stay in time order.
+          lastStoredAt = Math.max(lastStoredAt, now);
+          long position = append();
+          CompactPaymentRecord.encode(payment, lastStoredAt, chunkOf(position),
+              offsetOf(position));
+          insert(hash, position);
+          size.incrementAndGet();
+        }
+        evict(now);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    private void sweep(long now) {
+      if (lock.writeLock().tryLock()) {
+        try {
+          evict(now);
+        } finally {
+          lock.writeLock().unlock();
+        }
+      }
+    }
+
+    private PostPaymentResponse get(long mostSigBits, long leastSigBits, int hash, long now) {
+      lock.readLock().lock();
+      try {
+        int slot = find(mostSigBits, leastSigBits, hash);
+        if (slot < 0) {
+          return null;
+        }
+        long position = positionOf(index[slot]);
+        long[] chunk = chunkOf(position);
+        int offset = offsetOf(position);
+        if (isExpired(CompactPaymentRecord.storedAt(chunk, offset), now)) {
+          return null;
+        }
+        return CompactPaymentRecord.decode(chunk, offset);
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    /**
+     * Decodes the matching payments among the next {@value #SCAN_PAGE} records from
+     * {@code cursor} into the scan's page, returning the position to carry on from or
+     * {@link #SCAN_DONE}. The read lock is held for one page only, so a slow reader never holds
+     * up writers for long.
+     */
+    private long scan(long cursor, StoreScan scan, long now) {
+      lock.readLock().lock();
+      try {
+        long position = cursor == SCAN_START ? firstStoredAtOrAfter(scan.fromMillis)
+            : Math.max(cursor, head);
+        long end = Math.min(tail, position + SCAN_PAGE);
+        for (; position < end; position++) {
+          long[] chunk = chunkOf(position);
+          int offset = offsetOf(position);
+          long storedAt = CompactPaymentRecord.storedAt(chunk, offset);
+          if (storedAt >= scan.toMillis) {
+            return SCAN_DONE;
+          }
+          if (!isExpired(storedAt, now) && CompactPaymentRecord.matches(
+              CompactPaymentRecord.details(chunk, offset), scan.detailsMask, scan.detailsValue)) {
+            scan.page.add(CompactPaymentRecord.decode(chunk, offset));
+          }
+        }
+        return position >= tail ? SCAN_DONE : position;
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    private long firstStoredAtOrAfter(long millis) {
+      long low = head;
+      long high = tail;
+      while (low < high) {
+        long middle = (low + high) >>> 1;
+        if (CompactPaymentRecord.storedAt(chunkOf(middle), offsetOf(middle)) < millis) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      return low;
+    }
+
+    private void evict(long now) {
+      while (head < tail) {
+        long[] chunk = chunkOf(head);
+        int offset = offsetOf(head);
+        if (head < tail - 1 && claimOverflow()) {
+          capacityEvictions.increment();
+        } else if (isExpired(CompactPaymentRecord.storedAt(chunk, offset), now)) {
+          size.decrementAndGet();
+          expiryEvictions.increment();
+        } else {
+          return;
+        }
+        remove(find(chunk[offset], chunk[offset + 1], hashAt(head)));
+        head++;
+        if (head == tail) {
+          // Empty again: restart at position zero, keeping one chunk for the next writes.
+          chunks = new long[][]{chunk};
+          head = 0;
+          tail = 0;
+        } else if ((head & (CHUNK_RECORDS - 1)) == 0) {
+          chunks[(int) ((head - 1) >>> CHUNK_BITS) & (chunks.length - 1)] = null;
+        }
+      }
+    }
+
+    private long append() {
+      long chunkNumber = tail >>> CHUNK_BITS;
+      long headChunkNumber = head >>> CHUNK_BITS;
+      if (chunkNumber != headChunkNumber
+          && ((chunkNumber ^ headChunkNumber) & (chunks.length - 1)) == 0) {
+        growChunks();
+      }
+      int chunkSlot = (int) chunkNumber & (chunks.length - 1);
+      if (chunks[chunkSlot] == null) {
+        chunks[chunkSlot] = new long[CHUNK_RECORDS * CompactPaymentRecord.LONGS];
+      }
+      return tail++;
+    }
+
+    private void growChunks() {
+      long[][] grown = new long[chunks.length * 2][];
+      for (long chunk = head >>> CHUNK_BITS; chunk < tail >>> CHUNK_BITS; chunk++) {
+        grown[(int) chunk & (grown.length - 1)] = chunks[(int) chunk & (chunks.length - 1)];
+      }
+      chunks = grown;
+    }
+
+    private long[] chunkOf(long position) {
+      return chunks[(int) (position >>> CHUNK_BITS) & (chunks.length - 1)];
+    }
+
+    private int offsetOf(long position) {
+      return ((int) position & (CHUNK_RECORDS - 1)) * CompactPaymentRecord.LONGS;
+    }
+
+    private int hashAt(long position) {
+      long[] chunk = chunkOf(position);
+      int offset = offsetOf(position);
+      return CompactPaymentRecord.hash(chunk[offset], chunk[offset + 1]);
+    }
+
+    // Entries hold the low 31 bits of a position plus one, so that zero marks an empty slot.
+    private long positionOf(int entry) {
+      return head + ((entry - 1 - (int) head) & POSITION_MASK);
+    }
+
+    private int find(long mostSigBits, long leastSigBits, int hash) {
+      int mask = index.length - 1;
+      for (int slot = hash & mask; index[slot] != 0; slot = (slot + 1) & mask) {
+        long position = positionOf(index[slot]);
+        if (CompactPaymentRecord.hasId(chunkOf(position), offsetOf(position), mostSigBits,
+            leastSigBits)) {
+          return slot;
+        }
+      }
+      return -1;
+    }
+
+    private void insert(int hash, long position) {
+      if ((indexed + 1) * 4L > index.length * 3L) {
+        rehash(index.length * 2);
+      }
+      int mask = index.length - 1;
+      int slot = hash & mask;
+      while (index[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      index[slot] = ((int) position & POSITION_MASK) + 1;
+      indexed++;
+    }
+
+    private void rehash(int length) {
+      int[] rehashed = new int[length];
+      int mask = length - 1;
+      for (int entry : index) {
+        if (entry != 0) {
+          int slot = hashAt(positionOf(entry)) & mask;
+          while (rehashed[slot] != 0) {
+            slot = (slot + 1) & mask;
+          }
+          rehashed[slot] = entry;
+        }
+      }
+      index = rehashed;
+    }
+
+    // Backward-shift deletion keeps linear probe sequences unbroken without tombstones.
+    private void remove(int slot) {
+      int mask = index.length - 1;
+      int hole = slot;
+      int next = slot;
+      while (index[next = (next + 1) & mask] != 0) {
+        int home = hashAt(positionOf(index[next])) & mask;
+        boolean stays = hole <= next ? hole < home && home <= next : hole < home || home <= next;
+        if (!stays) {
+          index[hole] = index[next];
+          hole = next;
+        }
+      }
+      index[hole] = 0;
+      indexed--;
+    }
+  }
+
+  /**
+   * Reads the segments one after another, a page at a time, so no more than a page of payments
+   * is held however many match.
+   */
+  private final class StoreScan extends Spliterators.AbstractSpliterator<PostPaymentResponse> {
+
+    private final long fromMillis;
+    private final long toMillis;
+    private final long detailsMask;
+    private final long detailsValue;
+    private final List<PostPaymentResponse> page = new ArrayList<>();
+    private int next;
+    private int segment;
+    private long cursor = SCAN_START;
+
+    private StoreScan(long fromMillis, long toMillis, long detailsMask, long detailsValue) {
+      super(Long.MAX_VALUE, Spliterator.NONNULL);
+      this.fromMillis = fromMillis;
+      this.toMillis = toMillis;
+      this.detailsMask = detailsMask;
+      this.detailsValue = detailsValue;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super PostPaymentResponse> action) {
+      while (next == page.size()) {
+        if (cursor == SCAN_DONE) {
+          if (segment == segments.length - 1) {
+            return false;
+          }
+          segment++;
+          cursor = SCAN_START;
+        }
+        page.clear();
+        next = 0;
+        cursor = segments[segment].scan(cursor, this, clock.millis());
+      }
+      action.accept(page.get(next++));
+      return true;
+    }
+  }
+}
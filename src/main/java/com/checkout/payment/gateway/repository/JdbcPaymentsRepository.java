@@ -0,0 +1,183 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Payment store in a relational database, so payments survive restarts and are shared by every
+ * gateway instance. Payments are keyed by their id as {@code BINARY(16)} and read back by primary
+ * key; {@link #addAll} sends inserts as JDBC batches of {@code batch-size} rows. Each row records
+ * when it was first stored, and {@link #find} is served by indexes on that time, alone and behind
+ * status and currency, streaming rows from the database {@value #FETCH_SIZE} at a time.
+ *
+ * <p>Runs on the pool from {@code JdbcRepositoryConfiguration}. The {@code payments} table is
+ * created on startup unless {@code payments.repository.jdbc.initialize-schema=false}.
+ */
+@Repository
+@Qualifier(PaymentsRepository.STORE)
+@ConditionalOnProperty(name = "payments.repository.type", havingValue = "jdbc")
+public class JdbcPaymentsRepository implements PaymentsRepository {
+
+  static final String SCHEMA = """
+      CREATE TABLE IF NOT EXISTS payments (
+        id BINARY(16) NOT NULL PRIMARY KEY,
+        status VARCHAR(16) NOT NULL,
+        card_number_last_four SMALLINT NOT NULL,
+        expiry_month SMALLINT NOT NULL,
+        expiry_year INT NOT NULL,
+        currency CHAR(3) NOT NULL,
+        amount INT NOT NULL,
+        created_at BIGINT NOT NULL
+      )""";
+  static final List<String> INDEXES = List.of(
+      "CREATE INDEX IF NOT EXISTS payments_created_at ON payments (created_at)",
+      "CREATE INDEX IF NOT EXISTS payments_status_currency_created_at "
+          + "ON payments (status, currency, created_at)");
+
+  private static final String INSERT = "INSERT INTO payments (status, card_number_last_four, "
+      + "expiry_month, expiry_year, currency, amount, id, created_at) "
+      + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+  private static final String UPDATE = "UPDATE payments SET status = ?, "
+      + "card_number_last_four = ?, expiry_month = ?, expiry_year = ?, currency = ?, amount = ? "
+      + "WHERE id = ?";
+  private static final String SELECT = "SELECT status, card_number_last_four, expiry_month, "
+      + "expiry_year, currency, amount FROM payments WHERE id = ?";
+  private static final String FIND = "SELECT status, card_number_last_four, expiry_month, "
+      + "expiry_year, currency, amount, id FROM payments WHERE created_at >= ? AND created_at < ?";
+  private static final int FETCH_SIZE = 1000;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final JdbcTemplate streamingTemplate;
+  private final int batchSize;
+  private final Clock clock;
+
+  public JdbcPaymentsRepository(DataSource dataSource,
+      @Value("${payments.repository.jdbc.batch-size:100}") int batchSize,
+      @Value("${payments.repository.jdbc.initialize-schema:true}") boolean initializeSchema,
+      Clock clock) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("JDBC batch size must be positive");
+    }
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.streamingTemplate = new JdbcTemplate(dataSource);
+    streamingTemplate.setFetchSize(FETCH_SIZE);
+    this.batchSize = batchSize;
+    this.clock = clock;
+    if (initializeSchema) {
+      jdbcTemplate.execute(SCHEMA);
+      INDEXES.forEach(jdbcTemplate::execute);
+    }
+  }
+
+  @Override
+  public void add(PostPaymentResponse payment) {
+    long createdAt = clock.millis();
+    try {
+      jdbcTemplate.update(INSERT, ps -> bindInsert(ps, payment, createdAt));
+    } catch (DuplicateKeyException e) {
+      jdbcTemplate.update(UPDATE, ps -> bind(ps, payment));
+    }
+  }
+
+  @Override
+  public void addAll(Collection<PostPaymentResponse> payments) {
+    long createdAt = clock.millis();
+    try {
+      jdbcTemplate.batchUpdate(INSERT, payments, batchSize,
+          (ps, payment) -> bindInsert(ps, payment, createdAt));
+    } catch (DuplicateKeyException e) {
+      // Some batch hit an existing payment; how much of it landed depends on the driver, so
+      // write the batch again row by row, which is idempotent.
+      payments.forEach(this::add);
+    }
+  }
+
+  @Override
+  public Optional<PostPaymentResponse> get(UUID id) {
+    List<PostPaymentResponse> found = jdbcTemplate.query(SELECT,
+        ps -> ps.setBytes(1, toBytes(id)), (rs, row) -> toPayment(id, rs));
+    return found.isEmpty() ? Optional.empty() : Optional.of(found.get(0));
+  }
+
+  @Override
+  public Stream<PostPaymentResponse> find(PaymentQuery query) {
+    StringBuilder sql = new StringBuilder(FIND);
+    List<Object> args = new ArrayList<>(List.of(query.fromMillis(), query.toMillis()));
+    if (query.status() != null) {
+      sql.append(" AND status = ?");
+      args.add(query.status().name());
+    }
+    if (query.currency() != null) {
+      sql.append(" AND currency = ?");
+      args.add(query.currency());
+    }
+    return streamingTemplate.queryForStream(sql.toString(),
+        (rs, row) -> toPayment(fromBytes(rs.getBytes(7)), rs), args.toArray());
+  }
+
+  @Override
+  public boolean isShared() {
+    return true;
+  }
+
+  // Only INSERT sets created_at, so an existing row keeps the time it was first stored.
+  private static void bindInsert(PreparedStatement ps, PostPaymentResponse payment,
+      long createdAt) throws SQLException {
+    bind(ps, payment);
+    ps.setLong(8, createdAt);
+  }
+
+  // Same parameter order for INSERT and UPDATE up to the id, which ends the UPDATE.
+  private static void bind(PreparedStatement ps, PostPaymentResponse payment)
+      throws SQLException {
+    ps.setString(1, payment.getStatus().name());
+    ps.setInt(2, payment.getCardNumberLastFour());
+    ps.setInt(3, payment.getExpiryMonth());
+    ps.setInt(4, payment.getExpiryYear());
+    ps.setString(5, payment.getCurrency());
+    ps.setInt(6, payment.getAmount());
+    ps.setBytes(7, toBytes(payment.getId()));
+  }
+
+  private static PostPaymentResponse toPayment(UUID id, ResultSet rs) throws SQLException {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(id);
+    payment.setStatus(PaymentStatus.valueOf(rs.getString(1)));
+    payment.setCardNumberLastFour(rs.getInt(2));
+    payment.setExpiryMonth(rs.getInt(3));
+    payment.setExpiryYear(rs.getInt(4));
+    payment.setCurrency(rs.getString(5));
+    payment.setAmount(rs.getInt(6));
+    return payment;
+  }
+
+  private static byte[] toBytes(UUID id) {
+    return ByteBuffer.allocate(16)
+        .putLong(id.getMostSignificantBits())
+        .putLong(id.getLeastSignificantBits())
+        .array();
+  }
+
+  private static UUID fromBytes(byte[] bytes) {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    return new UUID(buffer.getLong(), buffer.getLong());
+  }
+}
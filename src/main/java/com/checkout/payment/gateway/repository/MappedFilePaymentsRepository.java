@@ -0,0 +1,343 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.exception.PaymentStoreFullException;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Durable payment store that appends fixed-width records to a memory-mapped log file. Each record
+ * is a {@link CompactPaymentRecord} followed by its CRC32C, so a record torn by a crash is
+ * detected and dropped when the log is reopened.
+ *
+ * <p>Payments are found through an off-heap open-addressing index of record numbers, sized for
+ * the configured capacity and rebuilt by scanning the log on startup. Appends are serialised;
+ * reads take no lock and see a record once its index entry has been published.
+ *
+ * <p>Records are appended in the order they were stored, so {@link #find} locates the start of a
+ * time window by binary search over record numbers and stops at its end, filtering on status and
+ * currency before a record is decoded.
+ *
+ * <p>The log holds {@code capacity} records and is not rolled over, so it must be sized for the
+ * payments the instance will ever store. It reports itself {@linkplain #isFull() full}, so that
+ * new payments are turned away before reaching the bank, once fewer than {@code headroom} records
+ * are left; those are kept for payments that were already at the bank.
+ *
+ * <p>A record is in the page cache once {@link #add} returns, so it survives the process crashing.
+ * It only reaches the disk when the operating system writes the page back, though, so a power
+ * failure or kernel crash can lose payments that were acknowledged, unless
+ * {@code payments.repository.mapped.sync-writes=true} forces each record to disk before
+ * {@link #add} returns, at the cost of a disk flush per payment.
+ */
+@Repository
+@Qualifier(PaymentsRepository.STORE)
+@ConditionalOnProperty(name = "payments.repository.type", havingValue = "mapped")
+public class MappedFilePaymentsRepository implements PaymentsRepository, AutoCloseable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(MappedFilePaymentsRepository.class);
+
+  private static final long MAGIC = 0x5041594C4F473031L; // "PAYLOG01"
+  private static final int HEADER_BYTES = 16;
+  private static final int PAYLOAD_BYTES = CompactPaymentRecord.LONGS * Long.BYTES;
+  private static final int RECORD_BYTES = PAYLOAD_BYTES + Long.BYTES;
+  private static final VarHandle INDEX_ENTRY =
+      MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+  private final FileChannel channel;
+  private final MappedByteBuffer log;
+  private final ByteBuffer index;
+  private final int indexMask;
+  private final int capacity;
+  private final int headroom;
+  private final boolean syncWrites;
+  private final Clock clock;
+  private final ReentrantLock appendLock = new ReentrantLock();
+  private volatile int recordCount;
+  private volatile int size;
+  private long lastStoredAt = Long.MIN_VALUE;
+
+  public MappedFilePaymentsRepository(
+      @Value("${payments.repository.mapped.path:data/payments.log}") Path path,
+      @Value("${payments.repository.mapped.capacity:1000000}") int capacity,
+      @Value("${payments.repository.mapped.headroom:1024}") int headroom,
+      @Value("${payments.repository.mapped.sync-writes:false}") boolean syncWrites,
+      Clock clock, MeterRegistry meterRegistry) throws IOException {
+    if (capacity < 1 || capacity > (Integer.MAX_VALUE - HEADER_BYTES) / RECORD_BYTES) {
+      throw new IllegalArgumentException("Payment log capacity out of range: " + capacity);
+    }
+    if (headroom < 0 || headroom >= capacity) {
+      throw new IllegalArgumentException("Payment log headroom out of range: " + headroom);
+    }
+    this.capacity = capacity;
+    this.headroom = headroom;
+    this.syncWrites = syncWrites;
+    this.clock = clock;
+
+    if (path.getParent() != null) {
+      Files.createDirectories(path.getParent());
+    }
+    this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    long mappedBytes = HEADER_BYTES + (long) capacity * RECORD_BYTES;
+    if (channel.size() > mappedBytes) {
+      channel.close();
+      throw new IllegalStateException(
+          "Payment log " + path + " holds more records than the configured capacity");
+    }
+    this.log = channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedBytes);
+    checkHeader(path);
+
+    int indexSlots = Integer.highestOneBit(capacity) << 2;
+    this.index = ByteBuffer.allocateDirect(indexSlots * Integer.BYTES)
+        .order(ByteOrder.nativeOrder());
+    this.indexMask = indexSlots - 1;
+    recover(path);
+
+    Gauge.builder("payments.repository.size", this, repository -> repository.size)
+        .description("Number of payments currently held in the repository")
+        .register(meterRegistry);
+    Gauge.builder("payments.repository.mapped.records.free", this,
+            repository -> repository.capacity - repository.recordCount)
+        .description("Records the payment log has room for")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public void add(PostPaymentResponse payment) {
+    long[] record = new long[CompactPaymentRecord.LONGS];
+    CompactPaymentRecord.encode(payment, clock.millis(), record, 0);
+    int hash = CompactPaymentRecord.hash(record[0], record[1]);
+
+    appendLock.lock();
+    try {
+      int recordNumber = recordCount;
+      if (recordNumber == capacity) {
+        throw new PaymentStoreFullException("Payment log is full, headroom included");
+      }
+      // Kept in time order even if the clock steps back or writers reach the lock out of order.
+      lastStoredAt = Math.max(lastStoredAt, record[CompactPaymentRecord.STORED_AT_WORD]);
+      record[CompactPaymentRecord.STORED_AT_WORD] = lastStoredAt;
+      int offset = offsetOf(recordNumber);
+      for (int i = 0; i < record.length; i++) {
+        log.putLong(offset + i * Long.BYTES, record[i]);
+      }
+      log.putLong(offset + PAYLOAD_BYTES, checksum(offset));
+      if (syncWrites) {
+        log.force(offset, RECORD_BYTES);
+      }
+      recordCount = recordNumber + 1;
+      index(hash, record[0], record[1], recordNumber);
+    } finally {
+      appendLock.unlock();
+    }
+  }
+
+  @Override
+  public Optional<PostPaymentResponse> get(UUID id) {
+    long mostSigBits = id.getMostSignificantBits();
+    long leastSigBits = id.getLeastSignificantBits();
+    int slot = find(CompactPaymentRecord.hash(mostSigBits, leastSigBits), mostSigBits,
+        leastSigBits);
+    if (slot < 0) {
+      return Optional.empty();
+    }
+    return Optional.of(read(entryAt(slot) - 1));
+  }
+
+  @Override
+  public Stream<PostPaymentResponse> find(PaymentQuery query) {
+    long detailsMask = CompactPaymentRecord.detailsMask(query.status(), query.currency());
+    long detailsValue = CompactPaymentRecord.detailsValue(query.status(), query.currency());
+    long toMillis = query.toMillis();
+    return IntStream.range(firstStoredAtOrAfter(query.fromMillis()), recordCount)
+        .takeWhile(recordNumber -> storedAt(recordNumber) < toMillis)
+        .filter(recordNumber -> CompactPaymentRecord.matches(
+            log.getLong(offsetOf(recordNumber) + CompactPaymentRecord.DETAILS_WORD * Long.BYTES),
+            detailsMask, detailsValue))
+        .filter(this::isLatest)
+        .mapToObj(this::read);
+  }
+
+  @Override
+  public boolean isFull() {
+    return recordCount >= capacity - headroom;
+  }
+
+  @Override
+  public long remainingCapacity() {
+    return Math.max(0, capacity - headroom - recordCount);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public void close() throws IOException {
+    appendLock.lock();
+    try {
+      if (channel.isOpen()) {
+        log.force();
+        channel.close();
+      }
+    } finally {
+      appendLock.unlock();
+    }
+  }
+
+  private PostPaymentResponse read(int recordNumber) {
+    int offset = offsetOf(recordNumber);
+    long[] record = new long[CompactPaymentRecord.LONGS];
+    for (int i = 0; i < record.length; i++) {
+      record[i] = log.getLong(offset + i * Long.BYTES);
+    }
+    return CompactPaymentRecord.decode(record, 0);
+  }
+
+  private long storedAt(int recordNumber) {
+    return log.getLong(offsetOf(recordNumber) + CompactPaymentRecord.STORED_AT_WORD * Long.BYTES);
+  }
+
+  // A payment written again is appended again; only its last record is current.
+  private boolean isLatest(int recordNumber) {
+    int offset = offsetOf(recordNumber);
+    long mostSigBits = log.getLong(offset);
+    long leastSigBits = log.getLong(offset + Long.BYTES);
+    int slot = find(CompactPaymentRecord.hash(mostSigBits, leastSigBits), mostSigBits,
+        leastSigBits);
+    return slot >= 0 && entryAt(slot) == recordNumber + 1;
+  }
+
+  private int firstStoredAtOrAfter(long millis) {
+    int low = 0;
+    int high = recordCount;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (storedAt(middle) < millis) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private void checkHeader(Path path) {
+    long magic = log.getLong(0);
+    if (magic == 0) {
+      log.putLong(0, MAGIC);
+      log.putInt(Long.BYTES, RECORD_BYTES);
+      log.force(0, HEADER_BYTES);
+    } else if (magic != MAGIC || log.getInt(Long.BYTES) != RECORD_BYTES) {
+      throw new IllegalStateException(path + " is not a payment log in the expected format");
+    }
+  }
+
+  // Rebuilds the index from the log; a later record for the same id replaces the earlier one.
+  private void recover(Path path) {
+    int recordNumber = 0;
+    while (recordNumber < capacity && isIntact(offsetOf(recordNumber))) {
+      int offset = offsetOf(recordNumber);
+      long mostSigBits = log.getLong(offset);
+      long leastSigBits = log.getLong(offset + Long.BYTES);
+      index(CompactPaymentRecord.hash(mostSigBits, leastSigBits), mostSigBits, leastSigBits,
+          recordNumber);
+      lastStoredAt = Math.max(lastStoredAt, storedAt(recordNumber));
+      recordNumber++;
+    }
+    recordCount = recordNumber;
+
+    // Anything after the first broken record was never acknowledged as durable: clear it so it
+    // cannot resurface once the slots before it are rewritten.
+    int discarded = 0;
+    for (int next = recordNumber; next < capacity && !isBlank(offsetOf(next)); next++) {
+      for (int i = 0; i < RECORD_BYTES; i += Long.BYTES) {
+        log.putLong(offsetOf(next) + i, 0L);
+      }
+      discarded++;
+    }
+    if (discarded > 0) {
+      log.force();
+      LOG.warn("Discarded {} incomplete records at the end of {}", discarded, path);
+    }
+    LOG.info("Recovered {} payments from {}", size, path);
+  }
+
+  private void index(int hash, long mostSigBits, long leastSigBits, int recordNumber) {
+    int slot = find(hash, mostSigBits, leastSigBits);
+    if (slot < 0) {
+      slot = hash & indexMask;
+      while (entryAt(slot) != 0) {
+        slot = (slot + 1) & indexMask;
+      }
+      size++;
+    }
+    INDEX_ENTRY.setRelease(index, slot * Integer.BYTES, recordNumber + 1);
+  }
+
+  private int find(int hash, long mostSigBits, long leastSigBits) {
+    for (int slot = hash & indexMask; ; slot = (slot + 1) & indexMask) {
+      int entry = entryAt(slot);
+      if (entry == 0) {
+        return -1;
+      }
+      int offset = offsetOf(entry - 1);
+      if (log.getLong(offset) == mostSigBits && log.getLong(offset + Long.BYTES) == leastSigBits) {
+        return slot;
+      }
+    }
+  }
+
+  private int entryAt(int slot) {
+    return (int) INDEX_ENTRY.getAcquire(index, slot * Integer.BYTES);
+  }
+
+  private boolean isIntact(int offset) {
+    long stored = log.getLong(offset + PAYLOAD_BYTES);
+    return stored != 0 && stored == checksum(offset);
+  }
+
+  private boolean isBlank(int offset) {
+    for (int i = 0; i < RECORD_BYTES; i += Long.BYTES) {
+      if (log.getLong(offset + i) != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private long checksum(int offset) {
+    CRC32C crc = new CRC32C();
+    crc.update(log.slice(offset, PAYLOAD_BYTES));
+    // Offset the checksum so that a zero-filled slot can never look like a valid record.
+    return crc.getValue() | 1L << 32;
+  }
+
+  private static int offsetOf(int recordNumber) {
+    return HEADER_BYTES + recordNumber * RECORD_BYTES;
+  }
+}
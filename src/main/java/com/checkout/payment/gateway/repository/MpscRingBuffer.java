@@ -0,0 +1,60 @@
+package com.checkout.payment.gateway.repository;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer. Producers claim a slot by
+ * advancing {@code producerIndex} with a CAS and then publish the element into it; the consumer
+ * treats a claimed slot that is still empty as the end of the queue until its producer catches up.
+ */
+final class MpscRingBuffer<E> {
+
+  private final AtomicReferenceArray<E> slots;
+  private final int mask;
+  private final AtomicLong producerIndex = new AtomicLong();
+  private final AtomicLong consumerIndex = new AtomicLong();
+
+  MpscRingBuffer(int capacity) {
+    if (capacity < 2 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("Ring buffer capacity out of range: " + capacity);
+    }
+    int slotCount = Integer.highestOneBit(capacity - 1) << 1;
+    this.slots = new AtomicReferenceArray<>(slotCount);
+    this.mask = slotCount - 1;
+  }
+
+  /** Adds {@code element} unless the buffer is full. Safe to call from any thread. */
+  boolean offer(E element) {
+    long index;
+    do {
+      index = producerIndex.get();
+      if (index - consumerIndex.get() >= slots.length()) {
+        return false;
+      }
+    } while (!producerIndex.compareAndSet(index, index + 1));
+    slots.lazySet((int) index & mask, element);
+    return true;
+  }
+
+  /** Removes the oldest published element, or returns null. Consumer thread only. */
+  E poll() {
+    long index = consumerIndex.get();
+    int slot = (int) index & mask;
+    E element = slots.get(slot);
+    if (element == null) {
+      return null;
+    }
+    slots.lazySet(slot, null);
+    consumerIndex.lazySet(index + 1);
+    return element;
+  }
+
+  int size() {
+    return (int) Math.max(0, producerIndex.get() - consumerIndex.get());
+  }
+
+  int capacity() {
+    return slots.length();
+  }
+}
@@ -0,0 +1,35 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Filter for {@link PaymentsRepository#find}. A {@code null} component matches any payment; the
+ * time window covers payments stored at or after {@code from} and before {@code to}. The currency
+ * is upper-cased, as it is on payments when they are stored.
+ */
+public record PaymentQuery(PaymentStatus status, String currency, Instant from, Instant to) {
+
+  public static final PaymentQuery ALL = new PaymentQuery(null, null, null, null);
+
+  public PaymentQuery {
+    if (currency != null && currency.length() != 3) {
+      throw new IllegalArgumentException("Currency must be a 3 letter code: " + currency);
+    }
+    if (currency != null) {
+      currency = currency.toUpperCase(Locale.ROOT);
+    }
+    if (from != null && to != null && to.isBefore(from)) {
+      throw new IllegalArgumentException("Query window ends before it starts");
+    }
+  }
+
+  long fromMillis() {
+    return from == null ? Long.MIN_VALUE : from.toEpochMilli();
+  }
+
+  long toMillis() {
+    return to == null ? Long.MAX_VALUE : to.toEpochMilli();
+  }
+}
@@ -1,22 +1,59 @@
 package com.checkout.payment.gateway.repository;
 
 import com.checkout.payment.gateway.model.PostPaymentResponse;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.UUID;
-import org.springframework.stereotype.Repository;
+import java.util.stream.Stream;
 
-@Repository
-public class PaymentsRepository {
+/**
+ * Store for processed payments. The implementation is chosen with
+ * {@code payments.repository.type}: {@code memory} (default), {@code mapped} or {@code jdbc}.
+ * That store is qualified as {@value #STORE}; the primary repository that the rest of the
+ * application sees is the store wrapped in whichever of {@link WriteBehindPaymentsRepository}
+ * and {@link CachingPaymentsRepository} are enabled.
+ */
+public interface PaymentsRepository {
 
-  private final HashMap<UUID, PostPaymentResponse> payments = new HashMap<>();
+  String STORE = "paymentStore";
 
-  public void add(PostPaymentResponse payment) {
-    payments.put(payment.getId(), payment);
+  void add(PostPaymentResponse payment);
+
+  /** Stores a batch of payments. Stores that can write a batch in one go should override this. */
+  default void addAll(Collection<PostPaymentResponse> payments) {
+    payments.forEach(this::add);
+  }
+
+  Optional<PostPaymentResponse> get(UUID id);
+
+  /**
+   * Payments matching {@code query}, in no particular order. The stream is read lazily from the
+   * store, so it may hold store resources until closed; payments written while it is being read
+   * may or may not be included.
+   */
+  Stream<PostPaymentResponse> find(PaymentQuery query);
+
+  /**
+   * Whether the store has stopped taking new payments. Checked before a payment goes to the bank,
+   * so that the customer is not charged for a payment that could not be kept.
+   */
+  default boolean isFull() {
+    return false;
   }
 
-  public Optional<PostPaymentResponse> get(UUID id) {
-    return Optional.ofNullable(payments.get(id));
+  /**
+   * How many more payments the store can take before it reports itself {@linkplain #isFull()
+   * full}; {@link Long#MAX_VALUE} for a store that is not bounded that way.
+   */
+  default long remainingCapacity() {
+    return Long.MAX_VALUE;
   }
 
+  /**
+   * Whether other gateway instances write to the same store, so that it can hold payments this
+   * instance never saw. Layers over a store answer for the store.
+   */
+  default boolean isShared() {
+    return false;
+  }
 }
@@ -0,0 +1,147 @@
+package com.checkout.payment.gateway.repository;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bloom filter over payment ids that answers "definitely never added" or "possibly added", and
+ * grows as it fills: once a segment has taken the number of ids it was sized for, a new segment
+ * twice as large with half the false-positive rate takes the ids that follow (Almeida et al.,
+ * "Scalable Bloom Filters"). Up to {@code expectedInsertions} ids the false-positive rate is
+ * {@code falsePositiveRate}; however many follow, it stays below twice that.
+ *
+ * <p>Adds and lookups may run concurrently from any number of threads without locking: bits are
+ * set with an atomic OR, so an id whose {@link #add} has returned is seen by every later
+ * {@link #mightContain}. Only adding a segment takes a lock.
+ */
+public class ScalableBloomFilter {
+
+  private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+  private static final double LN2 = Math.log(2);
+  // Bit indexes are taken from 32-bit hashes, so a segment is at most 2^32 bits (512 MiB).
+  private static final long MAX_BITS = 1L << 32;
+
+  private final double falsePositiveRate;
+  private volatile Segment[] segments;
+
+  public ScalableBloomFilter(long expectedInsertions, double falsePositiveRate) {
+    if (expectedInsertions < 1) {
+      throw new IllegalArgumentException("Expected insertions must be positive");
+    }
+    if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+      throw new IllegalArgumentException("False-positive rate must be between 0 and 1");
+    }
+    this.falsePositiveRate = falsePositiveRate;
+    this.segments = new Segment[] {new Segment(expectedInsertions, falsePositiveRate)};
+  }
+
+  public void add(UUID id) {
+    long hash = hash(id);
+    Segment[] current = segments;
+    Segment last = current[current.length - 1];
+    last.add(hash);
+    if (last.isFull(hash)) {
+      grow(last);
+    }
+  }
+
+  public boolean mightContain(UUID id) {
+    long hash = hash(id);
+    for (Segment segment : segments) {
+      if (segment.mightContain(hash)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Size of the bit arrays, in bytes. */
+  public long sizeInBytes() {
+    return Arrays.stream(segments).mapToLong(segment -> segment.words.length * 8L).sum();
+  }
+
+  private synchronized void grow(Segment full) {
+    Segment[] current = segments;
+    if (current[current.length - 1] != full) {
+      return;
+    }
+    Segment next = new Segment(full.capacity * 2,
+        falsePositiveRate / (1L << Math.min(current.length, 62)));
+    Segment[] grown = Arrays.copyOf(current, current.length + 1);
+    grown[current.length] = next;
+    segments = grown;
+  }
+
+  // UUIDs from TimeOrderedPaymentIdGenerator share most of their high bits, so both halves are
+  // mixed in before the hash is split into the two that index the bits.
+  private static long hash(UUID id) {
+    return mix(id.getMostSignificantBits() ^ mix(id.getLeastSignificantBits()));
+  }
+
+  // MurmurHash3's 64-bit finaliser.
+  private static long mix(long value) {
+    value ^= value >>> 33;
+    value *= 0xff51afd7ed558ccdL;
+    value ^= value >>> 33;
+    value *= 0xc4ceb9fe1a85ec53L;
+    return value ^ (value >>> 33);
+  }
+
+  private static final class Segment {
+
+    private final long capacity;
+    private final long[] words;
+    private final long bits;
+    private final int hashes;
+    private final LongAdder insertions = new LongAdder();
+    // Summing the adder on every add would make it as contended as an AtomicLong, so only adds
+    // whose hash has these bits clear check it; the segment overfills by about 1/1000 of its
+    // capacity, which keeps its false-positive rate within a few percent of the one it was sized
+    // for.
+    private final long checkMask;
+
+    Segment(long capacity, double falsePositiveRate) {
+      long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (LN2 * LN2));
+      int wordCount = (int) Math.max(1, (Math.min(optimalBits, MAX_BITS) + 63) >>> 6);
+      this.capacity = capacity;
+      this.words = new long[wordCount];
+      this.bits = wordCount * 64L;
+      this.hashes = (int) Math.max(1, Math.round((double) bits / capacity * LN2));
+      this.checkMask = Math.min(1023, Long.highestOneBit(Math.max(1, capacity >> 10)) - 1);
+    }
+
+    void add(long hash) {
+      int h1 = (int) hash;
+      int h2 = (int) (hash >>> 32);
+      for (int i = 0; i < hashes; i++) {
+        long bit = index(h1 + i * h2);
+        WORDS.getAndBitwiseOr(words, (int) (bit >>> 6), 1L << bit);
+      }
+      insertions.increment();
+    }
+
+    boolean mightContain(long hash) {
+      int h1 = (int) hash;
+      int h2 = (int) (hash >>> 32);
+      for (int i = 0; i < hashes; i++) {
+        long bit = index(h1 + i * h2);
+        if (((long) WORDS.getAcquire(words, (int) (bit >>> 6)) & (1L << bit)) == 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    boolean isFull(long hash) {
+      return (hash & checkMask) == 0 && insertions.sum() >= capacity;
+    }
+
+    // Maps a 32-bit hash onto [0, bits) with a multiply instead of a division (Lemire).
+    private long index(int hash) {
+      return ((hash & 0xFFFFFFFFL) * bits) >>> 32;
+    }
+  }
+}
@@ -0,0 +1,230 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.exception.PaymentStoreFullException;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Takes payment writes off the request thread. {@link #add} parks the payment in a pending map,
+ * where {@link #get} finds it straight away, and queues it on an {@link MpscRingBuffer}. A single
+ * writer thread drains the queue and hands the store batches of up to {@code batch-size}
+ * payments, at least every {@code flush-interval} while there is anything to write. Payments
+ * leave the pending map once the store has them.
+ *
+ * <p>When the queue is full, writers wait for the writer thread to make room, so a slow store
+ * slows requests down rather than losing payments. A batch the store rejects is retried until it
+ * succeeds, and {@link #close} flushes whatever is still queued; payments added once closing has
+ * started are written straight to the store instead.
+ *
+ * <p>Payments not yet written count against the store's {@linkplain #remainingCapacity() room},
+ * so new payments are turned away while the store can still take everything already accepted. A
+ * batch the store has no room for is not retried: it stays readable from the pending map until
+ * shutdown, is counted in {@code payments.repository.write-behind.unwritten}, and the repository
+ * reports itself full from then on. Enabled with
+ * {@code payments.repository.write-behind.enabled=true} on top of any
+ * {@code payments.repository.type}; see {@code PaymentsRepositoryConfiguration}.
+ */
+public class WriteBehindPaymentsRepository implements PaymentsRepository, AutoCloseable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(WriteBehindPaymentsRepository.class);
+
+  private static final long BACKPRESSURE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+  private static final long MAX_RETRY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final PaymentsRepository store;
+  private final MpscRingBuffer<PostPaymentResponse> queue;
+  private final Map<UUID, PostPaymentResponse> pending = new ConcurrentHashMap<>();
+  private final int batchSize;
+  private final long flushIntervalNanos;
+  private final Thread writer;
+  private final Timer flushLatency;
+  private final DistributionSummary batchSizes;
+  private final Counter flushFailures;
+  private final Counter backpressureWaits;
+  private final Counter unwritten;
+  private final AtomicInteger enqueuing = new AtomicInteger();
+  private volatile boolean running = true;
+  private volatile boolean stopping;
+  private volatile boolean storeFull;
+
+  public WriteBehindPaymentsRepository(PaymentsRepository store, int capacity, int batchSize,
+      Duration flushInterval, MeterRegistry meterRegistry) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Write-behind batch size must be positive");
+    }
+    this.store = store;
+    this.queue = new MpscRingBuffer<>(capacity);
+    this.batchSize = batchSize;
+    this.flushIntervalNanos = flushInterval.toNanos();
+
+    Gauge.builder("payments.repository.write-behind.queue.depth", queue, MpscRingBuffer::size)
+        .description("Payments queued for the store")
+        .register(meterRegistry);
+    Gauge.builder("payments.repository.write-behind.pending", pending, Map::size)
+        .description("Payments accepted but not yet confirmed by the store")
+        .register(meterRegistry);
+    this.flushLatency = Timer.builder("payments.repository.write-behind.flush")
+        .description("Time for the store to accept a batch of payments")
+        .publishPercentiles(0.5, 0.99)
+        .register(meterRegistry);
+    this.batchSizes = DistributionSummary.builder("payments.repository.write-behind.batch.size")
+        .register(meterRegistry);
+    this.flushFailures = Counter.builder("payments.repository.write-behind.flush.failures")
+        .register(meterRegistry);
+    this.backpressureWaits = Counter.builder("payments.repository.write-behind.backpressure")
+        .description("Writes that had to wait for room in the queue")
+        .register(meterRegistry);
+    this.unwritten = Counter.builder("payments.repository.write-behind.unwritten")
+        .description("Payments the store had no room for")
+        .register(meterRegistry);
+
+    this.writer = Thread.ofPlatform().name("payments-write-behind").daemon()
+        .start(this::drain);
+  }
+
+  @Override
+  public void add(PostPaymentResponse payment) {
+    // Announced before running is read, so that close() either sees this write coming and waits
+    // for it to be queued, or this write sees close() and bypasses the queue.
+    enqueuing.incrementAndGet();
+    try {
+      if (!running) {
+        store.add(payment);
+        return;
+      }
+      pending.put(payment.getId(), payment);
+      if (!queue.offer(payment)) {
+        backpressureWaits.increment();
+        do {
+          LockSupport.unpark(writer);
+          LockSupport.parkNanos(BACKPRESSURE_PARK_NANOS);
+        } while (!queue.offer(payment));
+      }
+      if (queue.size() >= batchSize) {
+        LockSupport.unpark(writer);
+      }
+    } finally {
+      enqueuing.decrementAndGet();
+    }
+  }
+
+  @Override
+  public Optional<PostPaymentResponse> get(UUID id) {
+    PostPaymentResponse payment = pending.get(id);
+    return payment != null ? Optional.of(payment) : store.get(id);
+  }
+
+  /** Queries the store, so payments still queued for it are not found until they are flushed. */
+  @Override
+  public Stream<PostPaymentResponse> find(PaymentQuery query) {
+    return store.find(query);
+  }
+
+  @Override
+  public boolean isFull() {
+    return storeFull || store.isFull() || remainingCapacity() == 0;
+  }
+
+  /** The store's room less the payments accepted but not yet written to it. */
+  @Override
+  public long remainingCapacity() {
+    return Math.max(0, store.remainingCapacity() - pending.size());
+  }
+
+  @Override
+  public boolean isShared() {
+    return store.isShared();
+  }
+
+  /**
+   * Stops queueing payments and returns once everything queued has reached the store. Payments
+   * added from now on are written straight to the store.
+   */
+  @Override
+  public void close() throws InterruptedException {
+    running = false;
+    // The writer keeps draining meanwhile, so writes waiting for room in the queue get it.
+    while (enqueuing.get() > 0) {
+      LockSupport.unpark(writer);
+      LockSupport.parkNanos(BACKPRESSURE_PARK_NANOS);
+    }
+    stopping = true;
+    LockSupport.unpark(writer);
+    writer.join();
+  }
+
+  private void drain() {
+    List<PostPaymentResponse> batch = new ArrayList<>(batchSize);
+    long batchStartedAt = 0;
+    while (true) {
+      boolean stopping = this.stopping;
+      PostPaymentResponse payment;
+      while (batch.size() < batchSize && (payment = queue.poll()) != null) {
+        if (batch.isEmpty()) {
+          batchStartedAt = System.nanoTime();
+        }
+        batch.add(payment);
+      }
+      if (batch.isEmpty()) {
+        if (stopping) {
+          return;
+        }
+        LockSupport.parkNanos(this, flushIntervalNanos);
+        continue;
+      }
+      long waited = System.nanoTime() - batchStartedAt;
+      if (batch.size() < batchSize && waited < flushIntervalNanos && !stopping) {
+        LockSupport.parkNanos(this, flushIntervalNanos - waited);
+        continue;
+      }
+      flush(batch);
+      batch.clear();
+    }
+  }
+
+  private void flush(List<PostPaymentResponse> batch) {
+    long backoffNanos = flushIntervalNanos;
+    while (true) {
+      long startedAt = System.nanoTime();
+      try {
+        store.addAll(batch);
+        flushLatency.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        batchSizes.record(batch.size());
+        break;
+      } catch (PaymentStoreFullException e) {
+        // Retrying cannot make room, and would hold up every later batch and close() for good.
+        storeFull = true;
+        flushFailures.increment();
+        unwritten.increment(batch.size());
+        LOG.error("Store is full, {} payments were not written", batch.size(), e);
+        return;
+      } catch (RuntimeException e) {
+        flushFailures.increment();
+        LOG.error("Failed to write {} payments, retrying", batch.size(), e);
+        LockSupport.parkNanos(this, backoffNanos);
+        backoffNanos = Math.min(MAX_RETRY_NANOS, backoffNanos * 2);
+      }
+    }
+    for (PostPaymentResponse payment : batch) {
+      // A newer write for the same payment stays pending until its own batch lands.
+      pending.remove(payment.getId(), payment);
+    }
+  }
+}
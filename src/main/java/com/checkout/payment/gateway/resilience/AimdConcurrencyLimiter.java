@@ -0,0 +1,96 @@
+package com.checkout.payment.gateway.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+
+/**
+ * Additive-increase/multiplicative-decrease limit on concurrent calls. Each call that succeeds
+ * within {@code latencyThreshold} while the limit is in use grows the limit by {@code 1/limit},
+ * about one extra slot per limit's worth of calls; a failed or slower call shrinks it by
+ * {@code backoffRatio}. Calls over the limit are refused straight away rather than queued.
+ *
+ * <p>Publishes {@code concurrency.limit}, {@code concurrency.in.flight} and
+ * {@code concurrency.rejections}, all tagged with the limiter's {@code name}.
+ */
+public class AimdConcurrencyLimiter {
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final long latencyThresholdNanos;
+  private final double backoffRatio;
+  private final Counter rejections;
+
+  private double limit;
+  private int inFlight;
+
+  public AimdConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+      Duration latencyThreshold, double backoffRatio, MeterRegistry meterRegistry) {
+    if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+      throw new IllegalArgumentException("Concurrency limits for " + name
+          + " must satisfy 1 <= min <= initial <= max");
+    }
+    if (backoffRatio <= 0 || backoffRatio >= 1) {
+      throw new IllegalArgumentException("Backoff ratio must be between 0 and 1");
+    }
+    this.limit = initialLimit;
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.latencyThresholdNanos = latencyThreshold.toNanos();
+    this.backoffRatio = backoffRatio;
+    this.rejections = Counter.builder("concurrency.rejections")
+        .tag("name", name)
+        .register(meterRegistry);
+    Gauge.builder("concurrency.limit", this, AimdConcurrencyLimiter::limit)
+        .tag("name", name)
+        .register(meterRegistry);
+    Gauge.builder("concurrency.in.flight", this, AimdConcurrencyLimiter::inFlight)
+        .tag("name", name)
+        .register(meterRegistry);
+  }
+
+  /**
+   * Asks to start a call. Every {@code true} must be followed by exactly one of
+   * {@link #onSuccess(long)}, {@link #onDropped()} or {@link #onIgnored()}.
+   */
+  public synchronized boolean tryAcquire() {
+    if (inFlight >= (int) limit) {
+      rejections.increment();
+      return false;
+    }
+    inFlight++;
+    return true;
+  }
+
+  public synchronized void onSuccess(long latencyNanos) {
+    boolean limitInUse = inFlight * 2 >= limit;
+    inFlight--;
+    if (latencyNanos > latencyThresholdNanos) {
+      backOff();
+    } else if (limitInUse) {
+      limit = Math.min(maxLimit, limit + 1 / limit);
+    }
+  }
+
+  public synchronized void onDropped() {
+    inFlight--;
+    backOff();
+  }
+
+  public synchronized void onIgnored() {
+    inFlight--;
+  }
+
+  public synchronized int limit() {
+    return (int) limit;
+  }
+
+  public synchronized int inFlight() {
+    return inFlight;
+  }
+
+  private void backOff() {
+    limit = Math.max(minLimit, limit * backoffRatio);
+  }
+}
@@ -0,0 +1,163 @@
+package com.checkout.payment.gateway.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Count-based circuit breaker. While closed it keeps the outcome of the last {@code windowSize}
+ * calls and opens once at least {@code minimumCalls} have been recorded and the failure rate
+ * reaches {@code failureRateThreshold} percent. An open breaker refuses calls for
+ * {@code openDuration}, then lets {@code halfOpenCalls} trial calls through: all of them must
+ * succeed to close it again, and any failure re-opens it.
+ *
+ * <p>Publishes {@code circuit.breaker.state} (0 closed, 1 open, 2 half-open),
+ * {@code circuit.breaker.transitions} tagged {@code from}/{@code to}, and
+ * {@code circuit.breaker.rejections}, all tagged with the breaker's {@code name}.
+ */
+public class CircuitBreaker {
+
+  public enum State {
+    CLOSED, OPEN, HALF_OPEN
+  }
+
+  private final String name;
+  private final int minimumCalls;
+  private final int failureRateThreshold;
+  private final long openDurationMillis;
+  private final int halfOpenCalls;
+  private final Clock clock;
+  private final MeterRegistry meterRegistry;
+  private final Counter rejections;
+
+  private final boolean[] window;
+  private int windowNext;
+  private int windowCalls;
+  private int windowFailures;
+
+  private State state = State.CLOSED;
+  private long openedAt;
+  private int halfOpenPermits;
+  private int halfOpenSuccesses;
+
+  public CircuitBreaker(String name, int windowSize, int minimumCalls, int failureRateThreshold,
+      Duration openDuration, int halfOpenCalls, Clock clock, MeterRegistry meterRegistry) {
+    if (windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize || halfOpenCalls < 1) {
+      throw new IllegalArgumentException("Invalid circuit breaker window for " + name);
+    }
+    if (failureRateThreshold < 1 || failureRateThreshold > 100) {
+      throw new IllegalArgumentException("Failure rate threshold must be between 1 and 100");
+    }
+    this.name = name;
+    this.window = new boolean[windowSize];
+    this.minimumCalls = minimumCalls;
+    this.failureRateThreshold = failureRateThreshold;
+    this.openDurationMillis = openDuration.toMillis();
+    this.halfOpenCalls = halfOpenCalls;
+    this.clock = clock;
+    this.meterRegistry = meterRegistry;
+    this.rejections = Counter.builder("circuit.breaker.rejections")
+        .tag("name", name)
+        .register(meterRegistry);
+    Gauge.builder("circuit.breaker.state", this, breaker -> breaker.state().ordinal())
+        .tag("name", name)
+        .register(meterRegistry);
+  }
+
+  /**
+   * Asks to make a call. Every {@code true} must be followed by exactly one of
+   * {@link #onSuccess()}, {@link #onFailure()} or {@link #onIgnored()}.
+   */
+  public synchronized boolean tryAcquire() {
+    if (state == State.OPEN) {
+      if (clock.millis() - openedAt < openDurationMillis) {
+        rejections.increment();
+        return false;
+      }
+      transitionTo(State.HALF_OPEN);
+    }
+    if (state == State.HALF_OPEN) {
+      if (halfOpenPermits == 0) {
+        rejections.increment();
+        return false;
+      }
+      halfOpenPermits--;
+    }
+    return true;
+  }
+
+  public synchronized void onSuccess() {
+    if (state == State.HALF_OPEN) {
+      if (++halfOpenSuccesses == halfOpenCalls) {
+        transitionTo(State.CLOSED);
+      }
+    } else if (state == State.CLOSED) {
+      record(false);
+    }
+  }
+
+  public synchronized void onFailure() {
+    if (state == State.HALF_OPEN) {
+      transitionTo(State.OPEN);
+    } else if (state == State.CLOSED) {
+      record(true);
+      if (windowCalls >= minimumCalls
+          && windowFailures * 100 >= failureRateThreshold * windowCalls) {
+        transitionTo(State.OPEN);
+      }
+    }
+  }
+
+  /**
+   * Gives back a permit whose call finished without telling anything about the bank's health,
+   * for example because the caller cancelled it.
+   */
+  public synchronized void onIgnored() {
+    if (state == State.HALF_OPEN && halfOpenPermits + halfOpenSuccesses < halfOpenCalls) {
+      halfOpenPermits++;
+    }
+  }
+
+  public synchronized State state() {
+    return state;
+  }
+
+  private void record(boolean failure) {
+    if (windowCalls == window.length) {
+      if (window[windowNext]) {
+        windowFailures--;
+      }
+    } else {
+      windowCalls++;
+    }
+    window[windowNext] = failure;
+    if (failure) {
+      windowFailures++;
+    }
+    windowNext = (windowNext + 1) % window.length;
+  }
+
+  private void transitionTo(State next) {
+    Counter.builder("circuit.breaker.transitions")
+        .tag("name", name)
+        .tag("from", state.name().toLowerCase())
+        .tag("to", next.name().toLowerCase())
+        .register(meterRegistry)
+        .increment();
+    state = next;
+    switch (next) {
+      case OPEN -> openedAt = clock.millis();
+      case HALF_OPEN -> {
+        halfOpenPermits = halfOpenCalls;
+        halfOpenSuccesses = 0;
+      }
+      case CLOSED -> {
+        windowNext = 0;
+        windowCalls = 0;
+        windowFailures = 0;
+      }
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package com.checkout.payment.gateway.resilience;
+
+import java.time.Duration;
+
+/**
+ * Point in time by which a payment must be answered. Work done on its behalf, such as the bank
+ * call, should not be given longer than {@link #remaining()}.
+ */
+public final class Deadline {
+
+  private static final Deadline NONE = new Deadline(0, false);
+
+  private final long expiresAtNanos;
+  private final boolean bounded;
+
+  private Deadline(long expiresAtNanos, boolean bounded) {
+    this.expiresAtNanos = expiresAtNanos;
+    this.bounded = bounded;
+  }
+
+  public static Deadline after(Duration timeout) {
+    return new Deadline(System.nanoTime() + timeout.toNanos(), true);
+  }
+
+  /** No deadline: callers fall back to their own configured timeouts. */
+  public static Deadline none() {
+    return NONE;
+  }
+
+  public boolean isBounded() {
+    return bounded;
+  }
+
+  public boolean isExpired() {
+    return bounded && expiresAtNanos - System.nanoTime() <= 0;
+  }
+
+  /** Time left, never negative; only meaningful for a bounded deadline. */
+  public Duration remaining() {
+    return Duration.ofNanos(Math.max(0, expiresAtNanos - System.nanoTime()));
+  }
+
+  /** The shorter of {@code timeout} and the time left. */
+  public Duration cap(Duration timeout) {
+    if (!bounded) {
+      return timeout;
+    }
+    Duration remaining = remaining();
+    return remaining.compareTo(timeout) < 0 ? remaining : timeout;
+  }
+}
@@ -0,0 +1,164 @@
+package com.checkout.payment.gateway.routing;
+
+import com.checkout.payment.gateway.client.BankCallResult;
+import com.checkout.payment.gateway.client.BankCallResult.Outcome;
+import com.checkout.payment.gateway.client.BankClient;
+import com.checkout.payment.gateway.client.ReactiveBankClient;
+import com.checkout.payment.gateway.model.BankPaymentRequest;
+import com.checkout.payment.gateway.resilience.CircuitBreaker;
+import com.checkout.payment.gateway.resilience.Deadline;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import reactor.core.publisher.Mono;
+
+/**
+ * One acquiring bank the {@link AcquirerRouter} can send payments to: the currencies, in any
+ * case, and card BIN ranges it takes (any, when left empty), the clients that call it, and a
+ * live estimate of how quickly it answers.
+ *
+ * <p>The estimate is a peak-sensitive EWMA of call latency. A call slower than the estimate
+ * replaces it at once, a faster one is blended in with a weight that grows with the time since the
+ * previous call, and without calls the estimate decays towards zero over {@code latencyDecay}, so
+ * that an acquirer passed over for being slow is tried again later. A failed call counts as taking
+ * at least {@code failurePenalty}.
+ *
+ * <p>Publishes {@code bank.acquirer.calls} tagged with the {@code outcome} of each call,
+ * {@code bank.acquirer.latency} (the estimate) and {@code bank.acquirer.in.flight}, all tagged
+ * with the {@code acquirer} name.
+ */
+public class Acquirer {
+
+  private final String name;
+  private final Set<String> currencies;
+  private final List<CardBinRange> cardBins;
+  private final BankClient bankClient;
+  private final ReactiveBankClient reactiveBankClient;
+  private final double latencyDecayNanos;
+  private final long failurePenaltyNanos;
+  private final Map<Outcome, Timer> calls = new EnumMap<>(Outcome.class);
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  private double latencyNanos;
+  private long observedAt = System.nanoTime();
+
+  public Acquirer(String name, Set<String> currencies, List<CardBinRange> cardBins,
+      BankClient bankClient, ReactiveBankClient reactiveBankClient, Duration latencyDecay,
+      Duration failurePenalty, MeterRegistry meterRegistry) {
+    this.name = name;
+    this.currencies = currencies.stream()
+        .map(currency -> currency.toUpperCase(Locale.ROOT))
+        .collect(Collectors.toUnmodifiableSet());
+    this.cardBins = List.copyOf(cardBins);
+    this.bankClient = bankClient;
+    this.reactiveBankClient = reactiveBankClient;
+    this.latencyDecayNanos = latencyDecay.toNanos();
+    this.failurePenaltyNanos = failurePenalty.toNanos();
+    for (Outcome outcome : Outcome.values()) {
+      calls.put(outcome, Timer.builder("bank.acquirer.calls")
+          .description("Calls to each acquirer by how they ended")
+          .tag("acquirer", name)
+          .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+          .register(meterRegistry));
+    }
+    Gauge.builder("bank.acquirer.latency", this,
+            acquirer -> acquirer.latencyNanos(System.nanoTime()) / TimeUnit.SECONDS.toNanos(1))
+        .description("Peak-sensitive moving average of the acquirer's latency")
+        .tag("acquirer", name)
+        .baseUnit("seconds")
+        .register(meterRegistry);
+    Gauge.builder("bank.acquirer.in.flight", inFlight, AtomicInteger::get)
+        .tag("acquirer", name)
+        .register(meterRegistry);
+  }
+
+  public String name() {
+    return name;
+  }
+
+  public boolean accepts(BankPaymentRequest request) {
+    // The validator accepts currencies in any case; toUpperCase returns codes already in upper
+    // case as they are.
+    if (!currencies.isEmpty() && (request.getCurrency() == null
+        || !currencies.contains(request.getCurrency().toUpperCase(Locale.ROOT)))) {
+      return false;
+    }
+    if (cardBins.isEmpty()) {
+      return true;
+    }
+    for (CardBinRange range : cardBins) {
+      if (range.matches(request.getCardNumber())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * What sending one more payment here is expected to cost: the latency estimate scaled by the
+   * calls already waiting on this acquirer, or infinite while its circuit is open.
+   */
+  double cost() {
+    if (bankClient.circuitState() == CircuitBreaker.State.OPEN) {
+      return Double.POSITIVE_INFINITY;
+    }
+    return (latencyNanos(System.nanoTime()) + 1) * (inFlight.get() + 1);
+  }
+
+  BankCallResult call(BankPaymentRequest request, Deadline deadline) {
+    inFlight.incrementAndGet();
+    long startedAt = System.nanoTime();
+    try {
+      BankCallResult result = bankClient.call(request, deadline);
+      record(result.outcome(), startedAt);
+      return result;
+    } finally {
+      inFlight.decrementAndGet();
+    }
+  }
+
+  Mono<BankCallResult> callReactive(BankPaymentRequest request, Deadline deadline) {
+    return Mono.defer(() -> {
+      inFlight.incrementAndGet();
+      long startedAt = System.nanoTime();
+      return reactiveBankClient.call(request, deadline)
+          .doOnNext(result -> record(result.outcome(), startedAt))
+          .doFinally(signal -> inFlight.decrementAndGet());
+    });
+  }
+
+  private void record(Outcome outcome, long startedAt) {
+    long now = System.nanoTime();
+    long elapsed = now - startedAt;
+    calls.get(outcome).record(elapsed, TimeUnit.NANOSECONDS);
+    // Shed and abandoned calls say nothing about how quickly the acquirer answers
+    if (outcome == Outcome.ANSWERED || outcome == Outcome.REFUSED) {
+      observe(elapsed, now);
+    } else if (outcome == Outcome.FAILED) {
+      observe(Math.max(elapsed, failurePenaltyNanos), now);
+    }
+  }
+
+  private synchronized void observe(long sampleNanos, long now) {
+    if (sampleNanos > latencyNanos) {
+      latencyNanos = sampleNanos;
+    } else {
+      double weight = Math.exp(-(now - observedAt) / latencyDecayNanos);
+      latencyNanos = latencyNanos * weight + sampleNanos * (1 - weight);
+    }
+    observedAt = now;
+  }
+
+  private synchronized double latencyNanos(long now) {
+    return latencyNanos * Math.exp(-Math.max(0, now - observedAt) / latencyDecayNanos);
+  }
+}
@@ -0,0 +1,142 @@
+package com.checkout.payment.gateway.routing;
+
+import com.checkout.payment.gateway.client.BankCallResult;
+import com.checkout.payment.gateway.model.BankPaymentRequest;
+import com.checkout.payment.gateway.model.BankPaymentResponse;
+import com.checkout.payment.gateway.resilience.Deadline;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Sends each authorisation to one of several {@link Acquirer}s. Only the acquirers that take the
+ * payment's currency and card BIN are eligible. Of those, two are picked at random and the payment
+ * goes to the one with the lower {@link Acquirer#cost() cost}: nearly as good as always picking
+ * the cheapest, without every payment piling onto whichever acquirer looked best a moment ago.
+ * When the chosen acquirer fails or sheds the call, the payment moves on to the other eligible
+ * acquirers, cheapest first, until one answers or the deadline passes.
+ *
+ * <p>Publishes {@code bank.acquirer.failovers}, tagged with the {@code acquirer} failed over
+ * from, and {@code bank.acquirer.unroutable} for payments no acquirer takes.
+ */
+public class AcquirerRouter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AcquirerRouter.class);
+
+  private final List<Acquirer> acquirers;
+  private final Map<String, Counter> failovers = new HashMap<>();
+  private final Counter unroutable;
+
+  public AcquirerRouter(List<Acquirer> acquirers, MeterRegistry meterRegistry) {
+    if (acquirers.isEmpty()) {
+      throw new IllegalArgumentException("At least one acquirer is required");
+    }
+    this.acquirers = List.copyOf(acquirers);
+    for (Acquirer acquirer : acquirers) {
+      Counter counter = Counter.builder("bank.acquirer.failovers")
+          .tag("acquirer", acquirer.name())
+          .register(meterRegistry);
+      if (failovers.put(acquirer.name(), counter) != null) {
+        throw new IllegalArgumentException("Duplicate acquirer " + acquirer.name());
+      }
+    }
+    this.unroutable = Counter.builder("bank.acquirer.unroutable").register(meterRegistry);
+  }
+
+  /**
+   * Asks the acquirers in turn to authorise the payment, returning the first answer, or empty when
+   * none could give one.
+   */
+  public Optional<BankPaymentResponse> processPayment(BankPaymentRequest request,
+      Deadline deadline) {
+    List<Acquirer> route = route(request);
+    for (int i = 0; i < route.size(); i++) {
+      BankCallResult result = route.get(i).call(request, deadline);
+      if (!result.canFailOver()) {
+        return result.response();
+      }
+      failedOver(route, i);
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Non-blocking counterpart of {@link #processPayment(BankPaymentRequest, Deadline)}, completing
+   * empty when no acquirer could answer.
+   */
+  public Mono<BankPaymentResponse> processPaymentReactive(BankPaymentRequest request,
+      Deadline deadline) {
+    return Mono.defer(() -> {
+      List<Acquirer> route = route(request);
+      return Flux.range(0, route.size())
+          .concatMap(i -> route.get(i).callReactive(request, deadline)
+              .doOnNext(result -> {
+                if (result.canFailOver()) {
+                  failedOver(route, i);
+                }
+              }))
+          .filter(result -> !result.canFailOver())
+          .next()
+          .flatMap(result -> Mono.justOrEmpty(result.response()));
+    });
+  }
+
+  // The eligible acquirers in the order they are tried: the better of two random picks, then
+  // the rest from cheapest to dearest.
+  private List<Acquirer> route(BankPaymentRequest request) {
+    List<Candidate> eligible = new ArrayList<>(acquirers.size());
+    for (Acquirer acquirer : acquirers) {
+      if (acquirer.accepts(request)) {
+        eligible.add(new Candidate(acquirer, acquirer.cost()));
+      }
+    }
+    if (eligible.isEmpty()) {
+      unroutable.increment();
+      LOG.warn("No acquirer takes this card for payments in {}", request.getCurrency());
+      return List.of();
+    }
+    if (eligible.size() == 1) {
+      return List.of(eligible.get(0).acquirer());
+    }
+
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int first = random.nextInt(eligible.size());
+    int second = random.nextInt(eligible.size() - 1);
+    if (second >= first) {
+      second++;
+    }
+    Candidate chosen = eligible.get(first).cost() <= eligible.get(second).cost()
+        ? eligible.get(first)
+        : eligible.get(second);
+    eligible.sort(Comparator.comparingDouble(Candidate::cost));
+    List<Acquirer> route = new ArrayList<>(eligible.size());
+    route.add(chosen.acquirer());
+    for (Candidate candidate : eligible) {
+      if (candidate != chosen) {
+        route.add(candidate.acquirer());
+      }
+    }
+    return route;
+  }
+
+  private void failedOver(List<Acquirer> route, int failed) {
+    if (failed + 1 < route.size()) {
+      failovers.get(route.get(failed).name()).increment();
+      LOG.warn("Acquirer {} could not take the payment, failing over to {}",
+          route.get(failed).name(), route.get(failed + 1).name());
+    }
+  }
+
+  private record Candidate(Acquirer acquirer, double cost) {
+  }
+}
@@ -0,0 +1,44 @@
+package com.checkout.payment.gateway.routing;
+
+/**
+ * Card numbers whose first {@code length} digits fall within {@code [from, to]}. Written either
+ * as a single prefix, e.g. {@code 4}, or as two prefixes of the same length, e.g.
+ * {@code 222100-272099}.
+ */
+public record CardBinRange(int length, long from, long to) {
+
+  private static final int MAX_LENGTH = 18;
+
+  public CardBinRange {
+    if (length < 1 || length > MAX_LENGTH || from < 0 || from > to) {
+      throw new IllegalArgumentException("Invalid card BIN range");
+    }
+  }
+
+  public static CardBinRange parse(String range) {
+    String trimmed = range.trim();
+    int dash = trimmed.indexOf('-');
+    String from = dash < 0 ? trimmed : trimmed.substring(0, dash).trim();
+    String to = dash < 0 ? trimmed : trimmed.substring(dash + 1).trim();
+    if (from.length() != to.length() || !from.chars().allMatch(Character::isDigit)
+        || !to.chars().allMatch(Character::isDigit)) {
+      throw new IllegalArgumentException("Invalid card BIN range: " + range);
+    }
+    return new CardBinRange(from.length(), Long.parseLong(from), Long.parseLong(to));
+  }
+
+  public boolean matches(String cardNumber) {
+    if (cardNumber == null || cardNumber.length() < length) {
+      return false;
+    }
+    long prefix = 0;
+    for (int i = 0; i < length; i++) {
+      char digit = cardNumber.charAt(i);
+      if (digit < '0' || digit > '9') {
+        return false;
+      }
+      prefix = prefix * 10 + (digit - '0');
+    }
+    return prefix >= from && prefix <= to;
+  }
+}
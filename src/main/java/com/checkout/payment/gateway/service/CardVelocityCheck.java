@@ -0,0 +1,163 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Refuses payments for a card that has been tried too often recently, before the bank is asked:
+ * more than {@code payments.velocity.card-limit} attempts with the same card, or more than
+ * {@code payments.velocity.card-amount-limit} with the same card, amount and currency, within
+ * the sliding {@code payments.velocity.window}. A limit of 0 turns that check off, and both are
+ * off by default. Every attempt counts, refused ones included, so a card under attack stays
+ * blocked until the attempts stop.
+ *
+ * <p>Each key has a ring of {@code payments.velocity.buckets} counters covering the window,
+ * updated with a compare-and-set and no lock. Keys are a seeded hash of the card number, so no
+ * card number is kept; they expire once a window passes without an attempt, and at most
+ * {@code payments.velocity.max-keys} are kept, evicting the least frequently tried first.
+ *
+ * <p>Counts refusals in {@code payments.velocity.rejections}, tagged {@code limit} {@code card}
+ * or {@code card_amount}; key count and evictions are published under {@code cache.*} with
+ * {@code cache=payments.velocity}.
+ */
+@Component
+public class CardVelocityCheck {
+
+  private final int cardLimit;
+  private final int cardAmountLimit;
+  private final long bucketMillis;
+  private final long seed = ThreadLocalRandom.current().nextLong();
+  private final Clock clock;
+  private final Cache<Long, SlidingWindowCounter> counters;
+  private final Function<Long, SlidingWindowCounter> newCounter;
+  private final Counter cardRejections;
+  private final Counter cardAmountRejections;
+
+  public CardVelocityCheck(@Value("${payments.velocity.card-limit:0}") int cardLimit,
+      @Value("${payments.velocity.card-amount-limit:0}") int cardAmountLimit,
+      @Value("${payments.velocity.window:1m}") Duration window,
+      @Value("${payments.velocity.buckets:6}") int buckets,
+      @Value("${payments.velocity.max-keys:1000000}") long maxKeys,
+      Clock clock, MeterRegistry meterRegistry) {
+    if (cardLimit < 0 || cardAmountLimit < 0 || buckets < 1 || window.toMillis() < buckets) {
+      throw new IllegalArgumentException("Invalid payment velocity limits");
+    }
+    this.cardLimit = cardLimit;
+    this.cardAmountLimit = cardAmountLimit;
+    this.bucketMillis = window.toMillis() / buckets;
+    this.clock = clock;
+    this.counters = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+        .maximumSize(maxKeys)
+        .expireAfterAccess(window)
+        .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+        .<Long, SlidingWindowCounter>build(), "payments.velocity");
+    this.newCounter = key -> new SlidingWindowCounter(buckets);
+    this.cardRejections = rejections(meterRegistry, "card");
+    this.cardAmountRejections = rejections(meterRegistry, "card_amount");
+  }
+
+  /**
+   * Counts an attempt to pay with the request's card and returns whether it is within the
+   * limits.
+   */
+  public boolean allow(PostPaymentRequest request) {
+    if (cardLimit == 0 && cardAmountLimit == 0) {
+      return true;
+    }
+    long epoch = clock.millis() / bucketMillis;
+    long card = hash(request.getCardNumber());
+    boolean allowed = true;
+    if (cardLimit > 0 && count(card, epoch) > cardLimit) {
+      cardRejections.increment();
+      allowed = false;
+    }
+    if (cardAmountLimit > 0) {
+      long cardAmount = mix(card ^ mix(((long) request.getAmount() << 32)
+          ^ hash(request.getCurrency())));
+      if (count(cardAmount, epoch) > cardAmountLimit) {
+        cardAmountRejections.increment();
+        allowed = false;
+      }
+    }
+    return allowed;
+  }
+
+  private int count(long key, long epoch) {
+    return counters.get(key, newCounter).incrementAndSum(epoch);
+  }
+
+  // FNV-1a over the characters, finished with a 64-bit mix, from a random per-process seed.
+  private long hash(String text) {
+    if (text == null) {
+      return mix(seed);
+    }
+    long hash = seed;
+    for (int i = 0; i < text.length(); i++) {
+      hash = (hash ^ text.charAt(i)) * 0x100000001b3L;
+    }
+    return mix(hash);
+  }
+
+  private static long mix(long value) {
+    value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+    value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+    return value ^ (value >>> 33);
+  }
+
+  private static Counter rejections(MeterRegistry meterRegistry, String limit) {
+    return Counter.builder("payments.velocity.rejections")
+        .description("Payments refused for exceeding a card velocity limit")
+        .tag("limit", limit)
+        .register(meterRegistry);
+  }
+
+  /**
+   * Attempts over the last {@code buckets} time buckets. Each slot holds the low 32 bits of the
+   * bucket number it counts for in its high half and the count in its low half, so moving a slot
+   * on to a new bucket and counting into it is one compare-and-set.
+   */
+  static final class SlidingWindowCounter {
+
+    private final AtomicLongArray slots;
+
+    SlidingWindowCounter(int buckets) {
+      this.slots = new AtomicLongArray(buckets);
+    }
+
+    /** Counts one attempt in bucket {@code epoch} and returns the count over the window. */
+    int incrementAndSum(long epoch) {
+      long tag = epoch & 0xFFFFFFFFL;
+      int current = (int) (epoch % slots.length());
+      // The current bucket's count is the one this attempt made, not whatever it has become since,
+      // so that concurrent attempts each see a different total
+      int sum = (int) slots.accumulateAndGet(current, tag, SlidingWindowCounter::increment);
+      for (int i = 0; i < slots.length(); i++) {
+        if (i == current) {
+          continue;
+        }
+        long slot = slots.get(i);
+        // Buckets from a full window ago or more are stale, whatever their count says
+        if ((int) (tag - (slot >>> 32)) < slots.length()) {
+          sum += (int) slot;
+        }
+      }
+      return sum;
+    }
+
+    private static long increment(long slot, long tag) {
+      return slot >>> 32 == tag ? slot + 1 : tag << 32 | 1;
+    }
+  }
+}
@@ -0,0 +1,218 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.exception.IdempotencyKeyReusedException;
+import com.checkout.payment.gateway.exception.PaymentInProgressException;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.resilience.Deadline;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Makes {@code POST /payment} safe to retry under the same {@code Idempotency-Key}. The first
+ * request with a key processes the payment; requests arriving while it is in flight wait for the
+ * same result, and later ones get the stored response for {@code payments.idempotency.ttl}.
+ * Rejected payments are not kept, so a retry after a bank outage is processed again.
+ *
+ * <p>A key is bound to the payment it was first used for: reusing it for a different request
+ * raises {@link IdempotencyKeyReusedException}, and a duplicate whose deadline passes before the
+ * original payment finishes raises {@link PaymentInProgressException}. Once started, a payment
+ * always runs to completion, even if every client waiting on it goes away, so that a retry gets
+ * its outcome rather than a second charge.
+ *
+ * <p>Counts every keyed request in {@code payments.idempotency.requests}, tagged {@code outcome}
+ * {@code miss}, {@code coalesced} or {@code hit}; cache size and evictions are published under
+ * {@code cache.*} with {@code cache=payments.idempotency}.
+ */
+@Component
+public class IdempotencyCache {
+
+  public static final String HEADER = "Idempotency-Key";
+
+  private static final Logger LOG = LoggerFactory.getLogger(IdempotencyCache.class);
+
+  private final Cache<String, Entry> responses;
+  // Mixed into every request hash, so the stored hashes say nothing about a card number
+  // to anyone without this process's memory.
+  private final byte[] salt = new byte[16];
+  private final Counter misses;
+  private final Counter coalesced;
+  private final Counter hits;
+
+  public IdempotencyCache(@Value("${payments.idempotency.max-keys:100000}") long maxKeys,
+      @Value("${payments.idempotency.ttl:24h}") Duration ttl, Clock clock,
+      MeterRegistry meterRegistry) {
+    this.responses = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+        .maximumSize(maxKeys)
+        .expireAfterWrite(ttl)
+        .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+        .<String, Entry>build(), "payments.idempotency");
+    new SecureRandom().nextBytes(salt);
+    this.misses = requests(meterRegistry, "miss");
+    this.coalesced = requests(meterRegistry, "coalesced");
+    this.hits = requests(meterRegistry, "hit");
+  }
+
+  /**
+   * Runs {@code payment} unless a payment with {@code idempotencyKey} is stored or in flight, in
+   * which case its response is returned instead, waiting for it no longer than {@code deadline}.
+   * A {@code null} key always runs the payment.
+   */
+  public PostPaymentResponse execute(String idempotencyKey, PostPaymentRequest request,
+      Deadline deadline, Supplier<PostPaymentResponse> payment) {
+    if (idempotencyKey == null) {
+      return payment.get();
+    }
+    Entry created = new Entry(hash(request), new CompletableFuture<>());
+    Entry existing = responses.asMap().putIfAbsent(idempotencyKey, created);
+    if (existing != null) {
+      return join(idempotencyKey, created, existing, deadline);
+    }
+    misses.increment();
+    try {
+      PostPaymentResponse response = payment.get();
+      complete(idempotencyKey, created, response);
+      return response;
+    } catch (RuntimeException e) {
+      fail(idempotencyKey, created, e);
+      throw e;
+    }
+  }
+
+  /**
+   * Non-blocking form of {@link #execute}. The payment is subscribed to once, independently of
+   * the returned {@link Mono}: cancelling it only detaches that caller.
+   */
+  public Mono<PostPaymentResponse> executeReactive(String idempotencyKey,
+      PostPaymentRequest request, Deadline deadline,
+      Supplier<Mono<PostPaymentResponse>> payment) {
+    if (idempotencyKey == null) {
+      return payment.get();
+    }
+    return Mono.defer(() -> {
+      Entry created = new Entry(hash(request), new CompletableFuture<>());
+      Entry existing = responses.asMap().putIfAbsent(idempotencyKey, created);
+      if (existing != null) {
+        checkSameRequest(idempotencyKey, created, existing);
+        countReuse(idempotencyKey, existing);
+        Mono<PostPaymentResponse> shared = Mono.fromFuture(existing.response(), true);
+        if (!deadline.isBounded()) {
+          return shared;
+        }
+        return shared.timeout(deadline.remaining(),
+            Mono.error(() -> new PaymentInProgressException(idempotencyKey)));
+      }
+      misses.increment();
+      payment.get().subscribe(
+          response -> complete(idempotencyKey, created, response),
+          e -> fail(idempotencyKey, created, e),
+          () -> fail(idempotencyKey, created,
+              new IllegalStateException("Payment completed without a response")));
+      // Callers sharing the payment, this one included, must not cancel it for each other.
+      return Mono.fromFuture(created.response(), true);
+    });
+  }
+
+  private void complete(String idempotencyKey, Entry created, PostPaymentResponse response) {
+    if (response.getStatus() == PaymentStatus.REJECTED) {
+      responses.asMap().remove(idempotencyKey, created);
+    }
+    created.response().complete(response);
+  }
+
+  // Also reached after complete() when the Mono ends, where it changes nothing.
+  private void fail(String idempotencyKey, Entry created, Throwable e) {
+    if (created.response().isDone()) {
+      return;
+    }
+    responses.asMap().remove(idempotencyKey, created);
+    created.response().completeExceptionally(e);
+  }
+
+  private PostPaymentResponse join(String idempotencyKey, Entry created, Entry existing,
+      Deadline deadline) {
+    checkSameRequest(idempotencyKey, created, existing);
+    countReuse(idempotencyKey, existing);
+    try {
+      if (!deadline.isBounded()) {
+        return existing.response().join();
+      }
+      return existing.response().get(deadline.remaining().toNanos(), TimeUnit.NANOSECONDS);
+    } catch (CompletionException | ExecutionException e) {
+      throw e.getCause() instanceof RuntimeException cause ? cause : new CompletionException(e);
+    } catch (TimeoutException e) {
+      throw new PaymentInProgressException(idempotencyKey);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CancellationException("Interrupted waiting for idempotency key " + idempotencyKey);
+    }
+  }
+
+  private static void checkSameRequest(String idempotencyKey, Entry created, Entry existing) {
+    if (!MessageDigest.isEqual(created.requestHash(), existing.requestHash())) {
+      throw new IdempotencyKeyReusedException(idempotencyKey);
+    }
+  }
+
+  private void countReuse(String idempotencyKey, Entry existing) {
+    if (existing.response().isDone()) {
+      hits.increment();
+      LOG.debug("Replaying stored response for idempotency key {}", idempotencyKey);
+    } else {
+      coalesced.increment();
+      LOG.debug("Joining in-flight payment for idempotency key {}", idempotencyKey);
+    }
+  }
+
+  // Currency is compared as the validator accepts it, in any case.
+  private byte[] hash(PostPaymentRequest request) {
+    MessageDigest digest = sha256();
+    digest.update(salt);
+    String currency = request.getCurrency() == null
+        ? null : request.getCurrency().toUpperCase(Locale.ROOT);
+    String fields = request.getCardNumber() + '\u0000' + request.getExpiryMonth() + '\u0000'
+        + request.getExpiryYear() + '\u0000' + currency + '\u0000' + request.getAmount()
+        + '\u0000' + request.getCvv();
+    return digest.digest(fields.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is required of every JVM", e);
+    }
+  }
+
+  private static Counter requests(MeterRegistry meterRegistry, String outcome) {
+    return Counter.builder("payments.idempotency.requests")
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+
+  private record Entry(byte[] requestHash, CompletableFuture<PostPaymentResponse> response) {
+  }
+}
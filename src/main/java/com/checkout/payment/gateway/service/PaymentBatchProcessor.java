@@ -0,0 +1,98 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.resilience.Deadline;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Processes a batch of payments: every request is validated before any of them reaches the bank,
+ * then the valid ones are authorised in input order with at most {@code payments.batch.parallelism}
+ * bank calls of the batch in flight. Each bank call runs on its own virtual thread.
+ */
+@Component
+public class PaymentBatchProcessor implements AutoCloseable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PaymentBatchProcessor.class);
+
+  private final PaymentGatewayService paymentGatewayService;
+  private final int parallelism;
+  private final int maxSize;
+  private final ExecutorService executor =
+      Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("batch-", 0).factory());
+
+  public PaymentBatchProcessor(PaymentGatewayService paymentGatewayService,
+      @Value("${payments.batch.parallelism:16}") int parallelism,
+      @Value("${payments.batch.max-size:10000}") int maxSize) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("payments.batch.parallelism must be at least 1");
+    }
+    this.paymentGatewayService = paymentGatewayService;
+    this.parallelism = parallelism;
+    this.maxSize = maxSize;
+  }
+
+  /** The largest number of payments accepted in one batch. */
+  public int maxSize() {
+    return maxSize;
+  }
+
+  /**
+   * Starts processing the batch and returns one result per request, in input order. Invalid
+   * requests are already complete as rejected; the others complete as the bank answers them, each
+   * under a deadline taken from {@code deadlines} when its bank call starts.
+   */
+  public List<CompletableFuture<PostPaymentResponse>> process(List<PostPaymentRequest> requests,
+      Supplier<Deadline> deadlines) {
+    LOG.info("Processing batch of {} payment requests", requests.size());
+    List<CompletableFuture<PostPaymentResponse>> results = new ArrayList<>(requests.size());
+    for (PostPaymentRequest request : requests) {
+      Optional<PostPaymentResponse> rejected = paymentGatewayService.rejectIfInvalid(request);
+      results.add(rejected.map(CompletableFuture::completedFuture)
+          .orElseGet(CompletableFuture::new));
+    }
+    executor.execute(() -> dispatch(requests, results, deadlines));
+    return results;
+  }
+
+  private void dispatch(List<PostPaymentRequest> requests,
+      List<CompletableFuture<PostPaymentResponse>> results, Supplier<Deadline> deadlines) {
+    Semaphore permits = new Semaphore(parallelism);
+    for (int i = 0; i < requests.size(); i++) {
+      CompletableFuture<PostPaymentResponse> result = results.get(i);
+      if (result.isDone()) {
+        continue;
+      }
+      PostPaymentRequest request = requests.get(i);
+      permits.acquireUninterruptibly();
+      executor.execute(() -> {
+        try {
+          result.complete(paymentGatewayService.authorize(request, deadlines.get()));
+        } catch (RuntimeException e) {
+          LOG.error("Payment in batch failed", e);
+          result.complete(
+              paymentGatewayService.buildResponse(request, PaymentStatus.REJECTED));
+        } finally {
+          permits.release();
+        }
+      });
+    }
+  }
+
+  @Override
+  public void close() {
+    executor.shutdown();
+  }
+}
@@ -1,6 +1,5 @@
 package com.checkout.payment.gateway.service;
 
-import com.checkout.payment.gateway.client.BankClient;
 import com.checkout.payment.gateway.enums.PaymentStatus;
 import com.checkout.payment.gateway.exception.EventProcessingException;
 import com.checkout.payment.gateway.model.BankPaymentRequest;
@@ -8,13 +7,18 @@ import com.checkout.payment.gateway.model.BankPaymentResponse;
 import com.checkout.payment.gateway.model.PostPaymentRequest;
 import com.checkout.payment.gateway.model.PostPaymentResponse;
 import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.checkout.payment.gateway.resilience.Deadline;
+import com.checkout.payment.gateway.routing.AcquirerRouter;
+import com.checkout.payment.gateway.service.PaymentMetrics.Stage;
 import com.checkout.payment.gateway.validation.PaymentRequestValidator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
 @Service
 public class PaymentGatewayService {
@@ -22,47 +26,163 @@ public class PaymentGatewayService {
   private static final Logger LOG = LoggerFactory.getLogger(PaymentGatewayService.class);
 
   private final PaymentsRepository paymentsRepository;
-  private final BankClient bankClient;
+  private final AcquirerRouter acquirerRouter;
   private final PaymentRequestValidator validator;
+  private final CardVelocityCheck velocityCheck;
+  private final PaymentIdGenerator idGenerator;
+  private final PaymentMetrics metrics;
 
-  public PaymentGatewayService(PaymentsRepository paymentsRepository, BankClient bankClient,
-      PaymentRequestValidator validator) {
+  public PaymentGatewayService(PaymentsRepository paymentsRepository,
+      AcquirerRouter acquirerRouter, PaymentRequestValidator validator,
+      CardVelocityCheck velocityCheck, PaymentIdGenerator idGenerator, PaymentMetrics metrics) {
     this.paymentsRepository = paymentsRepository;
-    this.bankClient = bankClient;
+    this.acquirerRouter = acquirerRouter;
     this.validator = validator;
+    this.velocityCheck = velocityCheck;
+    this.idGenerator = idGenerator;
+    this.metrics = metrics;
   }
 
   public PostPaymentResponse getPaymentById(UUID id) {
+    return findPaymentById(id).orElseThrow(() -> new EventProcessingException("Invalid ID"));
+  }
+
+  /**
+   * The payment with {@code id}, if there is one. Unknown ids are routine, from merchants polling
+   * too early or clients guessing, so unlike {@link #getPaymentById} this raises nothing for them.
+   */
+  public Optional<PostPaymentResponse> findPaymentById(UUID id) {
     LOG.debug("Requesting access to payment with ID {}", id);
-    return paymentsRepository.get(id)
-        .orElseThrow(() -> new EventProcessingException("Invalid ID"));
+    return paymentsRepository.get(id);
   }
 
   public PostPaymentResponse processPayment(PostPaymentRequest paymentRequest) {
+    return processPayment(paymentRequest, Deadline.none());
+  }
+
+  public PostPaymentResponse processPayment(PostPaymentRequest paymentRequest,
+      Deadline deadline) {
     LOG.info("Processing payment request");
 
-    // Step 1: Validate the request
+    // Step 1: Validate the request and check the card's velocity
+    return rejectIfInvalid(paymentRequest)
+        .orElseGet(() -> authorize(paymentRequest, deadline));
+  }
+
+  /**
+   * The checks of {@link #processPayment(PostPaymentRequest, Deadline)} on their own: returns the
+   * rejected payment when the request is invalid or its card is being tried too often, or empty
+   * when it may go to the bank.
+   */
+  public Optional<PostPaymentResponse> rejectIfInvalid(PostPaymentRequest paymentRequest) {
+    long startedAt = System.nanoTime();
     List<String> validationErrors = validator.validate(paymentRequest);
+    startedAt = metrics.stage(Stage.VALIDATION, startedAt);
     if (!validationErrors.isEmpty()) {
-      LOG.warn("Payment request rejected due to validation errors: {}", validationErrors);
-      PostPaymentResponse rejectedResponse = buildResponse(paymentRequest, PaymentStatus.REJECTED);
-      return rejectedResponse;
+      return Optional.of(rejectInvalid(paymentRequest, validationErrors, startedAt));
+    }
+    return rejectIfTooFrequent(paymentRequest, startedAt);
+  }
+
+  /**
+   * The rest of {@link #processPayment(PostPaymentRequest, Deadline)} for a request that has
+   * already passed {@link #rejectIfInvalid(PostPaymentRequest)}.
+   */
+  public PostPaymentResponse authorize(PostPaymentRequest paymentRequest, Deadline deadline) {
+    long startedAt = System.nanoTime();
+    if (paymentsRepository.isFull()) {
+      return rejectStoreFull(paymentRequest, startedAt);
     }
 
     // Step 2: Call the acquiring bank
-    BankPaymentRequest bankRequest = new BankPaymentRequest(
+    Optional<BankPaymentResponse> bankResponse =
+        acquirerRouter.processPayment(toBankRequest(paymentRequest), deadline);
+    startedAt = metrics.stage(Stage.BANK, startedAt);
+
+    return completePayment(paymentRequest, bankResponse, startedAt);
+  }
+
+  public Mono<PostPaymentResponse> processPaymentReactive(PostPaymentRequest paymentRequest) {
+    return processPaymentReactive(paymentRequest, Deadline.none());
+  }
+
+  /**
+   * Same flow as {@link #processPayment(PostPaymentRequest, Deadline)}, but the bank call does not
+   * hold a thread while waiting for the acquirer.
+   */
+  public Mono<PostPaymentResponse> processPaymentReactive(PostPaymentRequest paymentRequest,
+      Deadline deadline) {
+    LOG.info("Processing payment request");
+
+    Optional<PostPaymentResponse> rejected = rejectIfInvalid(paymentRequest);
+    if (rejected.isPresent()) {
+      return Mono.just(rejected.get());
+    }
+
+    long checkedAt = System.nanoTime();
+    if (paymentsRepository.isFull()) {
+      return Mono.just(rejectStoreFull(paymentRequest, checkedAt));
+    }
+    return acquirerRouter.processPaymentReactive(toBankRequest(paymentRequest), deadline)
+        .map(Optional::of)
+        .defaultIfEmpty(Optional.empty())
+        .map(bankResponse -> completePayment(paymentRequest, bankResponse,
+            metrics.stage(Stage.BANK, checkedAt)));
+  }
+
+  private Optional<PostPaymentResponse> rejectIfTooFrequent(PostPaymentRequest paymentRequest,
+      long startedAt) {
+    boolean allowed = velocityCheck.allow(paymentRequest);
+    startedAt = metrics.stage(Stage.VELOCITY, startedAt);
+    if (allowed) {
+      return Optional.empty();
+    }
+    LOG.warn("Payment request rejected: card velocity limit exceeded");
+    return Optional.of(reject(paymentRequest, startedAt));
+  }
+
+  // Checked before the bank call: once the bank has authorised a payment it must be stored.
+  private PostPaymentResponse rejectStoreFull(PostPaymentRequest paymentRequest, long startedAt) {
+    LOG.error("Payment request rejected: the payment store is full");
+    return reject(paymentRequest, startedAt);
+  }
+
+  private PostPaymentResponse rejectInvalid(PostPaymentRequest paymentRequest,
+      List<String> validationErrors, long startedAt) {
+    LOG.warn("Payment request rejected due to validation errors: {}", validationErrors);
+    metrics.validationFailed(validationErrors);
+    return reject(paymentRequest, startedAt);
+  }
+
+  private PostPaymentResponse reject(PostPaymentRequest paymentRequest, long startedAt) {
+    PostPaymentResponse response = buildResponse(paymentRequest, PaymentStatus.REJECTED);
+    metrics.stage(Stage.RESPONSE, startedAt);
+    metrics.processed(PaymentStatus.REJECTED);
+    return response;
+  }
+
+  BankPaymentRequest toBankRequest(PostPaymentRequest paymentRequest) {
+    return new BankPaymentRequest(
         paymentRequest.getCardNumber(),
-        String.format("%02d/%d", paymentRequest.getExpiryMonth(), paymentRequest.getExpiryYear()),
+        expiryDate(paymentRequest.getExpiryMonth(), paymentRequest.getExpiryYear()),
         paymentRequest.getCurrency(),
         paymentRequest.getAmount(),
         paymentRequest.getCvv()
     );
+  }
 
-    Optional<BankPaymentResponse> bankResponse = bankClient.processPayment(bankRequest);
+  // Same text as String.format("%02d/%d", month, year) without parsing the format per payment
+  private static String expiryDate(int month, int year) {
+    return (month >= 0 && month < 10 ? "0" : "") + month + "/" + year;
+  }
 
+  private PostPaymentResponse completePayment(PostPaymentRequest paymentRequest,
+      Optional<BankPaymentResponse> bankResponse, long startedAt) {
     if (bankResponse.isEmpty()) {
       LOG.error("Bank was unavailable for payment processing");
       PostPaymentResponse rejectedResponse = buildResponse(paymentRequest, PaymentStatus.REJECTED);
+      metrics.stage(Stage.RESPONSE, startedAt);
+      metrics.processed(PaymentStatus.REJECTED);
       return rejectedResponse;
     }
 
@@ -72,21 +192,26 @@ public class PaymentGatewayService {
         : PaymentStatus.DECLINED;
 
     PostPaymentResponse response = buildResponse(paymentRequest, status);
+    startedAt = metrics.stage(Stage.RESPONSE, startedAt);
 
     // Step 4: Store the payment
     paymentsRepository.add(response);
+    metrics.stage(Stage.REPOSITORY, startedAt);
+    metrics.processed(status);
     LOG.info("Payment processed with ID {} and status {}", response.getId(), status);
 
     return response;
   }
 
-  private PostPaymentResponse buildResponse(PostPaymentRequest request, PaymentStatus status) {
+  PostPaymentResponse buildResponse(PostPaymentRequest request, PaymentStatus status) {
     PostPaymentResponse response = new PostPaymentResponse();
-    response.setId(UUID.randomUUID());
+    response.setId(idGenerator.next());
     response.setStatus(status);
     response.setExpiryMonth(request.getExpiryMonth());
     response.setExpiryYear(request.getExpiryYear());
-    response.setCurrency(request.getCurrency());
+    // Stored, and so exported and queried, in the upper case the validator allows either way
+    response.setCurrency(request.getCurrency() == null
+        ? null : request.getCurrency().toUpperCase(Locale.ROOT));
     response.setAmount(request.getAmount());
 
     if (request.getCardNumber() != null && request.getCardNumber().length() >= 4) {
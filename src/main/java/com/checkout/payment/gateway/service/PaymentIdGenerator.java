@@ -0,0 +1,15 @@
+package com.checkout.payment.gateway.service;
+
+import java.util.UUID;
+
+/**
+ * Source of the ids given to processed payments, rejected ones included. The implementation is
+ * chosen with {@code payments.id.type}: {@code uuidv7} (default), see
+ * {@link TimeOrderedPaymentIdGenerator}, or {@code random} for version 4 UUIDs from
+ * {@link UUID#randomUUID()}.
+ */
+public interface PaymentIdGenerator {
+
+  /** A new id for a payment. */
+  UUID next();
+}
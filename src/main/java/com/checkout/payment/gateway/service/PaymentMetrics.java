@@ -0,0 +1,77 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Meters for {@link PaymentGatewayService}: a {@code payments.stage.duration} timer per stage of
+ * processing a payment, {@code payments.processed} per resulting status and
+ * {@code payments.validation.failures} per validation message. Meters are looked up once, so
+ * recording on the hot path is a {@code nanoTime} call and an update of an existing meter.
+ */
+@Component
+public class PaymentMetrics {
+
+  enum Stage {
+    VALIDATION, VELOCITY, BANK, RESPONSE, REPOSITORY
+  }
+
+  private final MeterRegistry meterRegistry;
+  private final Map<Stage, Timer> stages = new EnumMap<>(Stage.class);
+  private final Map<PaymentStatus, Counter> processed = new EnumMap<>(PaymentStatus.class);
+  // Keyed by the validator's messages, which are constants, so the number of tags stays bounded.
+  private final Map<String, Counter> validationFailures = new ConcurrentHashMap<>();
+
+  public PaymentMetrics(
+      @Value("${payments.metrics.percentile-histograms:true}") boolean percentileHistograms,
+      MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+    for (Stage stage : Stage.values()) {
+      stages.put(stage, Timer.builder("payments.stage.duration")
+          .description("Time spent in each stage of processing a payment")
+          .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+          .publishPercentileHistogram(percentileHistograms)
+          .register(meterRegistry));
+    }
+    for (PaymentStatus status : PaymentStatus.values()) {
+      processed.put(status, Counter.builder("payments.processed")
+          .description("Payments processed, by resulting status")
+          .tag("status", status.name().toLowerCase(Locale.ROOT))
+          .register(meterRegistry));
+    }
+  }
+
+  /**
+   * Records a stage that started at {@code startedAt} (a {@link System#nanoTime()} reading) and
+   * returns the time it ended, which is where the next stage starts.
+   */
+  long stage(Stage stage, long startedAt) {
+    long now = System.nanoTime();
+    stages.get(stage).record(now - startedAt, TimeUnit.NANOSECONDS);
+    return now;
+  }
+
+  void processed(PaymentStatus status) {
+    processed.get(status).increment();
+  }
+
+  void validationFailed(List<String> errors) {
+    for (String error : errors) {
+      validationFailures.computeIfAbsent(error, reason -> Counter.builder(
+              "payments.validation.failures")
+          .description("Payment requests failing validation, by reason")
+          .tag("reason", reason)
+          .register(meterRegistry)).increment();
+    }
+  }
+}
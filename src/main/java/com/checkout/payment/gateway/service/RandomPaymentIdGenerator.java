@@ -0,0 +1,19 @@
+package com.checkout.payment.gateway.service;
+
+import java.util.UUID;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Version 4 UUIDs from {@link UUID#randomUUID()}, which draws on one {@code SecureRandom} shared
+ * by every thread. Unique with overwhelming probability, in no particular order.
+ */
+@Component
+@ConditionalOnProperty(name = "payments.id.type", havingValue = "random")
+public class RandomPaymentIdGenerator implements PaymentIdGenerator {
+
+  @Override
+  public UUID next() {
+    return UUID.randomUUID();
+  }
+}
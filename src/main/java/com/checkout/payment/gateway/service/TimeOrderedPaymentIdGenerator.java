@@ -0,0 +1,66 @@
+package com.checkout.payment.gateway.service;
+
+import java.time.Clock;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Version 7 UUIDs (RFC 9562): the milliseconds since the epoch in the top 48 bits, so ids sort,
+ * and are inserted into ordered indexes, in the order they were made. The state is striped, one
+ * counter per stripe for twice as many stripes as there are processors, and a thread always uses
+ * the stripe its id maps to, so threads rarely meet on a counter and nothing is allocated per
+ * thread, however many virtual threads make ids.
+ *
+ * <p>A stripe's timestamp and its 12 {@code rand_a} bits form one counter, moved on by
+ * compare-and-set: each millisecond it starts at a random value below 1024 and goes up by one for
+ * every id, so the ids from one stripe, and so from one thread, strictly increase. When the 12
+ * bits run out the timestamp is moved on a millisecond early, and it never moves back with the
+ * clock. The first 8 of the 62 {@code rand_b} bits are the stripe number, so ids from different
+ * stripes never collide; the other 54 come from {@link ThreadLocalRandom}.
+ */
+@Component
+@ConditionalOnProperty(name = "payments.id.type", havingValue = "uuidv7", matchIfMissing = true)
+public class TimeOrderedPaymentIdGenerator implements PaymentIdGenerator {
+
+  private static final long VERSION = 0x7000L;
+  private static final long VARIANT = 0x8000_0000_0000_0000L;
+  private static final int SEQUENCE_BITS = 12;
+  private static final int STRIPE_BITS = 8;
+  private static final int RANDOM_BITS = 62 - STRIPE_BITS;
+  // Longs between two stripes' counters, so that no two share a cache line
+  private static final int STRIPE_SPACING = 16;
+
+  private final Clock clock;
+  // Per stripe, the milliseconds shifted left by SEQUENCE_BITS, plus the counter
+  private final AtomicLongArray stripes;
+  private final int stripeMask;
+
+  public TimeOrderedPaymentIdGenerator(Clock clock) {
+    this.clock = clock;
+    int stripeCount = Integer.highestOneBit(
+        Math.min(1 << STRIPE_BITS, 2 * Runtime.getRuntime().availableProcessors()));
+    this.stripes = new AtomicLongArray(stripeCount * STRIPE_SPACING);
+    this.stripeMask = stripeCount - 1;
+  }
+
+  @Override
+  public UUID next() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    long stripe = Thread.currentThread().threadId() & stripeMask;
+    int slot = (int) stripe * STRIPE_SPACING;
+    long now = clock.millis() << SEQUENCE_BITS;
+    long previous;
+    long current;
+    do {
+      previous = stripes.get(slot);
+      current = now > previous ? now | random.nextInt(1024) : previous + 1;
+    } while (!stripes.compareAndSet(slot, previous, current));
+    long millis = current >>> SEQUENCE_BITS;
+    long sequence = current & ((1 << SEQUENCE_BITS) - 1);
+    return new UUID(millis << 16 | VERSION | sequence,
+        VARIANT | stripe << RANDOM_BITS | random.nextLong() & ((1L << RANDOM_BITS) - 1));
+  }
+}
@@ -3,98 +3,181 @@ package com.checkout.payment.gateway.validation;
 import com.checkout.payment.gateway.model.PostPaymentRequest;
 import org.springframework.stereotype.Component;
 
-import java.time.YearMonth;
+import java.time.Clock;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
+/**
+ * Validates payment requests without allocating for a valid one: digits and currencies are
+ * checked char by char, the current month is cached until the clock reaches the next one, and the
+ * error list is only created once there is an error to report.
+ */
 @Component
 public class PaymentRequestValidator {
 
   private static final Set<String> SUPPORTED_CURRENCIES = Set.of("GBP", "USD", "EUR");
+  private static final String[] CURRENCY_CODES = SUPPORTED_CURRENCIES.toArray(String[]::new);
+  private static final String UNSUPPORTED_CURRENCY =
+      "Currency must be one of: " + SUPPORTED_CURRENCIES;
+
+  private final Clock clock;
+  private volatile CurrentMonth currentMonth;
+
+  public PaymentRequestValidator(Clock clock) {
+    this.clock = clock;
+    this.currentMonth = CurrentMonth.at(clock);
+  }
 
   /**
-   * Returns an empty list means the request is valid.
+   * Returns an empty list means the request is valid. The list must not be modified.
    */
   public List<String> validate(PostPaymentRequest request) {
-    List<String> errors = new ArrayList<>();
+    List<String> errors = List.of();
 
-    validateCardNumber(request.getCardNumber(), errors);
-    validateExpiryMonth(request.getExpiryMonth(), errors);
-    validateExpiryYear(request.getExpiryYear(), errors);
-    validateExpiryDateInFuture(request.getExpiryMonth(), request.getExpiryYear(), errors);
-    validateCurrency(request.getCurrency(), errors);
-    validateAmount(request.getAmount(), errors);
-    validateCvv(request.getCvv(), errors);
+    errors = validateCardNumber(request.getCardNumber(), errors);
+    errors = validateExpiryMonth(request.getExpiryMonth(), errors);
+    errors = validateExpiryYear(request.getExpiryYear(), errors);
+    errors = validateExpiryDateInFuture(request.getExpiryMonth(), request.getExpiryYear(), errors);
+    errors = validateCurrency(request.getCurrency(), errors);
+    errors = validateAmount(request.getAmount(), errors);
+    errors = validateCvv(request.getCvv(), errors);
 
     return errors;
   }
 
-  private void validateCardNumber(String cardNumber, List<String> errors) {
+  private List<String> validateCardNumber(String cardNumber, List<String> errors) {
     if (cardNumber == null || cardNumber.isBlank()) {
-      errors.add("Card number is required");
-      return;
+      return add(errors, "Card number is required");
     }
     if (cardNumber.length() < 14 || cardNumber.length() > 19) {
-      errors.add("Card number must be between 14 and 19 characters long");
+      errors = add(errors, "Card number must be between 14 and 19 characters long");
     }
-    if (!cardNumber.matches("\\d+")) {
-      errors.add("Card number must contain only numeric characters");
+    if (!isDigits(cardNumber)) {
+      errors = add(errors, "Card number must contain only numeric characters");
     }
+    return errors;
   }
 
-  private void validateExpiryMonth(int expiryMonth, List<String> errors) {
+  private List<String> validateExpiryMonth(int expiryMonth, List<String> errors) {
     if (expiryMonth < 1 || expiryMonth > 12) {
-      errors.add("Expiry month must be between 1 and 12");
+      return add(errors, "Expiry month must be between 1 and 12");
     }
+    return errors;
   }
 
-  private void validateExpiryYear(int expiryYear, List<String> errors) {
+  private List<String> validateExpiryYear(int expiryYear, List<String> errors) {
     if (expiryYear < 1) {
-      errors.add("Expiry year is required");
+      return add(errors, "Expiry year is required");
     }
+    return errors;
   }
 
-  private void validateExpiryDateInFuture(int expiryMonth, int expiryYear, List<String> errors) {
+  private List<String> validateExpiryDateInFuture(int expiryMonth, int expiryYear,
+      List<String> errors) {
     if (expiryMonth < 1 || expiryMonth > 12 || expiryYear < 1) {
-      return;
+      return errors;
     }
-    YearMonth expiry = YearMonth.of(expiryYear, expiryMonth);
-    YearMonth now = YearMonth.now();
-    if (!expiry.isAfter(now)) {
-      errors.add("Card expiry date must be in the future");
+    if (CurrentMonth.index(expiryYear, expiryMonth) <= currentMonth().index) {
+      return add(errors, "Card expiry date must be in the future");
     }
+    return errors;
   }
 
-  private void validateCurrency(String currency, List<String> errors) {
+  private List<String> validateCurrency(String currency, List<String> errors) {
     if (currency == null || currency.isBlank()) {
-      errors.add("Currency is required");
-      return;
+      return add(errors, "Currency is required");
     }
     if (currency.length() != 3) {
-      errors.add("Currency must be 3 characters");
+      errors = add(errors, "Currency must be 3 characters");
     }
-    if (!SUPPORTED_CURRENCIES.contains(currency.toUpperCase())) {
-      errors.add("Currency must be one of: " + SUPPORTED_CURRENCIES);
+    if (!isSupportedCurrency(currency)) {
+      errors = add(errors, UNSUPPORTED_CURRENCY);
     }
+    return errors;
   }
 
-  private void validateAmount(int amount, List<String> errors) {
+  private List<String> validateAmount(int amount, List<String> errors) {
     if (amount <= 0) {
-      errors.add("Amount must be a positive integer");
+      return add(errors, "Amount must be a positive integer");
     }
+    return errors;
   }
 
-  private void validateCvv(String cvv, List<String> errors) {
+  private List<String> validateCvv(String cvv, List<String> errors) {
     if (cvv == null || cvv.isBlank()) {
-      errors.add("CVV is required");
-      return;
+      return add(errors, "CVV is required");
     }
     if (cvv.length() < 3 || cvv.length() > 4) {
-      errors.add("CVV must be 3 or 4 characters long");
+      errors = add(errors, "CVV must be 3 or 4 characters long");
+    }
+    if (!isDigits(cvv)) {
+      errors = add(errors, "CVV must contain only numeric characters");
+    }
+    return errors;
+  }
+
+  private CurrentMonth currentMonth() {
+    CurrentMonth month = currentMonth;
+    if (clock.millis() >= month.endsAtMillis) {
+      month = CurrentMonth.at(clock);
+      currentMonth = month;
     }
-    if (!cvv.matches("\\d+")) {
-      errors.add("CVV must contain only numeric characters");
+    return month;
+  }
+
+  private static List<String> add(List<String> errors, String error) {
+    List<String> result = errors.isEmpty() ? new ArrayList<>(2) : errors;
+    result.add(error);
+    return result;
+  }
+
+  /** Same as {@code value.matches("\\d+")}: ASCII digits only, at least one. */
+  private static boolean isDigits(String value) {
+    if (value.isEmpty()) {
+      return false;
+    }
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c < '0' || c > '9') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Same as {@code SUPPORTED_CURRENCIES.contains(currency.toUpperCase())}. */
+  private static boolean isSupportedCurrency(String currency) {
+    for (String code : CURRENCY_CODES) {
+      if (code.equalsIgnoreCase(currency)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** The month the clock is in, as {@code year * 12 + month - 1}, and when that month ends. */
+  private static final class CurrentMonth {
+
+    private final long index;
+    private final long endsAtMillis;
+
+    private CurrentMonth(long index, long endsAtMillis) {
+      this.index = index;
+      this.endsAtMillis = endsAtMillis;
+    }
+
+    static CurrentMonth at(Clock clock) {
+      LocalDate firstOfMonth = LocalDate.now(clock).withDayOfMonth(1);
+      long endsAtMillis = firstOfMonth.plusMonths(1).atStartOfDay(clock.getZone()).toInstant()
+          .toEpochMilli();
+      return new CurrentMonth(index(firstOfMonth.getYear(), firstOfMonth.getMonthValue()),
+          endsAtMillis);
+    }
+
+    static long index(int year, int month) {
+      return year * 12L + month - 1;
     }
   }
 }
@@ -0,0 +1,273 @@
+package com.checkout.payment.gateway.controller.gateway.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.checkout.payment.gateway.client.BankCallGuard;
+import com.checkout.payment.gateway.client.BankCallMetrics;
+import com.checkout.payment.gateway.client.BankClient;
+import com.checkout.payment.gateway.client.BatchingPolicy;
+import com.checkout.payment.gateway.client.DeadlineHttpContextFactory;
+import com.checkout.payment.gateway.client.HedgingPolicy;
+import com.checkout.payment.gateway.controller.gateway.support.BankSimulatorStub;
+import com.checkout.payment.gateway.controller.gateway.support.MutableClock;
+import com.checkout.payment.gateway.model.BankPaymentRequest;
+import com.checkout.payment.gateway.model.BankPaymentResponse;
+import com.checkout.payment.gateway.resilience.CircuitBreaker.State;
+import com.checkout.payment.gateway.resilience.Deadline;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+class BankClientTest {
+
+  private static final String UNAVAILABLE_CARD = "2222405343248870";
+  private static final String AUTHORIZED_CARD = "2222405343248877";
+
+  private final BankSimulatorStub bank = new BankSimulatorStub();
+  private final MutableClock clock = new MutableClock();
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final BankCallGuard guard = new BankCallGuard(10, 5, 50, Duration.ofSeconds(30), 2,
+      2, 1, 4, Duration.ofMillis(500), 0.5, clock, new SimpleMeterRegistry());
+  private final BankClient bankClient = client(new HedgingPolicy(false, 0.95,
+      Duration.ofMillis(20), Duration.ofSeconds(1), new SimpleMeterRegistry()));
+
+  @AfterEach
+  void stopBank() {
+    bank.close();
+  }
+
+  @Test
+  void repeatedServiceUnavailableOpensTheCircuitAndStopsCallingTheBank() {
+    for (int i = 0; i < 5; i++) {
+      assertThat(bankClient.processPayment(request(UNAVAILABLE_CARD))).isEmpty();
+    }
+    assertThat(guard.circuitState()).isEqualTo(State.OPEN);
+    assertThat(bank.requests()).isEqualTo(5);
+
+    assertThat(bankClient.processPayment(request(AUTHORIZED_CARD))).isEmpty();
+    assertThat(bank.requests()).isEqualTo(5);
+  }
+
+  @Test
+  void circuitClosesOnceTrialCallsSucceedAfterTheOpenDuration() {
+    for (int i = 0; i < 5; i++) {
+      bankClient.processPayment(request(UNAVAILABLE_CARD));
+    }
+    clock.advance(Duration.ofSeconds(30));
+
+    assertThat(bankClient.processPayment(request(AUTHORIZED_CARD))).get()
+        .satisfies(response -> assertThat(response.isAuthorized()).isTrue());
+    assertThat(guard.circuitState()).isEqualTo(State.HALF_OPEN);
+    assertThat(bankClient.processPayment(request(AUTHORIZED_CARD))).isPresent();
+
+    assertThat(guard.circuitState()).isEqualTo(State.CLOSED);
+  }
+
+  @Test
+  void declinedAndInvalidRequestsDoNotCountAgainstTheBank() {
+    BankPaymentRequest invalid =
+        new BankPaymentRequest(AUTHORIZED_CARD, "04/2099", "GBP", 100, null);
+
+    for (int i = 0; i < 10; i++) {
+      assertThat(bankClient.processPayment(request("2222405343248878"))).isPresent();
+      assertThat(bankClient.processPayment(invalid)).isEmpty();
+    }
+
+    assertThat(guard.circuitState()).isEqualTo(State.CLOSED);
+  }
+
+  @Test
+  void bankCallsAreTimedByHttpOutcome() {
+    bankClient.processPayment(request(AUTHORIZED_CARD));
+    bankClient.processPayment(request(UNAVAILABLE_CARD));
+    bankClient.processPayment(new BankPaymentRequest(AUTHORIZED_CARD, "04/2099", "GBP", 100, null));
+
+    for (String outcome : List.of("2xx", "4xx", "5xx")) {
+      assertThat(meterRegistry.get("bank.call.duration").tag("outcome", outcome).timer().count())
+          .isEqualTo(1);
+    }
+  }
+
+  @Test
+  void callsBeyondTheConcurrencyLimitAreShedWithoutReachingTheBank() throws Exception {
+    bank.setDelay(Duration.ofMillis(300));
+    Runnable payment = () -> bankClient.processPayment(request(AUTHORIZED_CARD));
+    Thread first = Thread.ofVirtual().start(payment);
+    Thread second = Thread.ofVirtual().start(payment);
+    Thread.sleep(100);
+
+    assertThat(bankClient.processPayment(request(AUTHORIZED_CARD))).isEmpty();
+
+    first.join();
+    second.join();
+    assertThat(bank.requests()).isEqualTo(2);
+  }
+
+  @Test
+  void bankCallIsCutShortByThePaymentDeadline() {
+    bank.setDelay(Duration.ofSeconds(2));
+
+    long startedAt = System.nanoTime();
+    assertThat(bankClient.processPayment(request(AUTHORIZED_CARD),
+        Deadline.after(Duration.ofMillis(200)))).isEmpty();
+
+    assertThat(Duration.ofNanos(System.nanoTime() - startedAt)).isLessThan(Duration.ofSeconds(1));
+    assertThat(guard.circuitState()).isEqualTo(State.CLOSED);
+  }
+
+  @Test
+  void emptyAnswerCountsAgainstTheBank() {
+    bank.setEmptyAnswers(true);
+
+    for (int i = 0; i < 5; i++) {
+      assertThat(bankClient.processPayment(request(AUTHORIZED_CARD))).isEmpty();
+    }
+
+    assertThat(guard.circuitState()).isEqualTo(State.OPEN);
+    assertThat(meterRegistry.get("bank.call.duration").tag("outcome", "bad_response").timer()
+        .count()).isEqualTo(5);
+  }
+
+  @Test
+  void expiredDeadlineNeverReachesTheBank() {
+    assertThat(bankClient.processPayment(request(AUTHORIZED_CARD),
+        Deadline.after(Duration.ZERO))).isEmpty();
+
+    assertThat(bank.requests()).isZero();
+  }
+
+  @Test
+  void slowFirstAttemptIsHedgedWithTheSameIdempotencyKey() {
+    BankClient hedgingClient = client(new HedgingPolicy(true, 0.95, Duration.ofMillis(50),
+        Duration.ofMillis(50), meterRegistry));
+    bank.setSlowResponses(2, Duration.ofSeconds(2));
+
+    long startedAt = System.nanoTime();
+    assertThat(hedgingClient.processPayment(request(AUTHORIZED_CARD))).isPresent();
+
+    assertThat(Duration.ofNanos(System.nanoTime() - startedAt)).isLessThan(Duration.ofSeconds(1));
+    assertThat(bank.requests()).isEqualTo(2);
+    List<String> keys = bank.idempotencyKeys();
+    assertThat(keys).hasSize(2).doesNotContainNull();
+    assertThat(keys.get(1)).isEqualTo(keys.get(0));
+    assertThat(meterRegistry.get("bank.call.hedges").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void fastAttemptIsNotHedged() {
+    BankClient hedgingClient = client(new HedgingPolicy(true, 0.95, Duration.ofSeconds(2),
+        Duration.ofSeconds(2), new SimpleMeterRegistry()));
+
+    assertThat(hedgingClient.processPayment(request(AUTHORIZED_CARD))).isPresent();
+
+    assertThat(bank.requests()).isEqualTo(1);
+  }
+
+  @Test
+  void concurrentPaymentsAreSentTogetherAndAnsweredFromTheirOwnSlots() {
+    BankClient batchingClient = batchingClient(6, Duration.ofMillis(500));
+    List<String> cards = List.of(AUTHORIZED_CARD, "2222405343248878", UNAVAILABLE_CARD,
+        "4111111111111111", "4111111111111112", "4111111111111113");
+
+    List<Optional<BankPaymentResponse>> responses;
+    try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+      responses = cards.stream()
+          .map(card -> CompletableFuture.supplyAsync(
+              () -> batchingClient.processPayment(request(card)), callers))
+          .toList().stream().map(CompletableFuture::join).toList();
+    }
+
+    assertThat(responses).extracting(response -> response.map(BankPaymentResponse::isAuthorized))
+        .containsExactly(Optional.of(true), Optional.of(false), Optional.empty(), Optional.of(true),
+            Optional.of(false), Optional.of(true));
+    assertThat(bank.requests()).isEqualTo(1);
+    assertThat(bank.batchedPayments()).isEqualTo(6);
+    assertThat(meterRegistry.get("bank.batch.size").summary().max()).isEqualTo(6);
+  }
+
+  @Test
+  void lonePaymentIsSentOnceItHasLingered() {
+    BankClient batchingClient = batchingClient(32, Duration.ofMillis(100));
+
+    long startedAt = System.nanoTime();
+    assertThat(batchingClient.processPayment(request(AUTHORIZED_CARD))).get()
+        .satisfies(response -> assertThat(response.isAuthorized()).isTrue());
+
+    assertThat(Duration.ofNanos(System.nanoTime() - startedAt))
+        .isBetween(Duration.ofMillis(100), Duration.ofSeconds(1));
+    assertThat(bank.batchedPayments()).isEqualTo(1);
+  }
+
+  @Test
+  void failedBatchFailsEveryPaymentInItAndCountsOnceAgainstTheBank() {
+    BankClient batchingClient = batchingClient(3, Duration.ofMillis(500));
+    bank.setUnavailable(true);
+
+    List<Optional<BankPaymentResponse>> responses;
+    try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+      responses = List.of(AUTHORIZED_CARD, AUTHORIZED_CARD, AUTHORIZED_CARD).stream()
+          .map(card -> CompletableFuture.supplyAsync(
+              () -> batchingClient.processPayment(request(card)), callers))
+          .toList().stream().map(CompletableFuture::join).toList();
+    }
+
+    assertThat(responses).containsOnly(Optional.empty()).hasSize(3);
+    assertThat(bank.requests()).isEqualTo(1);
+    assertThat(meterRegistry.get("bank.call.duration").tag("outcome", "5xx").timer().count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void batchAnswerOfTheWrongLengthCountsAgainstTheBank() {
+    BankClient batchingClient = batchingClient(3, Duration.ofMillis(500));
+    bank.setTruncatedBatches(true);
+
+    List<Optional<BankPaymentResponse>> responses;
+    try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+      responses = List.of(AUTHORIZED_CARD, AUTHORIZED_CARD, AUTHORIZED_CARD).stream()
+          .map(card -> CompletableFuture.supplyAsync(
+              () -> batchingClient.processPayment(request(card)), callers))
+          .toList().stream().map(CompletableFuture::join).toList();
+    }
+
+    assertThat(responses).containsOnly(Optional.empty()).hasSize(3);
+    assertThat(meterRegistry.get("bank.call.duration").tag("outcome", "bad_response").timer()
+        .count()).isEqualTo(1);
+    assertThat(meterRegistry.get("bank.call.duration").tag("outcome", "2xx").timer().count())
+        .isZero();
+  }
+
+  private BankClient batchingClient(int maxSize, Duration linger) {
+    return client(new HedgingPolicy(false, 0.95, Duration.ofMillis(20), Duration.ofSeconds(1),
+        new SimpleMeterRegistry()), new BatchingPolicy(true, maxSize, linger, meterRegistry));
+  }
+
+  private BankClient client(HedgingPolicy hedging) {
+    return client(hedging, new BatchingPolicy(false, 1, Duration.ZERO, meterRegistry));
+  }
+
+  private BankClient client(HedgingPolicy hedging, BatchingPolicy batching) {
+    HttpComponentsClientHttpRequestFactory requestFactory =
+        new HttpComponentsClientHttpRequestFactory(HttpClients.custom()
+            .disableAutomaticRetries()
+            .build());
+    requestFactory.setHttpContextFactory(
+        new DeadlineHttpContextFactory(Duration.ofSeconds(5), Duration.ofSeconds(1)));
+    return new BankClient(new RestTemplate(requestFactory), bank.url(), guard, hedging, batching,
+        new BankCallMetrics(false, meterRegistry));
+  }
+
+  private static BankPaymentRequest request(String cardNumber) {
+    return new BankPaymentRequest(cardNumber, "04/2099", "GBP", 100, "123");
+  }
+}
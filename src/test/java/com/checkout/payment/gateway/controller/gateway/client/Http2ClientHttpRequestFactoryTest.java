@@ -0,0 +1,98 @@
+package com.checkout.payment.gateway.controller.gateway.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.checkout.payment.gateway.client.BankCallGuard;
+import com.checkout.payment.gateway.client.BankCallMetrics;
+import com.checkout.payment.gateway.client.BankClient;
+import com.checkout.payment.gateway.client.HedgingPolicy;
+import com.checkout.payment.gateway.client.Http2ClientHttpRequestFactory;
+import com.checkout.payment.gateway.controller.gateway.support.Http2BankSimulatorStub;
+import com.checkout.payment.gateway.model.BankPaymentRequest;
+import com.checkout.payment.gateway.model.BankPaymentResponse;
+import com.checkout.payment.gateway.resilience.CircuitBreaker.State;
+import com.checkout.payment.gateway.resilience.Deadline;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+import reactor.netty.http.HttpProtocol;
+
+class Http2ClientHttpRequestFactoryTest {
+
+  private static final String AUTHORIZED_CARD = "2222405343248877";
+
+  private final Http2BankSimulatorStub bank = new Http2BankSimulatorStub();
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final BankCallGuard guard = new BankCallGuard(10, 5, 50, Duration.ofSeconds(30), 2,
+      100, 100, 100, Duration.ofSeconds(2), 0.9, Clock.systemUTC(), meterRegistry);
+  private final BankClient bankClient = new BankClient(new RestTemplate(
+      new Http2ClientHttpRequestFactory(HttpProtocol.H2C, 1, 100, Duration.ofSeconds(1),
+          Duration.ofSeconds(5), Duration.ofSeconds(1))),
+      bank.url(), guard, new HedgingPolicy(false, 0.95, Duration.ofMillis(20),
+          Duration.ofSeconds(1), meterRegistry), new BankCallMetrics(false, meterRegistry));
+
+  @AfterEach
+  void stopBank() {
+    bank.close();
+  }
+
+  @Test
+  void concurrentPaymentsShareOneConnection() {
+    bank.setDelay(Duration.ofMillis(100));
+
+    List<Optional<BankPaymentResponse>> responses;
+    try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+      responses = IntStream.range(0, 50)
+          .mapToObj(i -> CompletableFuture.supplyAsync(
+              () -> bankClient.processPayment(request(AUTHORIZED_CARD)), callers))
+          .toList().stream().map(CompletableFuture::join).toList();
+    }
+
+    assertThat(responses).allSatisfy(response -> assertThat(response).get()
+        .extracting(BankPaymentResponse::isAuthorized).isEqualTo(true));
+    assertThat(bank.requests()).isEqualTo(50);
+    assertThat(bank.connections()).isEqualTo(1);
+  }
+
+  @Test
+  void bankAnswersAreMappedAsOverHttp11() {
+    assertThat(bankClient.processPayment(request("2222405343248878"))).get()
+        .extracting(BankPaymentResponse::isAuthorized).isEqualTo(false);
+    assertThat(bankClient.processPayment(request("2222405343248870"))).isEmpty();
+    assertThat(bankClient.processPayment(
+        new BankPaymentRequest(AUTHORIZED_CARD, "04/2099", "GBP", 100, null))).isEmpty();
+
+    for (String outcome : List.of("2xx", "4xx", "5xx")) {
+      assertThat(meterRegistry.get("bank.call.duration").tag("outcome", outcome).timer().count())
+          .isEqualTo(1);
+    }
+  }
+
+  @Test
+  void bankCallIsCutShortByThePaymentDeadline() {
+    bank.setDelay(Duration.ofSeconds(2));
+
+    long startedAt = System.nanoTime();
+    assertThat(bankClient.processPayment(request(AUTHORIZED_CARD),
+        Deadline.after(Duration.ofMillis(200)))).isEmpty();
+
+    assertThat(Duration.ofNanos(System.nanoTime() - startedAt)).isLessThan(Duration.ofSeconds(1));
+    assertThat(meterRegistry.get("bank.call.duration").tag("outcome", "timeout").timer().count())
+        .isEqualTo(1);
+    assertThat(guard.circuitState()).isEqualTo(State.CLOSED);
+  }
+
+  private static BankPaymentRequest request(String cardNumber) {
+    return new BankPaymentRequest(cardNumber, "04/2099", "GBP", 100, "123");
+  }
+}
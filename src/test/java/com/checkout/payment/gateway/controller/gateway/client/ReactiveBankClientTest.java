@@ -0,0 +1,70 @@
+package com.checkout.payment.gateway.controller.gateway.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.checkout.payment.gateway.client.BankCallGuard;
+import com.checkout.payment.gateway.client.BankCallMetrics;
+import com.checkout.payment.gateway.client.BankCallResult;
+import com.checkout.payment.gateway.client.BankCallResult.Outcome;
+import com.checkout.payment.gateway.client.HedgingPolicy;
+import com.checkout.payment.gateway.client.ReactiveBankClient;
+import com.checkout.payment.gateway.controller.gateway.support.BankSimulatorStub;
+import com.checkout.payment.gateway.controller.gateway.support.MutableClock;
+import com.checkout.payment.gateway.model.BankPaymentRequest;
+import com.checkout.payment.gateway.resilience.CircuitBreaker.State;
+import com.checkout.payment.gateway.resilience.Deadline;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+class ReactiveBankClientTest {
+
+  private static final BankPaymentRequest REQUEST =
+      new BankPaymentRequest("2222405343248877", "04/2099", "GBP", 100, "123");
+
+  private final BankSimulatorStub bank = new BankSimulatorStub();
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final BankCallGuard guard = new BankCallGuard(10, 5, 50, Duration.ofSeconds(30), 2,
+      2, 1, 4, Duration.ofMillis(500), 0.5, new MutableClock(), new SimpleMeterRegistry());
+  private final ReactiveBankClient bankClient = new ReactiveBankClient(WebClient.create(),
+      bank.url(), guard, new HedgingPolicy(false, 0.95, Duration.ofMillis(20),
+          Duration.ofSeconds(1), new SimpleMeterRegistry()),
+      new BankCallMetrics(false, meterRegistry));
+
+  @AfterEach
+  void stopBank() {
+    bank.close();
+  }
+
+  @Test
+  void answerIsASuccess() {
+    BankCallResult result = bankClient.call(REQUEST, Deadline.none()).block();
+
+    assertThat(result.outcome()).isEqualTo(Outcome.ANSWERED);
+    assertThat(result.response()).get()
+        .satisfies(response -> assertThat(response.isAuthorized()).isTrue());
+    assertThat(meterRegistry.get("bank.call.duration").tag("outcome", "2xx").timer().count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void emptyAnswerCountsAgainstTheBankAsInTheBlockingClient() {
+    bank.setEmptyAnswers(true);
+
+    BankCallResult result = bankClient.call(REQUEST, Deadline.none()).block();
+    for (int i = 1; i < 5; i++) {
+      bankClient.call(REQUEST, Deadline.none()).block();
+    }
+
+    assertThat(result.outcome()).isEqualTo(Outcome.FAILED);
+    assertThat(result.canFailOver()).isTrue();
+    assertThat(guard.circuitState()).isEqualTo(State.OPEN);
+    assertThat(meterRegistry.get("bank.call.duration").tag("outcome", "bad_response").timer()
+        .count()).isEqualTo(5);
+    assertThat(meterRegistry.get("bank.call.duration").tag("outcome", "2xx").timer().count())
+        .isZero();
+  }
+}
@@ -0,0 +1,108 @@
+package com.checkout.payment.gateway.controller.gateway.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.checkout.payment.gateway.client.BankClient;
+import com.checkout.payment.gateway.client.ReactiveBankClient;
+import com.checkout.payment.gateway.controller.gateway.support.BankSimulatorStub;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.service.PaymentGatewayService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+@SpringBootTest(properties = {
+    "bank.acquirers=sterling,global",
+    "bank.acquirer.sterling.currencies=GBP,gbp",
+    "bank.acquirer.global.card-bins=222100-272099,4"
+})
+class AcquirerRoutingConfigurationTest {
+
+  private static final BankSimulatorStub STERLING = new BankSimulatorStub();
+  private static final BankSimulatorStub GLOBAL = new BankSimulatorStub();
+
+  @Autowired
+  private PaymentGatewayService paymentGatewayService;
+  @Autowired
+  private MeterRegistry meterRegistry;
+  @Autowired
+  private ApplicationContext context;
+
+  @DynamicPropertySource
+  static void acquirerProperties(DynamicPropertyRegistry registry) {
+    registry.add("bank.acquirer.sterling.url", STERLING::url);
+    registry.add("bank.acquirer.global.url", GLOBAL::url);
+  }
+
+  @AfterAll
+  static void stopBanks() {
+    STERLING.close();
+    GLOBAL.close();
+  }
+
+  @BeforeEach
+  void resetBanks() {
+    STERLING.reset();
+    GLOBAL.reset();
+  }
+
+  @Test
+  void paymentsAreRoutedByTheConfiguredCurrenciesAndCardBins() {
+    assertThat(paymentGatewayService.processPayment(request("4111111111111111", "USD"))
+        .getStatus()).isEqualTo(PaymentStatus.AUTHORIZED);
+    assertThat(paymentGatewayService.processPayment(request("5555555555554445", "GBP"))
+        .getStatus()).isEqualTo(PaymentStatus.AUTHORIZED);
+
+    assertThat(GLOBAL.requests()).isEqualTo(1);
+    assertThat(STERLING.requests()).isEqualTo(1);
+  }
+
+  @Test
+  void currenciesMatchInAnyCase() {
+    assertThat(paymentGatewayService.processPayment(request("5555555555554445", "gbp"))
+        .getStatus()).isEqualTo(PaymentStatus.AUTHORIZED);
+
+    assertThat(STERLING.requests()).isEqualTo(1);
+    assertThat(GLOBAL.requests()).isZero();
+  }
+
+  @Test
+  void noClientIsBuiltForTheDefaultBank() {
+    assertThat(context.getBeanProvider(BankClient.class).getIfAvailable()).isNull();
+    assertThat(context.getBeanProvider(ReactiveBankClient.class).getIfAvailable()).isNull();
+  }
+
+  @Test
+  void paymentFailsOverToAnotherAcquirerTakingIt() {
+    STERLING.setUnavailable(true);
+    double failovers = meterRegistry.get("bank.acquirer.failovers")
+        .tag("acquirer", "sterling").counter().count();
+
+    for (int i = 0; i < 5; i++) {
+      assertThat(paymentGatewayService.processPayment(request("2222405343248877", "GBP"))
+          .getStatus()).isEqualTo(PaymentStatus.AUTHORIZED);
+    }
+
+    assertThat(GLOBAL.requests()).isEqualTo(5);
+    assertThat(meterRegistry.get("bank.acquirer.failovers").tag("acquirer", "sterling")
+        .counter().count()).isEqualTo(failovers + STERLING.requests());
+  }
+
+  private static PostPaymentRequest request(String cardNumber, String currency) {
+    PostPaymentRequest request = new PostPaymentRequest();
+    request.setCardNumber(cardNumber);
+    request.setExpiryMonth(4);
+    request.setExpiryYear(2099);
+    request.setCurrency(currency);
+    request.setAmount(100);
+    request.setCvv("123");
+    return request;
+  }
+}
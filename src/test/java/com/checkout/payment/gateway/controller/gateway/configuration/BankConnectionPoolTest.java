@@ -0,0 +1,100 @@
+package com.checkout.payment.gateway.controller.gateway.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.checkout.payment.gateway.controller.gateway.support.BankSimulatorStub;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.service.PaymentGatewayService;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+@SpringBootTest(properties = {
+    "bank.http.max-connections-per-route=4",
+    "bank.http.connection-request-timeout=200ms"
+})
+class BankConnectionPoolTest {
+
+  private static final BankSimulatorStub BANK = new BankSimulatorStub();
+
+  @Autowired
+  private PaymentGatewayService paymentGatewayService;
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @DynamicPropertySource
+  static void bankProperties(DynamicPropertyRegistry registry) {
+    registry.add("bank.simulator.url", BANK::url);
+  }
+
+  @AfterAll
+  static void stopBank() {
+    BANK.close();
+  }
+
+  @BeforeEach
+  void resetBank() {
+    BANK.reset();
+  }
+
+  @Test
+  void sequentialPaymentsReuseKeptAliveConnections() {
+    paymentGatewayService.processPayment(request());
+    double open = poolGauge("httpcomponents.httpclient.pool.total.connections", "available");
+
+    for (int i = 0; i < 20; i++) {
+      assertThat(paymentGatewayService.processPayment(request()).getStatus())
+          .isEqualTo(PaymentStatus.AUTHORIZED);
+    }
+
+    assertThat(poolGauge("httpcomponents.httpclient.pool.total.connections", "available"))
+        .isEqualTo(open);
+    assertThat(poolGauge("httpcomponents.httpclient.pool.total.connections", "leased"))
+        .isZero();
+  }
+
+  @Test
+  void paymentWaitingTooLongForAConnectionIsRejected() {
+    BANK.setDelay(Duration.ofMillis(1000));
+
+    List<CompletableFuture<PaymentStatus>> statuses;
+    try (ExecutorService callers = Executors.newFixedThreadPool(8)) {
+      statuses = IntStream.range(0, 8)
+          .mapToObj(i -> CompletableFuture.supplyAsync(
+              () -> paymentGatewayService.processPayment(request()).getStatus(), callers))
+          .toList();
+    }
+
+    assertThat(statuses.stream().map(CompletableFuture::join))
+        .containsOnly(PaymentStatus.AUTHORIZED, PaymentStatus.REJECTED)
+        .filteredOn(PaymentStatus.REJECTED::equals).hasSize(4);
+    assertThat(BANK.maxInFlight()).isEqualTo(4);
+  }
+
+  private double poolGauge(String name, String state) {
+    return meterRegistry.get(name).tag("httpclient", "bank").tag("state", state).gauge().value();
+  }
+
+  private static PostPaymentRequest request() {
+    PostPaymentRequest request = new PostPaymentRequest();
+    request.setCardNumber("2222405343248877");
+    request.setExpiryMonth(4);
+    request.setExpiryYear(2099);
+    request.setCurrency("GBP");
+    request.setAmount(100);
+    request.setCvv("123");
+    return request;
+  }
+}
@@ -0,0 +1,70 @@
+package com.checkout.payment.gateway.controller.gateway.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.checkout.payment.gateway.controller.gateway.support.Http2BankSimulatorStub;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.service.PaymentGatewayService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+@SpringBootTest(properties = "bank.http.protocol=H2C")
+class BankHttp2ConfigurationTest {
+
+  private static final Http2BankSimulatorStub BANK = new Http2BankSimulatorStub();
+
+  @Autowired
+  private PaymentGatewayService paymentGatewayService;
+  @Autowired
+  private ApplicationContext context;
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @DynamicPropertySource
+  static void bankProperties(DynamicPropertyRegistry registry) {
+    registry.add("bank.simulator.url", BANK::url);
+  }
+
+  @AfterAll
+  static void stopBank() {
+    BANK.close();
+  }
+
+  @Test
+  void paymentsGoToTheBankOverHttp2() {
+    assertThat(paymentGatewayService.processPayment(request("2222405343248877")).getStatus())
+        .isEqualTo(PaymentStatus.AUTHORIZED);
+    assertThat(paymentGatewayService.processPayment(request("2222405343248878")).getStatus())
+        .isEqualTo(PaymentStatus.DECLINED);
+
+    assertThat(BANK.requests()).isEqualTo(2);
+    assertThat(BANK.connections()).isEqualTo(1);
+  }
+
+  @Test
+  void noHttp11PoolIsBuilt() {
+    assertThat(context.getBeanProvider(PoolingHttpClientConnectionManager.class).getIfAvailable())
+        .isNull();
+    assertThat(meterRegistry.find("httpcomponents.httpclient.pool.total.connections").gauge())
+        .isNull();
+  }
+
+  private static PostPaymentRequest request(String cardNumber) {
+    PostPaymentRequest request = new PostPaymentRequest();
+    request.setCardNumber(cardNumber);
+    request.setExpiryMonth(4);
+    request.setExpiryYear(2099);
+    request.setCurrency("GBP");
+    request.setAmount(100);
+    request.setCvv("123");
+    return request;
+  }
+}
@@ -0,0 +1,55 @@
+package com.checkout.payment.gateway.controller.gateway.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.repository.JdbcPaymentsRepository;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+@SpringBootTest(properties = {
+    "payments.repository.type=jdbc",
+    "payments.repository.jdbc.url=jdbc:h2:mem:payments;DB_CLOSE_DELAY=-1",
+    "payments.repository.jdbc.pool-size=4"
+})
+@AutoConfigureMockMvc
+class JdbcRepositoryConfigurationTest {
+
+  @Autowired
+  private MockMvc mvc;
+  @Autowired
+  private PaymentsRepository paymentsRepository;
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Test
+  void paymentsAreServedFromTheDatabaseThroughThePool() throws Exception {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(UUID.randomUUID());
+    payment.setStatus(PaymentStatus.AUTHORIZED);
+    payment.setCardNumberLastFour(4321);
+    payment.setExpiryMonth(12);
+    payment.setExpiryYear(2030);
+    payment.setCurrency("USD");
+    payment.setAmount(10);
+
+    paymentsRepository.add(payment);
+
+    assertThat(paymentsRepository).isInstanceOf(JdbcPaymentsRepository.class);
+    mvc.perform(MockMvcRequestBuilders.get("/payment/" + payment.getId()))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.cardNumberLastFour").value(4321));
+    assertThat(meterRegistry.get("hikaricp.connections.max").tag("pool", "payments").gauge()
+        .value()).isEqualTo(4);
+  }
+}
@@ -0,0 +1,50 @@
+package com.checkout.payment.gateway.controller.gateway.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.repository.CachingPaymentsRepository;
+import com.checkout.payment.gateway.repository.InMemoryPaymentsRepository;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.checkout.payment.gateway.repository.WriteBehindPaymentsRepository;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = {
+    "payments.repository.write-behind.enabled=true",
+    "payments.repository.cache.enabled=true"
+})
+class PaymentsRepositoryConfigurationTest {
+
+  @Autowired
+  private PaymentsRepository paymentsRepository;
+  @Autowired
+  @Qualifier(PaymentsRepository.STORE)
+  private PaymentsRepository store;
+  @Autowired
+  private WriteBehindPaymentsRepository writeBehind;
+
+  @Test
+  void enabledLayersWrapTheStore() throws InterruptedException {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(UUID.randomUUID());
+    payment.setStatus(PaymentStatus.AUTHORIZED);
+    payment.setCurrency("GBP");
+
+    paymentsRepository.add(payment);
+
+    assertThat(paymentsRepository).isInstanceOf(CachingPaymentsRepository.class);
+    assertThat(store).isInstanceOf(InMemoryPaymentsRepository.class);
+    assertThat(paymentsRepository.get(payment.getId())).containsSame(payment);
+    long deadline = System.nanoTime() + 5_000_000_000L;
+    while (store.get(payment.getId()).isEmpty() && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    assertThat(store.get(payment.getId())).isPresent();
+    assertThat(writeBehind.get(payment.getId())).isPresent();
+  }
+}
@@ -0,0 +1,71 @@
+package com.checkout.payment.gateway.controller.gateway.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.checkout.payment.gateway.controller.gateway.support.BankSimulatorStub;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Holds far more payments open against a slow bank than there are Tomcat worker threads, which is
+ * only possible when requests run on virtual threads.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "payments.threads.virtual.enabled=true",
+    "server.tomcat.threads.max=8",
+    "bank.http.max-connections-per-route=200",
+    "bank.concurrency.initial-limit=200"
+})
+class VirtualThreadLoadTest {
+
+  private static final int CONCURRENT_PAYMENTS = 200;
+  private static final BankSimulatorStub BANK = new BankSimulatorStub();
+
+  @LocalServerPort
+  private int port;
+
+  @DynamicPropertySource
+  static void bankProperties(DynamicPropertyRegistry registry) {
+    registry.add("bank.simulator.url", BANK::url);
+  }
+
+  @AfterAll
+  static void stopBank() {
+    BANK.close();
+  }
+
+  @Test
+  void inFlightPaymentsScalePastThePlatformThreadPool() {
+    BANK.setDelay(Duration.ofMillis(1500));
+    HttpClient client = HttpClient.newHttpClient();
+    HttpRequest request = HttpRequest.newBuilder(
+            URI.create("http://localhost:" + port + "/payment"))
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString("""
+            {"card_number":"2222405343248877","expiry_month":4,"expiry_year":2099,
+             "currency":"GBP","amount":100,"cvv":"123"}"""))
+        .build();
+
+    List<CompletableFuture<HttpResponse<String>>> responses = IntStream.range(0,
+            CONCURRENT_PAYMENTS)
+        .mapToObj(i -> client.sendAsync(request, HttpResponse.BodyHandlers.ofString()))
+        .toList();
+
+    assertThat(responses).allSatisfy(response -> assertThat(response.join())
+        .satisfies(r -> assertThat(r.statusCode()).isEqualTo(200))
+        .satisfies(r -> assertThat(r.body()).contains("\"status\":\"Authorized\"")));
+    assertThat(BANK.maxInFlight()).isGreaterThan(CONCURRENT_PAYMENTS / 2);
+  }
+}
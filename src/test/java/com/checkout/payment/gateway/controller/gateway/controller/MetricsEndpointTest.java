@@ -0,0 +1,40 @@
+package com.checkout.payment.gateway.controller.gateway.controller;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsEndpointTest {
+
+  @Autowired
+  private MockMvc mvc;
+
+  @Test
+  void paymentMetricsAreScrapedByPrometheus() throws Exception {
+    mvc.perform(MockMvcRequestBuilders.post("/payment")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"card_number\":\"123\"}"))
+        .andExpect(status().isBadRequest());
+
+    mvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+        .andExpect(status().isOk())
+        .andExpect(content().string(containsString(
+            "payments_stage_duration_seconds_bucket{stage=\"validation\"")))
+        .andExpect(content().string(containsString(
+            "payments_processed_total{status=\"rejected\",} 1.0")))
+        .andExpect(content().string(containsString("bank_call_duration_seconds_count")))
+        .andExpect(content().string(containsString("payments_repository_size")));
+  }
+}
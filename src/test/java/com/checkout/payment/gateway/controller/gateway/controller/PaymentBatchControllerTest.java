@@ -0,0 +1,164 @@
+package com.checkout.payment.gateway.controller.gateway.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.checkout.payment.gateway.controller.gateway.support.BankSimulatorStub;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {"payments.batch.parallelism=4", "payments.batch.max-size=50"})
+class PaymentBatchControllerTest {
+
+  private static final BankSimulatorStub BANK = new BankSimulatorStub();
+
+  @Autowired
+  private WebTestClient webClient;
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @DynamicPropertySource
+  static void bankProperties(DynamicPropertyRegistry registry) {
+    registry.add("bank.simulator.url", BANK::url);
+  }
+
+  @BeforeEach
+  void resetBank() {
+    BANK.reset();
+  }
+
+  @AfterAll
+  static void stopBank() {
+    BANK.close();
+  }
+
+  @Test
+  void jsonArrayIsAnsweredWithOneLinePerPaymentInInputOrder() throws Exception {
+    Map<String, Object> invalid = validRequest("2222405343248875");
+    invalid.put("currency", "JPY");
+
+    List<PostPaymentResponse> results = postBatch(MediaType.APPLICATION_JSON,
+        objectMapper.writeValueAsString(List.of(validRequest("2222405343248877"),
+            validRequest("2222405343248878"), invalid, validRequest("2222405343248871"))));
+
+    assertThat(results).extracting(PostPaymentResponse::getStatus).containsExactly(
+        PaymentStatus.AUTHORIZED, PaymentStatus.DECLINED, PaymentStatus.REJECTED,
+        PaymentStatus.AUTHORIZED);
+    assertThat(results).extracting(PostPaymentResponse::getCardNumberLastFour)
+        .containsExactly(8877, 8878, 8875, 8871);
+  }
+
+  @Test
+  void ndjsonBodyIsAccepted() throws Exception {
+    String body = objectMapper.writeValueAsString(validRequest("2222405343248877")) + "\n"
+        + objectMapper.writeValueAsString(validRequest("2222405343248878")) + "\n";
+
+    assertThat(postBatch(MediaType.APPLICATION_NDJSON, body))
+        .extracting(PostPaymentResponse::getStatus)
+        .containsExactly(PaymentStatus.AUTHORIZED, PaymentStatus.DECLINED);
+  }
+
+  @Test
+  void invalidPaymentsNeverReachTheBank() throws Exception {
+    Map<String, Object> invalid = validRequest("2222405343248877");
+    invalid.put("cvv", "12");
+
+    List<PostPaymentResponse> results = postBatch(MediaType.APPLICATION_JSON,
+        objectMapper.writeValueAsString(List.of(invalid, validRequest("2222405343248877"),
+            invalid)));
+
+    assertThat(results).extracting(PostPaymentResponse::getStatus).containsExactly(
+        PaymentStatus.REJECTED, PaymentStatus.AUTHORIZED, PaymentStatus.REJECTED);
+    assertThat(BANK.requests()).isEqualTo(1);
+  }
+
+  @Test
+  void bankCallsAreBoundedAndASlowPaymentDoesNotReorderResults() throws Exception {
+    BANK.setDelay(Duration.ofMillis(20));
+    BANK.setSlowResponses(1_000, Duration.ofMillis(300));
+    List<Map<String, Object>> batch = IntStream.range(0, 40)
+        .mapToObj(i -> validRequest("22224053432" + (10_001 + 2 * i)))
+        .collect(Collectors.toCollection(ArrayList::new));
+
+    List<PostPaymentResponse> results =
+        postBatch(MediaType.APPLICATION_JSON, objectMapper.writeValueAsString(batch));
+
+    assertThat(results).extracting(PostPaymentResponse::getCardNumberLastFour)
+        .containsExactlyElementsOf(IntStream.range(0, 40).map(i -> 1 + 2 * i).boxed().toList());
+    assertThat(results).extracting(PostPaymentResponse::getStatus)
+        .containsOnly(PaymentStatus.AUTHORIZED);
+    assertThat(BANK.requests()).isEqualTo(40);
+    assertThat(BANK.maxInFlight()).isLessThanOrEqualTo(4);
+  }
+
+  @Test
+  void malformedBatchIsABadRequest() {
+    webClient.post().uri("/payments/batch")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("[{\"card_number\": ")
+        .exchange()
+        .expectStatus().isBadRequest();
+    assertThat(BANK.requests()).isZero();
+  }
+
+  @Test
+  void batchLargerThanTheLimitIsRefused() throws Exception {
+    List<Map<String, Object>> batch = IntStream.range(0, 51)
+        .mapToObj(i -> validRequest("2222405343248877"))
+        .toList();
+
+    webClient.post().uri("/payments/batch")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(objectMapper.writeValueAsString(batch))
+        .exchange()
+        .expectStatus().isEqualTo(413);
+    assertThat(BANK.requests()).isZero();
+  }
+
+  // helper methods
+
+  private List<PostPaymentResponse> postBatch(MediaType contentType, String body)
+      throws Exception {
+    String lines = webClient.post().uri("/payments/batch")
+        .contentType(contentType)
+        .bodyValue(body)
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+        .expectBody(String.class)
+        .returnResult().getResponseBody();
+    List<PostPaymentResponse> results = new ArrayList<>();
+    for (String line : lines.split("\n")) {
+      results.add(objectMapper.readValue(line, PostPaymentResponse.class));
+    }
+    return results;
+  }
+
+  private Map<String, Object> validRequest(String cardNumber) {
+    Map<String, Object> req = new HashMap<>();
+    req.put("card_number", cardNumber);
+    req.put("expiry_month", 4);
+    req.put("expiry_year", 2099);
+    req.put("currency", "GBP");
+    req.put("amount", 100);
+    req.put("cvv", "123");
+    return req;
+  }
+}
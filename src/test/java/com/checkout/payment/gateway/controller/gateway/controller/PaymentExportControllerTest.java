@@ -0,0 +1,163 @@
+package com.checkout.payment.gateway.controller.gateway.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.checkout.payment.gateway.controller.PaymentExportController;
+import com.checkout.payment.gateway.controller.gateway.support.MutableClock;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.repository.InMemoryPaymentsRepository;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class PaymentExportControllerTest {
+
+  private static final int STREAMED_PAYMENTS = 10_000;
+
+  @LocalServerPort
+  private int port;
+  @Autowired
+  private PaymentsRepository paymentsRepository;
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  private final HttpClient client = HttpClient.newHttpClient();
+
+  @Test
+  void exportIsFilteredByStatusCurrencyAndTimeWindow() throws Exception {
+    Instant windowStart = Instant.now();
+    PostPaymentResponse authorized = payment(PaymentStatus.AUTHORIZED, "USD");
+    PostPaymentResponse declined = payment(PaymentStatus.DECLINED, "USD");
+    paymentsRepository.add(authorized);
+    paymentsRepository.add(declined);
+    paymentsRepository.add(payment(PaymentStatus.AUTHORIZED, "GBP"));
+    Instant windowEnd = Instant.now().plusMillis(1);
+
+    HttpResponse<String> response = export("?status=authorized&currency=USD&from=" + windowStart
+        + "&to=" + windowEnd, HttpResponse.BodyHandlers.ofString());
+
+    assertThat(response.statusCode()).isEqualTo(200);
+    assertThat(response.headers().firstValue("Content-Type")).get().asString()
+        .startsWith("application/x-ndjson");
+    assertThat(response.body()).endsWith("\n");
+    List<PostPaymentResponse> exported = new ArrayList<>();
+    for (String line : response.body().split("\n")) {
+      exported.add(objectMapper.readValue(line, PostPaymentResponse.class));
+    }
+    assertThat(exported).singleElement().usingRecursiveComparison().isEqualTo(authorized);
+  }
+
+  @Test
+  void exportWithAnUnknownStatusOrCurrencyIsABadRequest() throws Exception {
+    assertThat(export("?status=Pending", HttpResponse.BodyHandlers.discarding()).statusCode())
+        .isEqualTo(400);
+    assertThat(export("?currency=POUND", HttpResponse.BodyHandlers.discarding()).statusCode())
+        .isEqualTo(400);
+  }
+
+  @Test
+  void currencyFilterIgnoresCase() throws Exception {
+    PostPaymentResponse euro = payment(PaymentStatus.AUTHORIZED, "EUR");
+    paymentsRepository.add(euro);
+
+    HttpResponse<String> response = export("?currency=eur&from=" + Instant.now().minusSeconds(60),
+        HttpResponse.BodyHandlers.ofString());
+
+    assertThat(response.body()).contains(euro.getId().toString());
+  }
+
+  @Test
+  void paymentsAreWrittenAsTheyAreReadFromTheStore() throws Exception {
+    // The store reads the clock once for every page of up to 1024 payments it scans
+    AtomicInteger pages = new AtomicInteger();
+    MutableClock clock = new MutableClock() {
+      @Override
+      public Instant instant() {
+        pages.incrementAndGet();
+        return super.instant();
+      }
+    };
+    InMemoryPaymentsRepository store = new InMemoryPaymentsRepository(2 * STREAMED_PAYMENTS,
+        Duration.ofDays(1), 4, clock, new SimpleMeterRegistry());
+    for (int i = 0; i < STREAMED_PAYMENTS; i++) {
+      store.add(payment(PaymentStatus.AUTHORIZED, "EUR"));
+    }
+    pages.set(0);
+    AtomicInteger pagesBeforeFirstWrite = new AtomicInteger(-1);
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    MockHttpServletResponse response = new MockHttpServletResponse() {
+      @Override
+      public ServletOutputStream getOutputStream() {
+        return new ServletOutputStream() {
+          @Override
+          public void write(int b) {
+            write(new byte[] {(byte) b}, 0, 1);
+          }
+
+          @Override
+          public void write(byte[] bytes, int offset, int length) {
+            pagesBeforeFirstWrite.compareAndSet(-1, pages.get());
+            body.write(bytes, offset, length);
+          }
+
+          @Override
+          public boolean isReady() {
+            return true;
+          }
+
+          @Override
+          public void setWriteListener(WriteListener writeListener) {
+          }
+        };
+      }
+    };
+
+    new PaymentExportController(store, objectMapper).exportPayments(null, null, null, null,
+        response);
+
+    assertThat(body.toString(StandardCharsets.UTF_8).split("\n")).hasSize(STREAMED_PAYMENTS);
+    // Four segments of about 2500 payments each take at least 12 pages; buffering the export, or
+    // even one segment of it, would scan several pages before writing anything
+    assertThat(pages.get()).isGreaterThanOrEqualTo(12);
+    assertThat(pagesBeforeFirstWrite.get()).isEqualTo(1);
+  }
+
+  private <T> HttpResponse<T> export(String query, HttpResponse.BodyHandler<T> bodyHandler)
+      throws Exception {
+    return client.send(HttpRequest.newBuilder(
+        URI.create("http://localhost:" + port + "/payments" + query)).build(), bodyHandler);
+  }
+
+  private static PostPaymentResponse payment(PaymentStatus status, String currency) {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(UUID.randomUUID());
+    payment.setStatus(status);
+    payment.setCardNumberLastFour(8877);
+    payment.setExpiryMonth(4);
+    payment.setExpiryYear(2027);
+    payment.setCurrency(currency);
+    payment.setAmount(100);
+    return payment;
+  }
+}
@@ -0,0 +1,163 @@
+package com.checkout.payment.gateway.controller.gateway.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.checkout.payment.gateway.controller.RequestDeadlines;
+import com.checkout.payment.gateway.controller.gateway.support.BankSimulatorStub;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.service.IdempotencyCache;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "payments.pipeline=reactive")
+class ReactivePaymentGatewayControllerTest {
+
+  private static final BankSimulatorStub BANK = new BankSimulatorStub();
+
+  @Autowired
+  private WebTestClient webClient;
+
+  @DynamicPropertySource
+  static void bankProperties(DynamicPropertyRegistry registry) {
+    registry.add("bank.simulator.url", BANK::url);
+  }
+
+  @AfterAll
+  static void stopBank() {
+    BANK.close();
+  }
+
+  @Test
+  void cardEndingInOddDigitIsAuthorizedAndCanBeRetrieved() {
+    PostPaymentResponse payment = postPayment(validRequest("2222405343248877"))
+        .expectStatus().isOk()
+        .expectBody(PostPaymentResponse.class)
+        .returnResult().getResponseBody();
+
+    assertThat(payment.getStatus()).isEqualTo(PaymentStatus.AUTHORIZED);
+    assertThat(payment.getCardNumberLastFour()).isEqualTo(8877);
+    webClient.get().uri("/payment/" + payment.getId())
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody().jsonPath("$.status").isEqualTo("Authorized");
+  }
+
+  @Test
+  void cardEndingInEvenDigitIsDeclined() {
+    postPayment(validRequest("2222405343248878"))
+        .expectStatus().isOk()
+        .expectBody().jsonPath("$.status").isEqualTo("Declined");
+  }
+
+  @Test
+  void bankUnavailableIsRejected() {
+    postPayment(validRequest("2222405343248870"))
+        .expectStatus().isBadRequest()
+        .expectBody().jsonPath("$.status").isEqualTo("Rejected");
+  }
+
+  @Test
+  void invalidRequestIsRejectedWithoutCallingTheBank() {
+    int bankRequests = BANK.requests();
+    Map<String, Object> request = validRequest("2222405343248877");
+    request.put("currency", "JPY");
+
+    postPayment(request)
+        .expectStatus().isBadRequest()
+        .expectBody().jsonPath("$.status").isEqualTo("Rejected");
+    assertThat(BANK.requests()).isEqualTo(bankRequests);
+  }
+
+  @Test
+  void paymentOutlivingTheRequestTimeoutHeaderIsRejected() {
+    BANK.setDelay(Duration.ofSeconds(2));
+    try {
+      long startedAt = System.nanoTime();
+      webClient.post().uri("/payment")
+          .contentType(MediaType.APPLICATION_JSON)
+          .header(RequestDeadlines.HEADER, "200")
+          .bodyValue(validRequest("2222405343248877"))
+          .exchange()
+          .expectStatus().isBadRequest()
+          .expectBody().jsonPath("$.status").isEqualTo("Rejected");
+
+      assertThat(Duration.ofNanos(System.nanoTime() - startedAt))
+          .isLessThan(Duration.ofSeconds(1));
+    } finally {
+      BANK.setDelay(Duration.ZERO);
+    }
+  }
+
+  @Test
+  void retryWithTheSameIdempotencyKeyReturnsTheOriginalPayment() {
+    int bankRequests = BANK.requests();
+    String key = UUID.randomUUID().toString();
+
+    PostPaymentResponse first = postPayment(validRequest("2222405343248877"), key)
+        .expectStatus().isOk()
+        .expectBody(PostPaymentResponse.class).returnResult().getResponseBody();
+    PostPaymentResponse retry = postPayment(validRequest("2222405343248877"), key)
+        .expectStatus().isOk()
+        .expectBody(PostPaymentResponse.class).returnResult().getResponseBody();
+
+    assertThat(retry.getId()).isEqualTo(first.getId());
+    assertThat(BANK.requests()).isEqualTo(bankRequests + 1);
+  }
+
+  @Test
+  void reusingAnIdempotencyKeyForAnotherPaymentIsUnprocessable() {
+    String key = UUID.randomUUID().toString();
+    postPayment(validRequest("2222405343248877"), key).expectStatus().isOk();
+
+    postPayment(validRequest("2222405343248112"), key)
+        .expectStatus().isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+  }
+
+  @Test
+  void unknownPaymentIsNotFound() {
+    webClient.get().uri("/payment/" + UUID.randomUUID())
+        .exchange()
+        .expectStatus().isNotFound()
+        .expectBody().jsonPath("$.message").isEqualTo("Page not found");
+  }
+
+  private WebTestClient.ResponseSpec postPayment(Map<String, Object> body) {
+    return webClient.post().uri("/payment")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(body)
+        .exchange();
+  }
+
+  private WebTestClient.ResponseSpec postPayment(Map<String, Object> body,
+      String idempotencyKey) {
+    return webClient.post().uri("/payment")
+        .contentType(MediaType.APPLICATION_JSON)
+        .header(IdempotencyCache.HEADER, idempotencyKey)
+        .bodyValue(body)
+        .exchange();
+  }
+
+  private Map<String, Object> validRequest(String cardNumber) {
+    Map<String, Object> req = new HashMap<>();
+    req.put("card_number", cardNumber);
+    req.put("expiry_month", 4);
+    req.put("expiry_year", 2099);
+    req.put("currency", "GBP");
+    req.put("amount", 100);
+    req.put("cvv", "123");
+    return req;
+  }
+}
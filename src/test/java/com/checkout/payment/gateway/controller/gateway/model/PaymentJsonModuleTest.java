@@ -0,0 +1,121 @@
+package com.checkout.payment.gateway.controller.gateway.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.BankPaymentRequest;
+import com.checkout.payment.gateway.model.BankPaymentResponse;
+import com.checkout.payment.gateway.model.PaymentJsonModule;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.UUID;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+class PaymentJsonModuleTest {
+
+  private final ObjectMapper beanBinding = Jackson2ObjectMapperBuilder.json().build();
+  private final ObjectMapper handWritten =
+      Jackson2ObjectMapperBuilder.json().modulesToInstall(new PaymentJsonModule()).build();
+
+  @ParameterizedTest
+  @EnumSource(PaymentStatus.class)
+  void paymentResponseIsWrittenExactlyAsBeanBindingWritesIt(PaymentStatus status)
+      throws Exception {
+    PostPaymentResponse response = new PostPaymentResponse();
+    response.setId(UUID.randomUUID());
+    response.setStatus(status);
+    response.setCardNumberLastFour(8877);
+    response.setExpiryMonth(4);
+    response.setExpiryYear(2099);
+    response.setCurrency("GBP");
+    response.setAmount(Integer.MAX_VALUE);
+
+    assertThat(handWritten.writeValueAsBytes(response))
+        .isEqualTo(beanBinding.writeValueAsBytes(response));
+    assertThat(handWritten.writeValueAsBytes(new PostPaymentResponse()))
+        .isEqualTo(beanBinding.writeValueAsBytes(new PostPaymentResponse()));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"00000000-0000-0000-0000-000000000000",
+      "ffffffff-ffff-ffff-ffff-ffffffffffff", "0bb07405-6d44-4b50-a14f-7ae0beff13ad"})
+  void paymentIdIsWrittenAsTheCanonicalUuidText(String id) throws Exception {
+    PostPaymentResponse response = new PostPaymentResponse();
+    response.setId(UUID.fromString(id));
+
+    assertThat(handWritten.writeValueAsString(response)).startsWith("{\"id\":\"" + id + "\",");
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"2222405343248877", "", "line\nbreak \"quoted\" é"})
+  void bankRequestIsWrittenExactlyAsBeanBindingWritesIt(String cardNumber) throws Exception {
+    BankPaymentRequest request = new BankPaymentRequest(cardNumber, "04/2099", "GBP", 100, "123");
+    BankPaymentRequest empty = new BankPaymentRequest(null, null, null, 0, null);
+
+    assertThat(handWritten.writeValueAsBytes(request))
+        .isEqualTo(beanBinding.writeValueAsBytes(request));
+    assertThat(handWritten.writeValueAsBytes(empty))
+        .isEqualTo(beanBinding.writeValueAsBytes(empty));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      """
+          {"card_number":"2222405343248877","expiry_month":4,"expiry_year":2099,\
+          "currency":"GBP","amount":100,"cvv":"123"}""",
+      """
+          {"cvv":"123","extra":{"nested":[1,{"a":2}]},"amount":100,"currency":"GBP",\
+          "expiry_year":2099,"ignored":[],"expiry_month":4,"card_number":"2222405343248877"}""",
+      """
+          {"card_number":null,"expiry_month":null,"currency":null,"cvv":null}""",
+      """
+          {"card_number":2222405343248877,"expiry_month":"4","expiry_year":2099.0,\
+          "amount":"100","cvv":123}""",
+      "{}"})
+  void paymentRequestIsReadExactlyAsBeanBindingReadsIt(String json) throws Exception {
+    assertThat(handWritten.readValue(json, PostPaymentRequest.class))
+        .usingRecursiveComparison()
+        .isEqualTo(beanBinding.readValue(json, PostPaymentRequest.class));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "{\"expiry_month\":\"April\"}",
+      "{\"amount\":3000000000}",
+      "{\"card_number\":{\"digits\":1}}",
+      "[\"2222405343248877\"]",
+      "{\"amount\":"})
+  void invalidPaymentRequestIsRefusedAsBeanBindingRefusesIt(String json) {
+    Class<? extends Throwable> beanBindingFailure = catchFailure(beanBinding, json);
+
+    assertThat(beanBindingFailure).isNotNull();
+    assertThatThrownBy(() -> handWritten.readValue(json, PostPaymentRequest.class))
+        .isInstanceOf(beanBindingFailure);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "{\"authorized\":true,\"authorization_code\":\"0bb07405-6d44-4b50-a14f-7ae0beff13ad\"}",
+      "{\"authorization_code\":\"\",\"authorized\":false,\"error\":{\"code\":1}}",
+      "{\"authorized\":\"true\",\"authorization_code\":null}",
+      "{\"authorized\":null}"})
+  void bankResponseIsReadExactlyAsBeanBindingReadsIt(String json) throws Exception {
+    assertThat(handWritten.readValue(json, BankPaymentResponse.class))
+        .usingRecursiveComparison()
+        .isEqualTo(beanBinding.readValue(json, BankPaymentResponse.class));
+  }
+
+  private static Class<? extends Throwable> catchFailure(ObjectMapper mapper, String json) {
+    try {
+      mapper.readValue(json, PostPaymentRequest.class);
+      return null;
+    } catch (Exception e) {
+      return e.getClass();
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package com.checkout.payment.gateway.controller.gateway.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.repository.BloomFilterPaymentsRepository;
+import com.checkout.payment.gateway.repository.PaymentQuery;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class BloomFilterPaymentsRepositoryTest {
+
+  @Mock
+  private PaymentsRepository store;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  void unknownIdIsAnsweredWithoutReachingTheStore() {
+    BloomFilterPaymentsRepository repository = repository();
+
+    assertThat(repository.get(UUID.randomUUID())).isEmpty();
+
+    verify(store, never()).get(any());
+    assertThat(lookups("absent")).isEqualTo(1);
+  }
+
+  @Test
+  void writtenPaymentsAreReadFromTheStore() {
+    BloomFilterPaymentsRepository repository = repository();
+    PostPaymentResponse single = payment();
+    PostPaymentResponse batched = payment();
+    when(store.get(single.getId())).thenReturn(Optional.of(single));
+    when(store.get(batched.getId())).thenReturn(Optional.of(batched));
+
+    repository.add(single);
+    repository.addAll(List.of(batched));
+
+    assertThat(repository.get(single.getId())).containsSame(single);
+    assertThat(repository.get(batched.getId())).containsSame(batched);
+    verify(store).add(single);
+    verify(store).addAll(List.of(batched));
+  }
+
+  @Test
+  void storeSharedWithOtherInstancesIsRefused() {
+    when(store.isShared()).thenReturn(true);
+
+    assertThatThrownBy(() -> new BloomFilterPaymentsRepository(store, 1000, 0.01, meterRegistry))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void paymentsAlreadyStoredAreFoundAfterRestart() {
+    PostPaymentResponse stored = payment();
+    when(store.find(PaymentQuery.ALL)).thenReturn(Stream.of(stored));
+    when(store.get(stored.getId())).thenReturn(Optional.of(stored));
+
+    BloomFilterPaymentsRepository repository =
+        new BloomFilterPaymentsRepository(store, 1000, 0.01, meterRegistry);
+
+    assertThat(repository.get(stored.getId())).containsSame(stored);
+  }
+
+  @Test
+  void paymentTheStoreNoLongerHasIsCountedAsAFalsePositive() {
+    BloomFilterPaymentsRepository repository = repository();
+    PostPaymentResponse expired = payment();
+    when(store.get(expired.getId())).thenReturn(Optional.empty());
+
+    repository.add(expired);
+
+    assertThat(repository.get(expired.getId())).isEmpty();
+    assertThat(lookups("false_positive")).isEqualTo(1);
+  }
+
+  private BloomFilterPaymentsRepository repository() {
+    when(store.find(PaymentQuery.ALL)).thenReturn(Stream.empty());
+    return new BloomFilterPaymentsRepository(store, 1000, 0.01, meterRegistry);
+  }
+
+  private double lookups(String result) {
+    return meterRegistry.get("payments.repository.filter").tag("result", result).counter()
+        .count();
+  }
+
+  private static PostPaymentResponse payment() {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(UUID.randomUUID());
+    payment.setStatus(PaymentStatus.AUTHORIZED);
+    payment.setCurrency("GBP");
+    return payment;
+  }
+}
@@ -0,0 +1,125 @@
+package com.checkout.payment.gateway.controller.gateway.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.repository.CachingPaymentsRepository;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CachingPaymentsRepositoryTest {
+
+  @Mock
+  private PaymentsRepository store;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  void writtenPaymentIsReadWithoutReachingTheStore() {
+    CachingPaymentsRepository repository = repository(100);
+    PostPaymentResponse payment = payment();
+
+    repository.add(payment);
+
+    assertThat(repository.get(payment.getId())).containsSame(payment);
+    verify(store).add(payment);
+    verify(store, never()).get(any());
+    assertThat(gets("hit")).isEqualTo(1);
+  }
+
+  @Test
+  void batchWritesAreCachedToo() {
+    CachingPaymentsRepository repository = repository(100);
+    PostPaymentResponse first = payment();
+    PostPaymentResponse second = payment();
+
+    repository.addAll(List.of(first, second));
+
+    assertThat(repository.get(second.getId())).containsSame(second);
+    verify(store).addAll(List.of(first, second));
+    verify(store, never()).get(any());
+  }
+
+  @Test
+  void missIsLoadedFromTheStoreOnce() {
+    CachingPaymentsRepository repository = repository(100);
+    PostPaymentResponse payment = payment();
+    when(store.get(payment.getId())).thenReturn(Optional.of(payment));
+
+    assertThat(repository.get(payment.getId())).containsSame(payment);
+    assertThat(repository.get(payment.getId())).containsSame(payment);
+
+    verify(store, times(1)).get(payment.getId());
+    assertThat(gets("miss")).isEqualTo(1);
+    assertThat(gets("hit")).isEqualTo(1);
+  }
+
+  @Test
+  void unknownIdsAreNotCached() {
+    CachingPaymentsRepository repository = repository(100);
+    UUID id = UUID.randomUUID();
+    when(store.get(id)).thenReturn(Optional.empty());
+
+    assertThat(repository.get(id)).isEmpty();
+    assertThat(repository.get(id)).isEmpty();
+
+    verify(store, times(2)).get(id);
+  }
+
+  @Test
+  void cacheStaysWithinItsEntryLimit() throws InterruptedException {
+    CachingPaymentsRepository repository = repository(10);
+
+    for (int i = 0; i < 1_000; i++) {
+      repository.add(payment());
+    }
+
+    // Caffeine evicts on a background thread.
+    long deadline = System.nanoTime() + 5_000_000_000L;
+    while (evictions() < 990 && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    assertThat(evictions()).isEqualTo(990);
+  }
+
+  private CachingPaymentsRepository repository(long maxEntries) {
+    return new CachingPaymentsRepository(store, maxEntries, Duration.ofHours(1), meterRegistry);
+  }
+
+  private double evictions() {
+    return meterRegistry.get("cache.evictions").tag("cache", "payments").functionCounter()
+        .count();
+  }
+
+  private double gets(String result) {
+    return meterRegistry.get("cache.gets").tag("cache", "payments").tag("result", result)
+        .functionCounter().count();
+  }
+
+  private static PostPaymentResponse payment() {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(UUID.randomUUID());
+    payment.setStatus(PaymentStatus.AUTHORIZED);
+    payment.setCardNumberLastFour(8877);
+    payment.setExpiryMonth(4);
+    payment.setExpiryYear(2027);
+    payment.setCurrency("GBP");
+    payment.setAmount(100);
+    return payment;
+  }
+}
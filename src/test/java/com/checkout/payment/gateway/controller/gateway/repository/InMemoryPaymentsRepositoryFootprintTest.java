@@ -0,0 +1,61 @@
+package com.checkout.payment.gateway.controller.gateway.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.repository.InMemoryPaymentsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+class InMemoryPaymentsRepositoryFootprintTest {
+
+  private static final Logger LOG =
+      LoggerFactory.getLogger(InMemoryPaymentsRepositoryFootprintTest.class);
+  private static final int PAYMENTS = 200_000;
+
+  @Test
+  void compactStoreUsesAFractionOfTheHeapOfAnObjectMap() {
+    InMemoryPaymentsRepository repository = new InMemoryPaymentsRepository(PAYMENTS,
+        Duration.ofDays(1), 16, Clock.systemUTC(), new SimpleMeterRegistry());
+    long emptyRepository = GraphLayout.parseInstance(repository).totalSize();
+    Map<UUID, PostPaymentResponse> objectMap = new HashMap<>();
+
+    for (int i = 0; i < PAYMENTS; i++) {
+      PostPaymentResponse payment = payment(i);
+      repository.add(payment);
+      objectMap.put(payment.getId(), payment);
+    }
+
+    double compactBytes =
+        (GraphLayout.parseInstance(repository).totalSize() - emptyRepository) / (double) PAYMENTS;
+    double objectBytes = GraphLayout.parseInstance(objectMap).totalSize() / (double) PAYMENTS;
+    LOG.info("Bytes per stored payment: compact={} object map={} ratio={}",
+        String.format("%.1f", compactBytes), String.format("%.1f", objectBytes),
+        String.format("%.1f", objectBytes / compactBytes));
+
+    assertThat(compactBytes).isLessThan(60);
+    assertThat(objectBytes / compactBytes).isGreaterThan(2.5);
+  }
+
+  private static PostPaymentResponse payment(int i) {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(UUID.randomUUID());
+    payment.setStatus(i % 2 == 0 ? PaymentStatus.AUTHORIZED : PaymentStatus.DECLINED);
+    payment.setCardNumberLastFour(i % 10_000);
+    payment.setExpiryMonth(i % 12 + 1);
+    payment.setExpiryYear(2030);
+    // Jackson hands every request its own currency string, so the object map pays for each one.
+    payment.setCurrency(new String("GBP"));
+    payment.setAmount(i + 1);
+    return payment;
+  }
+}
@@ -0,0 +1,238 @@
+package com.checkout.payment.gateway.controller.gateway.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.checkout.payment.gateway.controller.gateway.support.MutableClock;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.repository.InMemoryPaymentsRepository;
+import com.checkout.payment.gateway.repository.PaymentQuery;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+class InMemoryPaymentsRepositoryTest {
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final MutableClock clock = new MutableClock();
+
+  @Test
+  void storedPaymentCanBeRetrieved() {
+    InMemoryPaymentsRepository repository = repository(100, Duration.ofDays(1));
+    PostPaymentResponse payment = payment();
+
+    repository.add(payment);
+
+    assertThat(repository.get(payment.getId())).get().usingRecursiveComparison()
+        .isEqualTo(payment);
+    assertThat(repository.get(UUID.randomUUID())).isEmpty();
+  }
+
+  @Test
+  void oldestPaymentsAreEvictedWhenOverCapacity() {
+    InMemoryPaymentsRepository repository = repository(1, Duration.ofDays(1));
+    PostPaymentResponse first = payment();
+    PostPaymentResponse second = payment();
+
+    repository.add(first);
+    repository.add(second);
+
+    assertThat(repository.get(first.getId())).isEmpty();
+    assertThat(repository.get(second.getId())).isPresent();
+    assertThat(repository.size()).isEqualTo(1);
+    assertThat(evictions("capacity")).isEqualTo(1);
+  }
+
+  @Test
+  void paymentIsReadableRightAfterItFillsASegmentPastItsShare() {
+    int stripes = 16;
+    InMemoryPaymentsRepository repository = repository(stripes, Duration.ofDays(1), stripes);
+
+    for (int i = 0; i < 1_000; i++) {
+      PostPaymentResponse payment = payment();
+      repository.add(payment);
+
+      assertThat(repository.get(payment.getId())).isPresent();
+      assertThat(repository.size()).isLessThanOrEqualTo(2 * stripes);
+    }
+    assertThat(evictions("capacity")).isPositive();
+  }
+
+  @Test
+  void paymentsOlderThanRetentionAreNotReturnedAndAreEvicted() {
+    InMemoryPaymentsRepository repository = repository(100, Duration.ofMinutes(10), 1);
+    PostPaymentResponse old = payment();
+    repository.add(old);
+
+    clock.advance(Duration.ofMinutes(10));
+    assertThat(repository.get(old.getId())).isEmpty();
+
+    PostPaymentResponse fresh = payment();
+    repository.add(fresh);
+
+    assertThat(repository.size()).isEqualTo(1);
+    assertThat(repository.get(fresh.getId())).isPresent();
+    assertThat(evictions("expired")).isEqualTo(1);
+  }
+
+  @Test
+  void concurrentWritersAndReadersDoNotLosePayments() throws Exception {
+    int threads = 16;
+    int paymentsPerThread = 20_000;
+    InMemoryPaymentsRepository repository =
+        repository(threads * paymentsPerThread, Duration.ofDays(1));
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicInteger missedReads = new AtomicInteger();
+    List<Future<List<PostPaymentResponse>>> results = new ArrayList<>();
+
+    for (int t = 0; t < threads; t++) {
+      results.add(executor.submit(() -> {
+        List<PostPaymentResponse> written = new ArrayList<>(paymentsPerThread);
+        start.await();
+        for (int i = 0; i < paymentsPerThread; i++) {
+          PostPaymentResponse payment = payment();
+          repository.add(payment);
+          written.add(payment);
+          if (repository.get(payment.getId()).isEmpty()) {
+            missedReads.incrementAndGet();
+          }
+        }
+        return written;
+      }));
+    }
+    start.countDown();
+
+    List<PostPaymentResponse> written = new ArrayList<>();
+    for (Future<List<PostPaymentResponse>> result : results) {
+      written.addAll(result.get());
+    }
+    executor.shutdown();
+
+    assertThat(missedReads).hasValue(0);
+    assertThat(repository.size()).isEqualTo(threads * paymentsPerThread);
+    assertThat(written).allSatisfy(payment -> assertThat(repository.get(payment.getId())).get()
+        .usingRecursiveComparison().isEqualTo(payment));
+    assertThat(evictions("capacity") + evictions("expired")).isZero();
+  }
+
+  @Test
+  void everyFieldSurvivesCompactEncoding() {
+    InMemoryPaymentsRepository repository = repository(100, Duration.ofDays(1));
+    PostPaymentResponse payment = payment();
+    payment.setStatus(PaymentStatus.DECLINED);
+    payment.setCardNumberLastFour(12);
+    payment.setExpiryMonth(12);
+    payment.setExpiryYear(Integer.MAX_VALUE);
+    payment.setCurrency("eur");
+    payment.setAmount(Integer.MAX_VALUE);
+
+    repository.add(payment);
+
+    assertThat(repository.get(payment.getId())).get().usingRecursiveComparison()
+        .isEqualTo(payment);
+  }
+
+  @Test
+  void evictionKeepsEveryRemainingPaymentReachable() {
+    InMemoryPaymentsRepository repository = repository(5_000, Duration.ofDays(1), 1);
+    List<PostPaymentResponse> written = new ArrayList<>();
+    for (int i = 0; i < 20_000; i++) {
+      PostPaymentResponse payment = payment();
+      payment.setAmount(i + 1);
+      repository.add(payment);
+      written.add(payment);
+    }
+
+    assertThat(repository.size()).isEqualTo(5_000);
+    assertThat(written.subList(0, 15_000))
+        .allSatisfy(payment -> assertThat(repository.get(payment.getId())).isEmpty());
+    assertThat(written.subList(15_000, 20_000)).allSatisfy(payment -> assertThat(
+        repository.get(payment.getId())).get().extracting(PostPaymentResponse::getAmount)
+        .isEqualTo(payment.getAmount()));
+  }
+
+  @Test
+  void findFiltersByStatusCurrencyAndTimeStoredAcrossPages() {
+    InMemoryPaymentsRepository repository = repository(100_000, Duration.ofDays(1), 2);
+    List<PostPaymentResponse> inWindow = new ArrayList<>();
+    Instant windowStart = null;
+    for (int minute = 0; minute < 3; minute++) {
+      if (minute == 1) {
+        windowStart = clock.instant();
+      }
+      for (int i = 0; i < 5_000; i++) {
+        PostPaymentResponse payment = payment();
+        payment.setAmount(minute * 5_000 + i + 1);
+        payment.setStatus(i % 3 == 0 ? PaymentStatus.DECLINED : PaymentStatus.AUTHORIZED);
+        payment.setCurrency(i % 2 == 0 ? "GBP" : "USD");
+        repository.add(payment);
+        if (minute == 1 && payment.getStatus() == PaymentStatus.AUTHORIZED
+            && payment.getCurrency().equals("GBP")) {
+          inWindow.add(payment);
+        }
+      }
+      clock.advance(Duration.ofMinutes(1));
+    }
+    Instant windowEnd = windowStart.plus(Duration.ofMinutes(1));
+
+    try (Stream<PostPaymentResponse> found = repository.find(
+        new PaymentQuery(PaymentStatus.AUTHORIZED, "GBP", windowStart, windowEnd))) {
+      assertThat(found.toList()).usingRecursiveFieldByFieldElementComparator()
+          .containsExactlyInAnyOrderElementsOf(inWindow);
+    }
+    try (Stream<PostPaymentResponse> found = repository.find(PaymentQuery.ALL)) {
+      assertThat(found).hasSize(15_000);
+    }
+  }
+
+  @Test
+  void findSkipsExpiredPayments() {
+    InMemoryPaymentsRepository repository = repository(100, Duration.ofMinutes(10), 1);
+    repository.add(payment());
+    clock.advance(Duration.ofMinutes(5));
+    PostPaymentResponse fresh = payment();
+    repository.add(fresh);
+    clock.advance(Duration.ofMinutes(5));
+
+    try (Stream<PostPaymentResponse> found = repository.find(PaymentQuery.ALL)) {
+      assertThat(found).extracting(PostPaymentResponse::getId).containsExactly(fresh.getId());
+    }
+  }
+
+  private InMemoryPaymentsRepository repository(int capacity, Duration retention) {
+    return repository(capacity, retention, 16);
+  }
+
+  private InMemoryPaymentsRepository repository(int capacity, Duration retention, int stripes) {
+    return new InMemoryPaymentsRepository(capacity, retention, stripes, clock, meterRegistry);
+  }
+
+  private double evictions(String cause) {
+    return meterRegistry.get("payments.repository.evictions").tag("cause", cause).counter()
+        .count();
+  }
+
+  private static PostPaymentResponse payment() {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(UUID.randomUUID());
+    payment.setStatus(PaymentStatus.AUTHORIZED);
+    payment.setCardNumberLastFour(8877);
+    payment.setExpiryMonth(4);
+    payment.setExpiryYear(2027);
+    payment.setCurrency("GBP");
+    payment.setAmount(100);
+    return payment;
+  }
+}
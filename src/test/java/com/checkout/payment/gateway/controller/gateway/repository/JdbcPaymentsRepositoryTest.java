@@ -0,0 +1,167 @@
+package com.checkout.payment.gateway.controller.gateway.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.checkout.payment.gateway.controller.gateway.support.MutableClock;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.repository.JdbcPaymentsRepository;
+import com.checkout.payment.gateway.repository.PaymentQuery;
+import com.zaxxer.hikari.HikariDataSource;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class JdbcPaymentsRepositoryTest {
+
+  @TempDir
+  Path directory;
+
+  private final List<HikariDataSource> dataSources = new ArrayList<>();
+  private final MutableClock clock = new MutableClock();
+
+  @AfterEach
+  void closePools() {
+    dataSources.forEach(HikariDataSource::close);
+  }
+
+  @Test
+  void storedPaymentCanBeRetrieved() {
+    JdbcPaymentsRepository repository = repository(dataSource());
+    PostPaymentResponse payment = payment(1);
+
+    repository.add(payment);
+
+    assertThat(repository.get(payment.getId())).get().usingRecursiveComparison()
+        .isEqualTo(payment);
+    assertThat(repository.get(UUID.randomUUID())).isEmpty();
+  }
+
+  @Test
+  void batchIsStoredAcrossSeveralJdbcBatches() {
+    JdbcPaymentsRepository repository = repository(dataSource());
+    List<PostPaymentResponse> payments = new ArrayList<>();
+    for (int i = 0; i < 25; i++) {
+      payments.add(payment(i));
+    }
+
+    repository.addAll(payments);
+
+    assertThat(payments).allSatisfy(payment -> assertThat(repository.get(payment.getId())).get()
+        .usingRecursiveComparison().isEqualTo(payment));
+  }
+
+  @Test
+  void storingAPaymentAgainReplacesIt() {
+    JdbcPaymentsRepository repository = repository(dataSource());
+    PostPaymentResponse payment = payment(1);
+    repository.add(payment);
+
+    payment.setStatus(PaymentStatus.DECLINED);
+    repository.addAll(List.of(payment(2), payment));
+
+    assertThat(repository.get(payment.getId())).get()
+        .extracting(PostPaymentResponse::getStatus).isEqualTo(PaymentStatus.DECLINED);
+  }
+
+  @Test
+  void paymentsSurviveARestart() {
+    HikariDataSource first = dataSource();
+    PostPaymentResponse payment = payment(7);
+    repository(first).add(payment);
+    first.close();
+
+    JdbcPaymentsRepository reopened = repository(dataSource());
+
+    assertThat(reopened.get(payment.getId())).get().usingRecursiveComparison()
+        .isEqualTo(payment);
+  }
+
+  @Test
+  void idIsStoredAsSixteenBytes() {
+    HikariDataSource dataSource = dataSource();
+    PostPaymentResponse payment = payment(1);
+    repository(dataSource).add(payment);
+
+    byte[] id = new JdbcTemplate(dataSource).queryForObject("SELECT id FROM payments",
+        byte[].class);
+
+    assertThat(id).hasSize(16);
+  }
+
+  @Test
+  void findFiltersByStatusCurrencyAndTimeStored() {
+    JdbcPaymentsRepository repository = repository(dataSource());
+    PostPaymentResponse early = payment(1);
+    repository.add(early);
+    clock.advance(Duration.ofMinutes(1));
+    Instant windowStart = clock.instant();
+    PostPaymentResponse authorized = payment(2);
+    PostPaymentResponse declined = payment(3);
+    declined.setStatus(PaymentStatus.DECLINED);
+    PostPaymentResponse dollars = payment(4);
+    dollars.setCurrency("USD");
+    repository.addAll(List.of(authorized, declined, dollars));
+    clock.advance(Duration.ofMinutes(1));
+    repository.add(payment(5));
+
+    try (Stream<PostPaymentResponse> found = repository.find(new PaymentQuery(
+        PaymentStatus.AUTHORIZED, "GBP", windowStart, clock.instant()))) {
+      assertThat(found.toList()).singleElement().usingRecursiveComparison()
+          .isEqualTo(authorized);
+    }
+    try (Stream<PostPaymentResponse> found = repository.find(PaymentQuery.ALL)) {
+      assertThat(found).hasSize(5);
+    }
+  }
+
+  @Test
+  void storingAPaymentAgainKeepsTheTimeItWasFirstStored() {
+    JdbcPaymentsRepository repository = repository(dataSource());
+    PostPaymentResponse payment = payment(1);
+    repository.add(payment);
+    clock.advance(Duration.ofMinutes(1));
+    Instant rewrittenAt = clock.instant();
+
+    payment.setStatus(PaymentStatus.DECLINED);
+    repository.add(payment);
+
+    try (Stream<PostPaymentResponse> found = repository.find(
+        new PaymentQuery(null, null, rewrittenAt, null))) {
+      assertThat(found).isEmpty();
+    }
+  }
+
+  private JdbcPaymentsRepository repository(HikariDataSource dataSource) {
+    return new JdbcPaymentsRepository(dataSource, 10, true, clock);
+  }
+
+  private HikariDataSource dataSource() {
+    HikariDataSource dataSource = new HikariDataSource();
+    dataSource.setJdbcUrl("jdbc:h2:" + directory.resolve("payments"));
+    dataSource.setUsername("sa");
+    dataSource.setMaximumPoolSize(2);
+    dataSources.add(dataSource);
+    return dataSource;
+  }
+
+  private static PostPaymentResponse payment(int amount) {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(UUID.randomUUID());
+    payment.setStatus(PaymentStatus.AUTHORIZED);
+    payment.setCardNumberLastFour(8877);
+    payment.setExpiryMonth(4);
+    payment.setExpiryYear(2027);
+    payment.setCurrency("GBP");
+    payment.setAmount(amount);
+    return payment;
+  }
+}
@@ -0,0 +1,242 @@
+package com.checkout.payment.gateway.controller.gateway.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.checkout.payment.gateway.controller.gateway.support.MutableClock;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.repository.MappedFilePaymentsRepository;
+import com.checkout.payment.gateway.repository.PaymentQuery;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedFilePaymentsRepositoryTest {
+
+  private static final int HEADER_BYTES = 16;
+  private static final int RECORD_BYTES = 48;
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void storedPaymentCanBeRetrieved() throws IOException {
+    try (MappedFilePaymentsRepository repository = open(100)) {
+      PostPaymentResponse payment = payment(1);
+
+      repository.add(payment);
+
+      assertThat(repository.get(payment.getId())).get().usingRecursiveComparison()
+          .isEqualTo(payment);
+      assertThat(repository.get(UUID.randomUUID())).isEmpty();
+    }
+  }
+
+  @Test
+  void paymentsSurviveARestart() throws IOException {
+    List<PostPaymentResponse> written = new ArrayList<>();
+    try (MappedFilePaymentsRepository repository = open(1_000)) {
+      for (int i = 0; i < 500; i++) {
+        PostPaymentResponse payment = payment(i + 1);
+        repository.add(payment);
+        written.add(payment);
+      }
+    }
+
+    try (MappedFilePaymentsRepository reopened = open(1_000)) {
+      assertThat(reopened.size()).isEqualTo(500);
+      assertThat(written).allSatisfy(payment -> assertThat(reopened.get(payment.getId())).get()
+          .usingRecursiveComparison().isEqualTo(payment));
+    }
+  }
+
+  @Test
+  void tornRecordIsDiscardedOnRecoveryAndItsSlotReused() throws IOException {
+    PostPaymentResponse first = payment(1);
+    PostPaymentResponse torn = payment(2);
+    try (MappedFilePaymentsRepository repository = open(10)) {
+      repository.add(first);
+      repository.add(torn);
+    }
+    try (RandomAccessFile file = new RandomAccessFile(logFile().toFile(), "rw")) {
+      file.seek(HEADER_BYTES + RECORD_BYTES + 20);
+      file.writeInt(0xDEADBEEF);
+    }
+
+    try (MappedFilePaymentsRepository recovered = open(10)) {
+      assertThat(recovered.size()).isEqualTo(1);
+      assertThat(recovered.get(first.getId())).isPresent();
+      assertThat(recovered.get(torn.getId())).isEmpty();
+
+      PostPaymentResponse next = payment(3);
+      recovered.add(next);
+      assertThat(recovered.get(next.getId())).isPresent();
+    }
+    try (MappedFilePaymentsRepository reopened = open(10)) {
+      assertThat(reopened.size()).isEqualTo(2);
+      assertThat(reopened.get(torn.getId())).isEmpty();
+    }
+  }
+
+  @Test
+  void recordsAfterATornRecordDoNotResurface() throws IOException {
+    PostPaymentResponse torn = payment(1);
+    PostPaymentResponse after = payment(2);
+    try (MappedFilePaymentsRepository repository = open(10)) {
+      repository.add(torn);
+      repository.add(after);
+    }
+    try (RandomAccessFile file = new RandomAccessFile(logFile().toFile(), "rw")) {
+      file.seek(HEADER_BYTES + 20);
+      file.writeInt(0xDEADBEEF);
+    }
+
+    try (MappedFilePaymentsRepository recovered = open(10)) {
+      assertThat(recovered.size()).isZero();
+      recovered.add(payment(3));
+    }
+    try (MappedFilePaymentsRepository reopened = open(10)) {
+      assertThat(reopened.size()).isEqualTo(1);
+      assertThat(reopened.get(after.getId())).isEmpty();
+    }
+  }
+
+  @Test
+  void fullLogRejectsFurtherPayments() throws IOException {
+    try (MappedFilePaymentsRepository repository = open(2)) {
+      repository.add(payment(1));
+      repository.add(payment(2));
+
+      assertThatThrownBy(() -> repository.add(payment(3)))
+          .isInstanceOf(IllegalStateException.class);
+    }
+  }
+
+  @Test
+  void logIsFullOnceOnlyTheHeadroomIsLeft() throws IOException {
+    try (MappedFilePaymentsRepository repository = new MappedFilePaymentsRepository(logFile(), 3,
+        1, false, Clock.systemUTC(), new SimpleMeterRegistry())) {
+      repository.add(payment(1));
+      assertThat(repository.isFull()).isFalse();
+      repository.add(payment(2));
+      assertThat(repository.isFull()).isTrue();
+
+      PostPaymentResponse alreadyAtTheBank = payment(3);
+      repository.add(alreadyAtTheBank);
+      assertThat(repository.get(alreadyAtTheBank.getId())).isPresent();
+    }
+  }
+
+  @Test
+  void fileInAnotherFormatIsRefused() throws IOException {
+    Files.write(logFile(), "not a payment log".getBytes());
+
+    assertThatThrownBy(() -> open(10)).isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void concurrentWritersAndReadersDoNotLosePayments() throws Exception {
+    int threads = 8;
+    int paymentsPerThread = 5_000;
+    try (MappedFilePaymentsRepository repository = open(threads * paymentsPerThread)) {
+      ExecutorService executor = Executors.newFixedThreadPool(threads);
+      List<Future<List<PostPaymentResponse>>> results = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        results.add(executor.submit(() -> {
+          List<PostPaymentResponse> written = new ArrayList<>();
+          for (int i = 0; i < paymentsPerThread; i++) {
+            PostPaymentResponse payment = payment(i + 1);
+            repository.add(payment);
+            assertThat(repository.get(payment.getId())).isPresent();
+            written.add(payment);
+          }
+          return written;
+        }));
+      }
+      List<PostPaymentResponse> written = new ArrayList<>();
+      for (Future<List<PostPaymentResponse>> result : results) {
+        written.addAll(result.get());
+      }
+      executor.shutdown();
+
+      assertThat(repository.size()).isEqualTo(threads * paymentsPerThread);
+      assertThat(written)
+          .allSatisfy(payment -> assertThat(repository.get(payment.getId())).isPresent());
+    }
+  }
+
+  @Test
+  void findFiltersByStatusCurrencyAndTimeStoredAndSurvivesARestart() throws IOException {
+    MutableClock clock = new MutableClock();
+    PostPaymentResponse early = payment(1);
+    PostPaymentResponse rewritten = payment(2);
+    PostPaymentResponse dollars = payment(3);
+    dollars.setCurrency("USD");
+    Instant windowStart;
+    try (MappedFilePaymentsRepository repository = open(100, clock)) {
+      repository.add(early);
+      clock.advance(Duration.ofMinutes(1));
+      windowStart = clock.instant();
+      repository.add(rewritten);
+      repository.add(dollars);
+      rewritten.setStatus(PaymentStatus.DECLINED);
+      repository.add(rewritten);
+      clock.advance(Duration.ofMinutes(1));
+      repository.add(payment(4));
+    }
+
+    try (MappedFilePaymentsRepository reopened = open(100, clock)) {
+      PaymentQuery window =
+          new PaymentQuery(null, "GBP", windowStart, windowStart.plus(Duration.ofMinutes(1)));
+      try (Stream<PostPaymentResponse> found = reopened.find(window)) {
+        assertThat(found.toList()).singleElement().usingRecursiveComparison()
+            .isEqualTo(rewritten);
+      }
+      try (Stream<PostPaymentResponse> found = reopened.find(
+          new PaymentQuery(PaymentStatus.AUTHORIZED, null, null, null))) {
+        assertThat(found).extracting(PostPaymentResponse::getAmount)
+            .containsExactly(1, 3, 4);
+      }
+    }
+  }
+
+  private MappedFilePaymentsRepository open(int capacity) throws IOException {
+    return open(capacity, Clock.systemUTC());
+  }
+
+  private MappedFilePaymentsRepository open(int capacity, Clock clock) throws IOException {
+    return new MappedFilePaymentsRepository(logFile(), capacity, 0, false, clock,
+        new SimpleMeterRegistry());
+  }
+
+  private Path logFile() {
+    return directory.resolve("payments.log");
+  }
+
+  private static PostPaymentResponse payment(int amount) {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(UUID.randomUUID());
+    payment.setStatus(PaymentStatus.AUTHORIZED);
+    payment.setCardNumberLastFour(8877);
+    payment.setExpiryMonth(4);
+    payment.setExpiryYear(2027);
+    payment.setCurrency("GBP");
+    payment.setAmount(amount);
+    return payment;
+  }
+}
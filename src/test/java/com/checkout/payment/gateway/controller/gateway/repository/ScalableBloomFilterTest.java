@@ -0,0 +1,94 @@
+package com.checkout.payment.gateway.controller.gateway.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.checkout.payment.gateway.repository.ScalableBloomFilter;
+import com.checkout.payment.gateway.service.TimeOrderedPaymentIdGenerator;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class ScalableBloomFilterTest {
+
+  private static final int CAPACITY = 100_000;
+  private static final double FALSE_POSITIVE_RATE = 0.01;
+  private static final int PROBES = 1_000_000;
+
+  @Test
+  void falsePositiveRateAtCapacityIsTheTargetForRandomIds() {
+    ScalableBloomFilter filter = new ScalableBloomFilter(CAPACITY, FALSE_POSITIVE_RATE);
+
+    List<UUID> added = addAll(filter, CAPACITY, UUID::randomUUID);
+
+    assertThat(added).allMatch(filter::mightContain);
+    // One standard error of the measured rate is 0.0001.
+    assertThat(falsePositiveRate(filter, UUID::randomUUID)).isBetween(0.008, 0.0115);
+  }
+
+  @Test
+  void falsePositiveRateAtCapacityIsTheTargetForTimeOrderedIds() {
+    TimeOrderedPaymentIdGenerator generator =
+        new TimeOrderedPaymentIdGenerator(Clock.systemUTC());
+    ScalableBloomFilter filter = new ScalableBloomFilter(CAPACITY, FALSE_POSITIVE_RATE);
+
+    List<UUID> added = addAll(filter, CAPACITY, generator::next);
+
+    assertThat(added).allMatch(filter::mightContain);
+    assertThat(falsePositiveRate(filter, generator::next)).isBetween(0.008, 0.0115);
+  }
+
+  @Test
+  void filterGrowsPastItsCapacityWithinTwiceTheTargetRate() {
+    ScalableBloomFilter filter = new ScalableBloomFilter(CAPACITY / 10, FALSE_POSITIVE_RATE);
+    long initialSize = filter.sizeInBytes();
+
+    List<UUID> added = addAll(filter, CAPACITY, UUID::randomUUID);
+
+    assertThat(added).allMatch(filter::mightContain);
+    assertThat(filter.sizeInBytes()).isGreaterThan(initialSize * 10);
+    assertThat(falsePositiveRate(filter, UUID::randomUUID)).isLessThan(2 * FALSE_POSITIVE_RATE);
+  }
+
+  @Test
+  void idsAddedConcurrentlyAreAllFound() {
+    ScalableBloomFilter filter = new ScalableBloomFilter(CAPACITY / 10, FALSE_POSITIVE_RATE);
+
+    List<UUID> added;
+    try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+      List<CompletableFuture<List<UUID>>> threads = IntStream.range(0, 8)
+          .mapToObj(thread -> CompletableFuture.supplyAsync(
+              () -> addAll(filter, CAPACITY / 8, UUID::randomUUID), executor))
+          .toList();
+      added = threads.stream().flatMap(thread -> thread.join().stream()).toList();
+    }
+
+    assertThat(added).hasSize(CAPACITY).allMatch(filter::mightContain);
+  }
+
+  private static List<UUID> addAll(ScalableBloomFilter filter, int count, Supplier<UUID> ids) {
+    List<UUID> added = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      UUID id = ids.get();
+      filter.add(id);
+      added.add(id);
+    }
+    return added;
+  }
+
+  private static double falsePositiveRate(ScalableBloomFilter filter, Supplier<UUID> ids) {
+    int falsePositives = 0;
+    for (int i = 0; i < PROBES; i++) {
+      if (filter.mightContain(ids.get())) {
+        falsePositives++;
+      }
+    }
+    return (double) falsePositives / PROBES;
+  }
+}
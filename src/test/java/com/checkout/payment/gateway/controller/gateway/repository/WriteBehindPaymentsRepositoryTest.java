@@ -0,0 +1,331 @@
+package com.checkout.payment.gateway.controller.gateway.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.exception.PaymentStoreFullException;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.repository.PaymentQuery;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.checkout.payment.gateway.repository.WriteBehindPaymentsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class WriteBehindPaymentsRepositoryTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final RecordingStore store = new RecordingStore();
+  private WriteBehindPaymentsRepository repository;
+
+  @AfterEach
+  void close() throws InterruptedException {
+    store.open();
+    repository.close();
+  }
+
+  @Test
+  void paymentIsReadableBeforeTheStoreHasIt() throws InterruptedException {
+    repository = repository(16, 1, Duration.ofMillis(1));
+    store.block();
+    PostPaymentResponse payment = payment();
+
+    repository.add(payment);
+
+    assertThat(repository.get(payment.getId())).containsSame(payment);
+    assertThat(store.payments).isEmpty();
+
+    store.open();
+    awaitStored(1);
+    assertThat(repository.get(payment.getId())).get().isSameAs(payment);
+    assertThat(pending()).isZero();
+  }
+
+  @Test
+  void fullBatchIsWrittenWithoutWaitingForTheFlushInterval() throws InterruptedException {
+    repository = repository(64, 4, Duration.ofSeconds(30));
+
+    for (int i = 0; i < 4; i++) {
+      repository.add(payment());
+    }
+
+    awaitStored(4);
+    assertThat(store.batchSizes).containsExactly(4);
+  }
+
+  @Test
+  void partialBatchIsWrittenOnceTheFlushIntervalPasses() throws InterruptedException {
+    repository = repository(64, 100, Duration.ofMillis(20));
+
+    repository.add(payment());
+    repository.add(payment());
+
+    awaitStored(2);
+    assertThat(store.batchSizes).containsExactly(2);
+  }
+
+  @Test
+  void writersWaitForRoomWhenTheQueueIsFull() throws InterruptedException {
+    repository = repository(2, 1, Duration.ofMillis(1));
+    store.block();
+    CountDownLatch written = new CountDownLatch(1);
+    Thread writer = Thread.ofVirtual().start(() -> {
+      for (int i = 0; i < 10; i++) {
+        repository.add(payment());
+      }
+      written.countDown();
+    });
+
+    assertThat(written.await(200, TimeUnit.MILLISECONDS)).isFalse();
+    assertThat(meterRegistry.get("payments.repository.write-behind.backpressure").counter()
+        .count()).isPositive();
+
+    store.open();
+    assertThat(written.await(5, TimeUnit.SECONDS)).isTrue();
+    writer.join();
+    awaitStored(10);
+  }
+
+  @Test
+  void failedBatchIsRetriedAndStaysReadableMeanwhile() throws InterruptedException {
+    repository = repository(16, 1, Duration.ofMillis(1));
+    store.failures.set(3);
+    PostPaymentResponse payment = payment();
+
+    repository.add(payment);
+
+    assertThat(repository.get(payment.getId())).isPresent();
+    awaitStored(1);
+    assertThat(meterRegistry.get("payments.repository.write-behind.flush.failures").counter()
+        .count()).isEqualTo(3);
+  }
+
+  @Test
+  void paymentsNotYetWrittenCountAgainstTheStoresRoom() {
+    repository = repository(64, 100, Duration.ofSeconds(30));
+    store.block();
+    store.capacity = 3;
+
+    repository.add(payment());
+    repository.add(payment());
+    assertThat(repository.isFull()).isFalse();
+    repository.add(payment());
+
+    assertThat(repository.remainingCapacity()).isZero();
+    assertThat(repository.isFull()).isTrue();
+    assertThat(store.payments).isEmpty();
+  }
+
+  @Test
+  void batchTheStoreHasNoRoomForIsNotRetried() throws InterruptedException {
+    repository = repository(16, 1, Duration.ofMillis(1));
+    store.capacity = 0;
+    PostPaymentResponse payment = payment();
+
+    repository.add(payment);
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (flushFailures() == 0 && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    // Long enough for several retries, had there been any
+    Thread.sleep(100);
+
+    assertThat(repository.isFull()).isTrue();
+    assertThat(repository.get(payment.getId())).containsSame(payment);
+    assertThat(flushFailures()).isEqualTo(1);
+    assertThat(meterRegistry.get("payments.repository.write-behind.unwritten").counter()
+        .count()).isEqualTo(1);
+    Thread closing = Thread.ofVirtual().start(() -> {
+      try {
+        repository.close();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    assertThat(closing.join(Duration.ofSeconds(5))).isTrue();
+  }
+
+  @Test
+  void closeFlushesEverythingStillQueued() throws InterruptedException {
+    repository = repository(1024, 1000, Duration.ofSeconds(30));
+    for (int i = 0; i < 500; i++) {
+      repository.add(payment());
+    }
+
+    repository.close();
+
+    assertThat(store.payments).hasSize(500);
+    assertThat(pending()).isZero();
+  }
+
+  @Test
+  void paymentsAddedWhileClosingAreNotLost() throws Exception {
+    int threads = 4;
+    repository = repository(64, 16, Duration.ofMillis(5));
+    List<PostPaymentResponse> payments = new CopyOnWriteArrayList<>();
+    CountDownLatch writing = new CountDownLatch(threads);
+    AtomicBoolean closed = new AtomicBoolean();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    for (int t = 0; t < threads; t++) {
+      executor.execute(() -> {
+        writing.countDown();
+        // Keeps writing for a while after close() returns, to cover both sides of the race.
+        for (int i = 0; !closed.get() || i % 1_000 != 0; i++) {
+          PostPaymentResponse payment = payment();
+          repository.add(payment);
+          payments.add(payment);
+        }
+      });
+    }
+    writing.await();
+    Thread.sleep(20);
+
+    repository.close();
+    closed.set(true);
+    executor.shutdown();
+    assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+    assertThat(store.payments).hasSameSizeAs(payments);
+    assertThat(payments).allSatisfy(
+        payment -> assertThat(store.payments).containsEntry(payment.getId(), payment));
+  }
+
+  @Test
+  void concurrentWritersDoNotLosePayments() throws Exception {
+    int threads = 8;
+    int paymentsPerThread = 5_000;
+    repository = repository(256, 64, Duration.ofMillis(5));
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<PostPaymentResponse> payments = new CopyOnWriteArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      executor.execute(() -> {
+        for (int i = 0; i < paymentsPerThread; i++) {
+          PostPaymentResponse payment = payment();
+          repository.add(payment);
+          payments.add(payment);
+          assertThat(repository.get(payment.getId())).isPresent();
+        }
+      });
+    }
+    executor.shutdown();
+    assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+    repository.close();
+
+    assertThat(store.payments).hasSize(threads * paymentsPerThread);
+    assertThat(payments).allSatisfy(
+        payment -> assertThat(store.payments).containsEntry(payment.getId(), payment));
+  }
+
+  private WriteBehindPaymentsRepository repository(int capacity, int batchSize,
+      Duration flushInterval) {
+    return new WriteBehindPaymentsRepository(store, capacity, batchSize, flushInterval,
+        meterRegistry);
+  }
+
+  private double flushFailures() {
+    return meterRegistry.get("payments.repository.write-behind.flush.failures").counter().count();
+  }
+
+  private double pending() {
+    return meterRegistry.get("payments.repository.write-behind.pending").gauge().value();
+  }
+
+  private void awaitStored(int count) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (store.payments.size() < count && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    assertThat(store.payments).hasSize(count);
+    // Payments leave the pending map just after the store accepts them.
+    while (pending() > 0 && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+  }
+
+  private static PostPaymentResponse payment() {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(UUID.randomUUID());
+    payment.setStatus(PaymentStatus.AUTHORIZED);
+    payment.setCardNumberLastFour(8877);
+    payment.setExpiryMonth(4);
+    payment.setExpiryYear(2027);
+    payment.setCurrency("GBP");
+    payment.setAmount(100);
+    return payment;
+  }
+
+  private static final class RecordingStore implements PaymentsRepository {
+
+    private final Map<UUID, PostPaymentResponse> payments = new ConcurrentHashMap<>();
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failures = new AtomicInteger();
+    private volatile int capacity = Integer.MAX_VALUE;
+    private volatile CountDownLatch gate = new CountDownLatch(0);
+
+    void block() {
+      gate = new CountDownLatch(1);
+    }
+
+    void open() {
+      gate.countDown();
+    }
+
+    @Override
+    public void add(PostPaymentResponse payment) {
+      addAll(List.of(payment));
+    }
+
+    @Override
+    public void addAll(Collection<PostPaymentResponse> batch) {
+      try {
+        gate.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      if (failures.getAndUpdate(remaining -> Math.max(0, remaining - 1)) > 0) {
+        throw new IllegalStateException("Store unavailable");
+      }
+      if (payments.size() + batch.size() > capacity) {
+        throw new PaymentStoreFullException("Store is full");
+      }
+      batchSizes.add(batch.size());
+      new ArrayList<>(batch).forEach(payment -> payments.put(payment.getId(), payment));
+    }
+
+    @Override
+    public Optional<PostPaymentResponse> get(UUID id) {
+      return Optional.ofNullable(payments.get(id));
+    }
+
+    @Override
+    public long remainingCapacity() {
+      return Math.max(0, capacity - payments.size());
+    }
+
+    // Payments here carry no stored time, so only status and currency are filtered on.
+    @Override
+    public Stream<PostPaymentResponse> find(PaymentQuery query) {
+      return payments.values().stream()
+          .filter(payment -> query.status() == null || query.status() == payment.getStatus())
+          .filter(payment -> query.currency() == null
+              || query.currency().equals(payment.getCurrency()));
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package com.checkout.payment.gateway.controller.gateway.resilience;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.checkout.payment.gateway.resilience.AimdConcurrencyLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class AimdConcurrencyLimiterTest {
+
+  private static final long FAST = Duration.ofMillis(10).toNanos();
+  private static final long SLOW = Duration.ofSeconds(2).toNanos();
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter("bank", 4, 2, 8,
+      Duration.ofSeconds(1), 0.5, meterRegistry);
+
+  @Test
+  void refusesCallsBeyondTheLimit() {
+    for (int i = 0; i < 4; i++) {
+      assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    assertThat(limiter.tryAcquire()).isFalse();
+    assertThat(limiter.inFlight()).isEqualTo(4);
+    assertThat(meterRegistry.get("concurrency.rejections").counter().count()).isEqualTo(1);
+
+    limiter.onIgnored();
+
+    assertThat(limiter.tryAcquire()).isTrue();
+  }
+
+  @Test
+  void fastCallsAtTheLimitGrowItAdditively() {
+    for (int round = 0; round < 3; round++) {
+      fillAndComplete(FAST);
+    }
+
+    assertThat(limiter.limit()).isEqualTo(5);
+    assertThat(meterRegistry.get("concurrency.limit").gauge().value()).isEqualTo(5);
+  }
+
+  @Test
+  void slowOrDroppedCallsShrinkItMultiplicatively() {
+    assertThat(limiter.tryAcquire()).isTrue();
+    limiter.onSuccess(SLOW);
+    assertThat(limiter.limit()).isEqualTo(2);
+
+    assertThat(limiter.tryAcquire()).isTrue();
+    limiter.onDropped();
+    assertThat(limiter.limit()).isEqualTo(2);
+  }
+
+  @Test
+  void neverGrowsPastTheMaximum() {
+    for (int round = 0; round < 200; round++) {
+      fillAndComplete(FAST);
+    }
+
+    assertThat(limiter.limit()).isEqualTo(8);
+  }
+
+  private void fillAndComplete(long latencyNanos) {
+    int admitted = 0;
+    while (limiter.tryAcquire()) {
+      admitted++;
+    }
+    for (int i = 0; i < admitted; i++) {
+      limiter.onSuccess(latencyNanos);
+    }
+  }
+}
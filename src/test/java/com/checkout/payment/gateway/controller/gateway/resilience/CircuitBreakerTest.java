@@ -0,0 +1,115 @@
+package com.checkout.payment.gateway.controller.gateway.resilience;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.checkout.payment.gateway.controller.gateway.support.MutableClock;
+import com.checkout.payment.gateway.resilience.CircuitBreaker;
+import com.checkout.payment.gateway.resilience.CircuitBreaker.State;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+  private final MutableClock clock = new MutableClock();
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final CircuitBreaker breaker =
+      new CircuitBreaker("bank", 10, 4, 50, Duration.ofSeconds(5), 2, clock, meterRegistry);
+
+  @Test
+  void staysClosedUntilTheMinimumNumberOfCallsIsRecorded() {
+    fail(3);
+
+    assertThat(breaker.state()).isEqualTo(State.CLOSED);
+    assertThat(breaker.tryAcquire()).isTrue();
+  }
+
+  @Test
+  void opensWhenTheFailureRateReachesTheThreshold() {
+    succeed(3);
+    fail(2);
+    assertThat(breaker.state()).isEqualTo(State.CLOSED);
+
+    fail(1);
+
+    assertThat(breaker.state()).isEqualTo(State.OPEN);
+    assertThat(breaker.tryAcquire()).isFalse();
+    assertThat(meterRegistry.get("circuit.breaker.rejections").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void onlyTheLastWindowOfCallsCounts() {
+    succeed(10);
+    fail(4);
+    assertThat(breaker.state()).isEqualTo(State.CLOSED);
+
+    fail(1);
+
+    assertThat(breaker.state()).isEqualTo(State.OPEN);
+  }
+
+  @Test
+  void halfOpenTrialsCloseTheBreakerAfterTheOpenDuration() {
+    fail(4);
+    clock.advance(Duration.ofSeconds(5));
+
+    assertThat(breaker.tryAcquire()).isTrue();
+    assertThat(breaker.tryAcquire()).isTrue();
+    assertThat(breaker.tryAcquire()).isFalse();
+    assertThat(breaker.state()).isEqualTo(State.HALF_OPEN);
+
+    breaker.onSuccess();
+    breaker.onSuccess();
+
+    assertThat(breaker.state()).isEqualTo(State.CLOSED);
+    assertThat(transitions("open", "half_open")).isEqualTo(1);
+    assertThat(transitions("half_open", "closed")).isEqualTo(1);
+  }
+
+  @Test
+  void failedHalfOpenTrialReopensTheBreaker() {
+    fail(4);
+    clock.advance(Duration.ofSeconds(5));
+    assertThat(breaker.tryAcquire()).isTrue();
+
+    breaker.onFailure();
+
+    assertThat(breaker.state()).isEqualTo(State.OPEN);
+    assertThat(breaker.tryAcquire()).isFalse();
+    assertThat(transitions("closed", "open")).isEqualTo(1);
+    assertThat(transitions("half_open", "open")).isEqualTo(1);
+  }
+
+  @Test
+  void ignoredHalfOpenTrialHandsItsPermitBack() {
+    fail(4);
+    clock.advance(Duration.ofSeconds(5));
+    assertThat(breaker.tryAcquire()).isTrue();
+    assertThat(breaker.tryAcquire()).isTrue();
+
+    breaker.onIgnored();
+
+    assertThat(breaker.tryAcquire()).isTrue();
+    assertThat(breaker.tryAcquire()).isFalse();
+  }
+
+  private void succeed(int calls) {
+    for (int i = 0; i < calls; i++) {
+      assertThat(breaker.tryAcquire()).isTrue();
+      breaker.onSuccess();
+    }
+  }
+
+  private void fail(int calls) {
+    for (int i = 0; i < calls; i++) {
+      assertThat(breaker.tryAcquire()).isTrue();
+      breaker.onFailure();
+    }
+  }
+
+  private double transitions(String from, String to) {
+    return meterRegistry.get("circuit.breaker.transitions").tag("from", from).tag("to", to)
+        .counter().count();
+  }
+}
@@ -0,0 +1,169 @@
+package com.checkout.payment.gateway.controller.gateway.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.checkout.payment.gateway.client.BankCallGuard;
+import com.checkout.payment.gateway.client.BankCallMetrics;
+import com.checkout.payment.gateway.client.BankClient;
+import com.checkout.payment.gateway.client.HedgingPolicy;
+import com.checkout.payment.gateway.client.ReactiveBankClient;
+import com.checkout.payment.gateway.controller.gateway.support.BankSimulatorStub;
+import com.checkout.payment.gateway.model.BankPaymentRequest;
+import com.checkout.payment.gateway.model.BankPaymentResponse;
+import com.checkout.payment.gateway.resilience.Deadline;
+import com.checkout.payment.gateway.routing.Acquirer;
+import com.checkout.payment.gateway.routing.AcquirerRouter;
+import com.checkout.payment.gateway.routing.CardBinRange;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+class AcquirerRouterTest {
+
+  private static final String AUTHORIZED_VISA = "4111111111111111";
+  private static final String AUTHORIZED_MASTERCARD = "2222405343248877";
+
+  private final BankSimulatorStub primary = new BankSimulatorStub();
+  private final BankSimulatorStub secondary = new BankSimulatorStub();
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final BankCallGuard guard = new BankCallGuard(10, 5, 50, Duration.ofSeconds(30), 2,
+      100, 1, 100, Duration.ofSeconds(2), 0.9, Clock.systemUTC(), meterRegistry);
+  private final HedgingPolicy hedging = new HedgingPolicy(false, 0.95, Duration.ofMillis(20),
+      Duration.ofSeconds(1), meterRegistry);
+  private final BankCallMetrics bankCallMetrics = new BankCallMetrics(false, meterRegistry);
+
+  @AfterEach
+  void stopBanks() {
+    primary.close();
+    secondary.close();
+  }
+
+  @Test
+  void paymentsGoToTheAcquirerTakingTheirCurrency() {
+    AcquirerRouter router = router(
+        acquirer("primary", primary, Set.of("GBP")),
+        acquirer("secondary", secondary, Set.of("USD", "EUR")));
+
+    assertThat(router.processPayment(request(AUTHORIZED_VISA, "GBP"), Deadline.none()))
+        .get().extracting(BankPaymentResponse::isAuthorized).isEqualTo(true);
+    router.processPayment(request(AUTHORIZED_VISA, "EUR"), Deadline.none());
+    router.processPayment(request(AUTHORIZED_VISA, "USD"), Deadline.none());
+
+    assertThat(primary.requests()).isEqualTo(1);
+    assertThat(secondary.requests()).isEqualTo(2);
+  }
+
+  @Test
+  void paymentsGoToTheAcquirerTakingTheirCardBin() {
+    AcquirerRouter router = router(
+        acquirer("primary", primary, Set.of(), "4"),
+        acquirer("secondary", secondary, Set.of(), "222100-272099", "51-55"));
+
+    router.processPayment(request(AUTHORIZED_VISA, "GBP"), Deadline.none());
+    router.processPayment(request(AUTHORIZED_MASTERCARD, "GBP"), Deadline.none());
+    router.processPayment(request("5555555555554445", "GBP"), Deadline.none());
+
+    assertThat(primary.requests()).isEqualTo(1);
+    assertThat(secondary.requests()).isEqualTo(2);
+  }
+
+  @Test
+  void paymentNoAcquirerTakesIsNotSent() {
+    AcquirerRouter router = router(acquirer("primary", primary, Set.of("GBP"), "4"));
+
+    assertThat(router.processPayment(request(AUTHORIZED_MASTERCARD, "GBP"), Deadline.none()))
+        .isEmpty();
+    assertThat(router.processPayment(request(AUTHORIZED_VISA, "USD"), Deadline.none()))
+        .isEmpty();
+
+    assertThat(primary.requests()).isZero();
+    assertThat(meterRegistry.get("bank.acquirer.unroutable").counter().count()).isEqualTo(2);
+  }
+
+  @Test
+  void paymentFailsOverWhenAnAcquirerReturnsServerErrors() {
+    primary.setUnavailable(true);
+    AcquirerRouter router = router(acquirer("primary", primary, Set.of()),
+        acquirer("secondary", secondary, Set.of()));
+
+    for (int i = 0; i < 20; i++) {
+      assertThat(router.processPayment(request(AUTHORIZED_VISA, "GBP"), Deadline.none()))
+          .get().extracting(BankPaymentResponse::isAuthorized).isEqualTo(true);
+    }
+
+    assertThat(secondary.requests()).isEqualTo(20);
+    assertThat(meterRegistry.get("bank.acquirer.failovers").tag("acquirer", "primary").counter()
+        .count()).isEqualTo(primary.requests());
+    assertThat(meterRegistry.get("bank.acquirer.calls").tag("acquirer", "primary")
+        .tag("outcome", "failed").timer().count()).isEqualTo(primary.requests());
+  }
+
+  @Test
+  void reactivePaymentFailsOverWhenAnAcquirerReturnsServerErrors() {
+    primary.setUnavailable(true);
+    AcquirerRouter router = router(acquirer("primary", primary, Set.of()),
+        acquirer("secondary", secondary, Set.of()));
+
+    for (int i = 0; i < 20; i++) {
+      assertThat(router.processPaymentReactive(request(AUTHORIZED_VISA, "GBP"), Deadline.none())
+          .blockOptional())
+          .get().extracting(BankPaymentResponse::isAuthorized).isEqualTo(true);
+    }
+
+    assertThat(secondary.requests()).isEqualTo(20);
+    assertThat(meterRegistry.get("bank.acquirer.failovers").tag("acquirer", "primary").counter()
+        .count()).isEqualTo(primary.requests());
+  }
+
+  @Test
+  void paymentIsNotRetriedElsewhereWhenTheBankDeclinesIt() {
+    AcquirerRouter router = router(acquirer("primary", primary, Set.of()),
+        acquirer("secondary", secondary, Set.of()));
+
+    Optional<BankPaymentResponse> response =
+        router.processPayment(request("4111111111111112", "GBP"), Deadline.none());
+
+    assertThat(response).get().extracting(BankPaymentResponse::isAuthorized).isEqualTo(false);
+    assertThat(primary.requests() + secondary.requests()).isEqualTo(1);
+  }
+
+  @Test
+  void mostPaymentsGoToTheFasterAcquirer() {
+    primary.setDelay(Duration.ofMillis(100));
+    AcquirerRouter router = router(acquirer("primary", primary, Set.of()),
+        acquirer("secondary", secondary, Set.of()));
+
+    for (int i = 0; i < 40; i++) {
+      router.processPayment(request(AUTHORIZED_VISA, "GBP"), Deadline.none());
+    }
+
+    assertThat(primary.requests()).isLessThan(secondary.requests() / 4);
+  }
+
+  private AcquirerRouter router(Acquirer... acquirers) {
+    return new AcquirerRouter(List.of(acquirers), meterRegistry);
+  }
+
+  private Acquirer acquirer(String name, BankSimulatorStub bank, Set<String> currencies,
+      String... cardBins) {
+    BankCallGuard acquirerGuard = guard.withName(name);
+    return new Acquirer(name, currencies, Stream.of(cardBins).map(CardBinRange::parse).toList(),
+        new BankClient(new RestTemplate(), bank.url(), acquirerGuard, hedging, bankCallMetrics),
+        new ReactiveBankClient(WebClient.create(), bank.url(), acquirerGuard, hedging,
+            bankCallMetrics),
+        Duration.ofSeconds(10), Duration.ofSeconds(1), meterRegistry);
+  }
+
+  private static BankPaymentRequest request(String cardNumber, String currency) {
+    return new BankPaymentRequest(cardNumber, "04/2099", currency, 100, "123");
+  }
+}
@@ -0,0 +1,113 @@
+package com.checkout.payment.gateway.controller.gateway.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.checkout.payment.gateway.controller.gateway.support.MutableClock;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.service.CardVelocityCheck;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class CardVelocityCheckTest {
+
+  private static final String CARD = "2222405343248877";
+  private static final Duration WINDOW = Duration.ofMinutes(1);
+
+  private final MutableClock clock = new MutableClock();
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  void cardOverTheLimitIsRefusedUntilItsAttemptsLeaveTheWindow() {
+    CardVelocityCheck check = check(3, 0);
+
+    assertThat(attempts(check, request(CARD, 100, "GBP"), 4))
+        .containsExactly(true, true, true, false);
+    clock.advance(Duration.ofSeconds(30));
+    assertThat(check.allow(request(CARD, 100, "GBP"))).isFalse();
+
+    clock.advance(WINDOW);
+    assertThat(check.allow(request(CARD, 100, "GBP"))).isTrue();
+    assertThat(meterRegistry.get("payments.velocity.rejections").tag("limit", "card").counter()
+        .count()).isEqualTo(2);
+  }
+
+  @Test
+  void windowSlidesOverTheOldestAttempts() {
+    CardVelocityCheck check = check(3, 0);
+
+    assertThat(attempts(check, request(CARD, 100, "GBP"), 2)).containsOnly(true);
+    clock.advance(Duration.ofSeconds(30));
+    assertThat(check.allow(request(CARD, 100, "GBP"))).isTrue();
+    clock.advance(Duration.ofSeconds(20));
+    assertThat(check.allow(request(CARD, 100, "GBP"))).isFalse();
+
+    // The first two attempts are now more than a window old, the other two are not
+    clock.advance(Duration.ofSeconds(15));
+    assertThat(check.allow(request(CARD, 100, "GBP"))).isTrue();
+    assertThat(check.allow(request(CARD, 100, "GBP"))).isFalse();
+  }
+
+  @Test
+  void cardAmountLimitCountsTheSameCardAmountAndCurrencyTogether() {
+    CardVelocityCheck check = check(0, 2);
+
+    assertThat(attempts(check, request(CARD, 100, "GBP"), 3)).containsExactly(true, true, false);
+    assertThat(check.allow(request(CARD, 200, "GBP"))).isTrue();
+    assertThat(check.allow(request(CARD, 100, "USD"))).isTrue();
+    assertThat(check.allow(request("2222405343248879", 100, "GBP"))).isTrue();
+    assertThat(meterRegistry.get("payments.velocity.rejections").tag("limit", "card_amount")
+        .counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void limitsOfZeroNeverRefuse() {
+    CardVelocityCheck check = check(0, 0);
+
+    assertThat(attempts(check, request(CARD, 100, "GBP"), 1000)).containsOnly(true);
+  }
+
+  @Test
+  void concurrentAttemptsOnOneCardAreCountedExactly() {
+    CardVelocityCheck check = check(4000, 0);
+    PostPaymentRequest request = request(CARD, 100, "GBP");
+
+    List<CompletableFuture<List<Boolean>>> results;
+    try (ExecutorService callers = Executors.newFixedThreadPool(8)) {
+      results = IntStream.range(0, 8)
+          .mapToObj(i -> CompletableFuture.supplyAsync(() -> attempts(check, request, 1000),
+              callers))
+          .toList();
+    }
+
+    assertThat(results.stream().flatMap(result -> result.join().stream())
+        .filter(Boolean::booleanValue).count()).isEqualTo(4000);
+  }
+
+  private CardVelocityCheck check(int cardLimit, int cardAmountLimit) {
+    return new CardVelocityCheck(cardLimit, cardAmountLimit, WINDOW, 6, 1000, clock,
+        meterRegistry);
+  }
+
+  private static List<Boolean> attempts(CardVelocityCheck check, PostPaymentRequest request,
+      int attempts) {
+    return IntStream.range(0, attempts).mapToObj(i -> check.allow(request)).toList();
+  }
+
+  private static PostPaymentRequest request(String cardNumber, int amount, String currency) {
+    PostPaymentRequest request = new PostPaymentRequest();
+    request.setCardNumber(cardNumber);
+    request.setExpiryMonth(4);
+    request.setExpiryYear(2099);
+    request.setCurrency(currency);
+    request.setAmount(amount);
+    request.setCvv("123");
+    return request;
+  }
+}
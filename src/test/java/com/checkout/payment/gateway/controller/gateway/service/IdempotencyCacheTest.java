@@ -0,0 +1,213 @@
+package com.checkout.payment.gateway.controller.gateway.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.checkout.payment.gateway.controller.gateway.support.MutableClock;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.exception.IdempotencyKeyReusedException;
+import com.checkout.payment.gateway.exception.PaymentInProgressException;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.resilience.Deadline;
+import com.checkout.payment.gateway.service.IdempotencyCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+class IdempotencyCacheTest {
+
+  private static final PostPaymentRequest REQUEST = request();
+
+  private final MutableClock clock = new MutableClock();
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final IdempotencyCache cache =
+      new IdempotencyCache(1_000, Duration.ofHours(24), clock, meterRegistry);
+  private final AtomicInteger payments = new AtomicInteger();
+
+  @Test
+  void concurrentDuplicatesShareOnePayment() throws Exception {
+    int threads = 32;
+    CountDownLatch start = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<Future<PostPaymentResponse>> results = new ArrayList<>();
+    try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+      for (int i = 0; i < threads; i++) {
+        results.add(executor.submit(() -> {
+          start.await();
+          return execute("key-1", () -> {
+            await(release);
+            return pay(PaymentStatus.AUTHORIZED);
+          });
+        }));
+      }
+      start.countDown();
+      Thread.sleep(200);
+      release.countDown();
+
+      UUID id = results.get(0).get().getId();
+      for (Future<PostPaymentResponse> result : results) {
+        assertThat(result.get().getId()).isEqualTo(id);
+      }
+    }
+
+    assertThat(payments).hasValue(1);
+    assertThat(outcome("miss")).isEqualTo(1);
+    assertThat(outcome("coalesced") + outcome("hit")).isEqualTo(threads - 1);
+  }
+
+  @Test
+  void completedPaymentIsReplayedUntilItExpires() {
+    PostPaymentResponse first = execute("key-1", () -> pay(PaymentStatus.DECLINED));
+
+    assertThat(execute("key-1", () -> pay(PaymentStatus.AUTHORIZED))).isSameAs(first);
+    assertThat(outcome("hit")).isEqualTo(1);
+
+    clock.advance(Duration.ofHours(25));
+
+    assertThat(execute("key-1", () -> pay(PaymentStatus.AUTHORIZED)).getId())
+        .isNotEqualTo(first.getId());
+    assertThat(payments).hasValue(2);
+  }
+
+  @Test
+  void rejectedPaymentIsNotKeptSoARetryIsProcessedAgain() {
+    execute("key-1", () -> pay(PaymentStatus.REJECTED));
+
+    PostPaymentResponse retry = execute("key-1", () -> pay(PaymentStatus.AUTHORIZED));
+
+    assertThat(retry.getStatus()).isEqualTo(PaymentStatus.AUTHORIZED);
+    assertThat(payments).hasValue(2);
+  }
+
+  @Test
+  void failedPaymentIsNotKept() {
+    assertThatThrownBy(() -> execute("key-1", () -> {
+      throw new IllegalStateException("boom");
+    })).isInstanceOf(IllegalStateException.class);
+
+    assertThat(execute("key-1", () -> pay(PaymentStatus.AUTHORIZED)).getStatus())
+        .isEqualTo(PaymentStatus.AUTHORIZED);
+  }
+
+  @Test
+  void differentOrMissingKeysAreIndependent() {
+    execute("key-1", () -> pay(PaymentStatus.AUTHORIZED));
+    execute("key-2", () -> pay(PaymentStatus.AUTHORIZED));
+    execute(null, () -> pay(PaymentStatus.AUTHORIZED));
+    execute(null, () -> pay(PaymentStatus.AUTHORIZED));
+
+    assertThat(payments).hasValue(4);
+  }
+
+  @Test
+  void reactiveDuplicatesShareOnePayment() {
+    PostPaymentResponse first = cache.executeReactive("key-1", REQUEST, Deadline.none(),
+        () -> Mono.fromSupplier(() -> pay(PaymentStatus.AUTHORIZED))).block();
+
+    PostPaymentResponse replay = cache.executeReactive("key-1", REQUEST, Deadline.none(),
+        () -> Mono.fromSupplier(() -> pay(PaymentStatus.AUTHORIZED))).block();
+
+    assertThat(replay.getId()).isEqualTo(first.getId());
+    assertThat(payments).hasValue(1);
+  }
+
+  @Test
+  void reuseOfAKeyForADifferentPaymentIsRefused() {
+    execute("key-1", () -> pay(PaymentStatus.AUTHORIZED));
+    PostPaymentRequest other = request();
+    other.setAmount(REQUEST.getAmount() + 1);
+
+    assertThatThrownBy(() -> cache.execute("key-1", other, Deadline.none(),
+        () -> pay(PaymentStatus.AUTHORIZED))).isInstanceOf(IdempotencyKeyReusedException.class);
+    assertThat(payments).hasValue(1);
+  }
+
+  @Test
+  void duplicateWaitsForTheOriginalNoLongerThanItsDeadline() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+      Future<PostPaymentResponse> original = executor.submit(() ->
+          execute("key-1", () -> {
+            await(release);
+            return pay(PaymentStatus.AUTHORIZED);
+          }));
+      while (outcome("miss") == 0) {
+        Thread.onSpinWait();
+      }
+
+      assertThatThrownBy(() -> cache.execute("key-1", REQUEST,
+          Deadline.after(Duration.ofMillis(50)), () -> pay(PaymentStatus.AUTHORIZED)))
+          .isInstanceOf(PaymentInProgressException.class);
+
+      release.countDown();
+      assertThat(original.get().getStatus()).isEqualTo(PaymentStatus.AUTHORIZED);
+    }
+    assertThat(payments).hasValue(1);
+  }
+
+  @Test
+  void reactivePaymentOutlivesACancelledCaller() {
+    Sinks.One<PostPaymentResponse> bank = Sinks.one();
+    Disposable caller = cache.executeReactive("key-1", REQUEST, Deadline.none(),
+        bank::asMono).subscribe();
+    caller.dispose();
+
+    bank.tryEmitValue(pay(PaymentStatus.AUTHORIZED));
+
+    PostPaymentResponse retry = cache.executeReactive("key-1", REQUEST, Deadline.none(),
+        () -> Mono.fromSupplier(() -> pay(PaymentStatus.AUTHORIZED))).block();
+    assertThat(retry.getStatus()).isEqualTo(PaymentStatus.AUTHORIZED);
+    assertThat(payments).hasValue(1);
+    assertThat(outcome("hit")).isEqualTo(1);
+  }
+
+  private PostPaymentResponse execute(String key, Supplier<PostPaymentResponse> payment) {
+    return cache.execute(key, REQUEST, Deadline.none(), payment);
+  }
+
+  private static PostPaymentRequest request() {
+    PostPaymentRequest request = new PostPaymentRequest();
+    request.setCardNumber("2222405343248877");
+    request.setExpiryMonth(4);
+    request.setExpiryYear(2030);
+    request.setCurrency("GBP");
+    request.setAmount(100);
+    request.setCvv("123");
+    return request;
+  }
+
+  private PostPaymentResponse pay(PaymentStatus status) {
+    payments.incrementAndGet();
+    PostPaymentResponse response = new PostPaymentResponse();
+    response.setId(UUID.randomUUID());
+    response.setStatus(status);
+    return response;
+  }
+
+  private double outcome(String outcome) {
+    return meterRegistry.get("payments.idempotency.requests").tag("outcome", outcome).counter()
+        .count();
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
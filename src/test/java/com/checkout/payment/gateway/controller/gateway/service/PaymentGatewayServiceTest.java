@@ -1,6 +1,5 @@
 package com.checkout.payment.gateway.controller.gateway.service;
 
-import com.checkout.payment.gateway.client.BankClient;
 import com.checkout.payment.gateway.enums.PaymentStatus;
 import com.checkout.payment.gateway.exception.EventProcessingException;
 import com.checkout.payment.gateway.model.BankPaymentRequest;
@@ -8,14 +7,23 @@ import com.checkout.payment.gateway.model.BankPaymentResponse;
 import com.checkout.payment.gateway.model.PostPaymentRequest;
 import com.checkout.payment.gateway.model.PostPaymentResponse;
 import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.checkout.payment.gateway.routing.AcquirerRouter;
+import com.checkout.payment.gateway.service.CardVelocityCheck;
 import com.checkout.payment.gateway.service.PaymentGatewayService;
+import com.checkout.payment.gateway.service.PaymentMetrics;
+import com.checkout.payment.gateway.service.TimeOrderedPaymentIdGenerator;
 import com.checkout.payment.gateway.validation.PaymentRequestValidator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -25,6 +33,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -32,14 +41,19 @@ import static org.mockito.Mockito.when;
 class PaymentGatewayServiceTest {
 
   @Mock private PaymentsRepository paymentsRepository;
-  @Mock private BankClient bankClient;
+  @Mock private AcquirerRouter acquirerRouter;
   @Mock private PaymentRequestValidator validator;
 
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
   private PaymentGatewayService service;
 
   @BeforeEach
   void setUp() {
-    service = new PaymentGatewayService(paymentsRepository, bankClient, validator);
+    CardVelocityCheck velocityCheck = new CardVelocityCheck(2, 0, Duration.ofMinutes(1), 6,
+        1000, Clock.systemUTC(), meterRegistry);
+    service = new PaymentGatewayService(paymentsRepository, acquirerRouter, validator,
+        velocityCheck, new TimeOrderedPaymentIdGenerator(Clock.systemUTC()),
+        new PaymentMetrics(true, meterRegistry));
   }
 
   @Test
@@ -63,6 +77,14 @@ class PaymentGatewayServiceTest {
         .isInstanceOf(EventProcessingException.class);
   }
 
+  @Test
+  void findPaymentById_notFound_isEmpty() {
+    UUID id = UUID.randomUUID();
+    when(paymentsRepository.get(id)).thenReturn(Optional.empty());
+
+    assertThat(service.findPaymentById(id)).isEmpty();
+  }
+
   @Test
   void testValidationFailureRejectsWithoutCallingBank() {
     PostPaymentRequest req = makeRequest();
@@ -71,7 +93,7 @@ class PaymentGatewayServiceTest {
     PostPaymentResponse resp = service.processPayment(req);
 
     assertThat(resp.getStatus()).isEqualTo(PaymentStatus.REJECTED);
-    verify(bankClient, never()).processPayment(any());
+    verify(acquirerRouter, never()).processPayment(any(), any());
     verify(paymentsRepository, never()).add(any());
   }
 
@@ -83,13 +105,14 @@ class PaymentGatewayServiceTest {
     BankPaymentResponse bankResp = new BankPaymentResponse();
     bankResp.setAuthorized(true);
     bankResp.setAuthorizationCode("abc-123");
-    when(bankClient.processPayment(any(BankPaymentRequest.class)))
+    when(acquirerRouter.processPayment(any(BankPaymentRequest.class), any()))
         .thenReturn(Optional.of(bankResp));
 
     PostPaymentResponse result = service.processPayment(req);
 
     assertThat(result.getStatus()).isEqualTo(PaymentStatus.AUTHORIZED);
     assertThat(result.getId()).isNotNull();
+    assertThat(result.getId().version()).isEqualTo(7);
     assertThat(result.getCardNumberLastFour()).isEqualTo(8877);
     assertThat(result.getCurrency()).isEqualTo("GBP");
     assertThat(result.getAmount()).isEqualTo(100);
@@ -103,7 +126,7 @@ class PaymentGatewayServiceTest {
 
     BankPaymentResponse bankResp = new BankPaymentResponse();
     bankResp.setAuthorized(false);
-    when(bankClient.processPayment(any(BankPaymentRequest.class)))
+    when(acquirerRouter.processPayment(any(BankPaymentRequest.class), any()))
         .thenReturn(Optional.of(bankResp));
 
     PostPaymentResponse result = service.processPayment(req);
@@ -116,10 +139,139 @@ class PaymentGatewayServiceTest {
   void shouldRejectWhenBankUnavailable() {
     PostPaymentRequest req = makeRequest();
     when(validator.validate(req)).thenReturn(Collections.emptyList());
-    when(bankClient.processPayment(any())).thenReturn(Optional.empty());
+    when(acquirerRouter.processPayment(any(), any())).thenReturn(Optional.empty());
+
+    PostPaymentResponse result = service.processPayment(req);
+
+    assertThat(result.getStatus()).isEqualTo(PaymentStatus.REJECTED);
+    verify(paymentsRepository, never()).add(any());
+  }
+
+  @Test
+  void fullStoreRejectsWithoutCallingBank() {
+    PostPaymentRequest req = makeRequest();
+    when(validator.validate(req)).thenReturn(Collections.emptyList());
+    when(paymentsRepository.isFull()).thenReturn(true);
+
+    PostPaymentResponse resp = service.processPayment(req);
+
+    assertThat(resp.getStatus()).isEqualTo(PaymentStatus.REJECTED);
+    verify(acquirerRouter, never()).processPayment(any(), any());
+    verify(paymentsRepository, never()).add(any());
+  }
+
+  @Test
+  void cardTriedTooOftenIsRejectedWithoutCallingBank() {
+    PostPaymentRequest req = makeRequest();
+    BankPaymentResponse bankResp = new BankPaymentResponse();
+    bankResp.setAuthorized(false);
+    when(validator.validate(req)).thenReturn(Collections.emptyList());
+    when(acquirerRouter.processPayment(any(BankPaymentRequest.class), any()))
+        .thenReturn(Optional.of(bankResp));
 
+    service.processPayment(req);
+    service.processPayment(req);
     PostPaymentResponse result = service.processPayment(req);
 
+    assertThat(result.getStatus()).isEqualTo(PaymentStatus.REJECTED);
+    verify(acquirerRouter, times(2)).processPayment(any(), any());
+    assertThat(meterRegistry.get("payments.velocity.rejections").tag("limit", "card").counter()
+        .count()).isEqualTo(1);
+  }
+
+  @Test
+  void processedPaymentsAreCountedByStatusAndTimedPerStage() {
+    PostPaymentRequest req = makeRequest();
+    BankPaymentResponse bankResp = new BankPaymentResponse();
+    bankResp.setAuthorized(true);
+    when(validator.validate(req)).thenReturn(Collections.emptyList());
+    when(acquirerRouter.processPayment(any(BankPaymentRequest.class), any()))
+        .thenReturn(Optional.of(bankResp));
+
+    service.processPayment(req);
+    service.processPayment(req);
+
+    assertThat(meterRegistry.get("payments.processed").tag("status", "authorized").counter()
+        .count()).isEqualTo(2);
+    for (String stage : List.of("validation", "velocity", "bank", "response", "repository")) {
+      assertThat(meterRegistry.get("payments.stage.duration").tag("stage", stage).timer()
+          .count()).isEqualTo(2);
+    }
+  }
+
+  @Test
+  void validationFailuresAreCountedByReason() {
+    PostPaymentRequest req = makeRequest();
+    when(validator.validate(req))
+        .thenReturn(List.of("Card number is required", "CVV is required"));
+
+    service.processPayment(req);
+    service.processPayment(req);
+
+    assertThat(meterRegistry.get("payments.validation.failures")
+        .tag("reason", "Card number is required").counter().count()).isEqualTo(2);
+    assertThat(meterRegistry.get("payments.validation.failures")
+        .tag("reason", "CVV is required").counter().count()).isEqualTo(2);
+    assertThat(meterRegistry.get("payments.processed").tag("status", "rejected").counter()
+        .count()).isEqualTo(2);
+    assertThat(meterRegistry.get("payments.stage.duration").tag("stage", "bank").timer()
+        .count()).isZero();
+  }
+
+  @Test
+  void reactiveValidationFailureRejectsWithoutCallingBank() {
+    PostPaymentRequest req = makeRequest();
+    when(validator.validate(req)).thenReturn(List.of("Card number is required"));
+
+    PostPaymentResponse resp = service.processPaymentReactive(req).block();
+
+    assertThat(resp.getStatus()).isEqualTo(PaymentStatus.REJECTED);
+    verify(acquirerRouter, never()).processPaymentReactive(any(), any());
+    verify(paymentsRepository, never()).add(any());
+  }
+
+  @Test
+  void reactiveAuthorizedPayment() {
+    PostPaymentRequest req = makeRequest();
+    when(validator.validate(req)).thenReturn(Collections.emptyList());
+
+    BankPaymentResponse bankResp = new BankPaymentResponse();
+    bankResp.setAuthorized(true);
+    bankResp.setAuthorizationCode("abc-123");
+    when(acquirerRouter.processPaymentReactive(any(BankPaymentRequest.class), any()))
+        .thenReturn(Mono.just(bankResp));
+
+    PostPaymentResponse result = service.processPaymentReactive(req).block();
+
+    assertThat(result.getStatus()).isEqualTo(PaymentStatus.AUTHORIZED);
+    assertThat(result.getCardNumberLastFour()).isEqualTo(8877);
+    verify(paymentsRepository).add(result);
+  }
+
+  @Test
+  void reactiveDeclinedPayment() {
+    PostPaymentRequest req = makeRequest();
+    when(validator.validate(req)).thenReturn(Collections.emptyList());
+
+    BankPaymentResponse bankResp = new BankPaymentResponse();
+    bankResp.setAuthorized(false);
+    when(acquirerRouter.processPaymentReactive(any(BankPaymentRequest.class), any()))
+        .thenReturn(Mono.just(bankResp));
+
+    PostPaymentResponse result = service.processPaymentReactive(req).block();
+
+    assertThat(result.getStatus()).isEqualTo(PaymentStatus.DECLINED);
+    verify(paymentsRepository).add(result);
+  }
+
+  @Test
+  void reactiveRejectsWhenBankUnavailable() {
+    PostPaymentRequest req = makeRequest();
+    when(validator.validate(req)).thenReturn(Collections.emptyList());
+    when(acquirerRouter.processPaymentReactive(any(), any())).thenReturn(Mono.empty());
+
+    PostPaymentResponse result = service.processPaymentReactive(req).block();
+
     assertThat(result.getStatus()).isEqualTo(PaymentStatus.REJECTED);
     verify(paymentsRepository, never()).add(any());
   }
@@ -0,0 +1,92 @@
+package com.checkout.payment.gateway.controller.gateway.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.checkout.payment.gateway.controller.gateway.support.MutableClock;
+import com.checkout.payment.gateway.service.TimeOrderedPaymentIdGenerator;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class TimeOrderedPaymentIdGeneratorTest {
+
+  private final MutableClock clock = new MutableClock();
+  private final TimeOrderedPaymentIdGenerator generator = new TimeOrderedPaymentIdGenerator(clock);
+
+  @Test
+  void idsAreVersion7WithTheCurrentTimeInTheirTopBits() {
+    UUID id = generator.next();
+
+    assertThat(id.version()).isEqualTo(7);
+    assertThat(id.variant()).isEqualTo(2);
+    assertThat(id.getMostSignificantBits() >>> 16).isEqualTo(clock.millis());
+  }
+
+  @Test
+  void idsFromOneThreadStrictlyIncreaseWithinAndAcrossMilliseconds() {
+    List<UUID> ids = IntStream.range(0, 10_000).mapToObj(i -> {
+      if (i % 1000 == 0) {
+        clock.advance(Duration.ofMillis(1));
+      }
+      return generator.next();
+    }).toList();
+
+    assertThat(ids).isSorted().doesNotHaveDuplicates();
+  }
+
+  @Test
+  void counterRunningOutMovesTheTimestampOnInsteadOfRepeating() {
+    List<UUID> ids = IntStream.range(0, 5000).mapToObj(i -> generator.next()).toList();
+
+    assertThat(ids).isSorted().doesNotHaveDuplicates();
+    assertThat(ids.get(ids.size() - 1).getMostSignificantBits() >>> 16)
+        .isEqualTo(clock.millis() + 1);
+  }
+
+  @Test
+  void idsKeepIncreasingWhenTheClockGoesBack() {
+    UUID before = generator.next();
+    clock.advance(Duration.ofSeconds(-5));
+
+    assertThat(generator.next()).isGreaterThan(before);
+  }
+
+  @Test
+  void concurrentThreadsNeverMakeTheSameId() {
+    Set<UUID> ids = ConcurrentHashMap.newKeySet();
+    List<CompletableFuture<Void>> threads;
+    try (ExecutorService callers = Executors.newFixedThreadPool(8)) {
+      threads = IntStream.range(0, 8)
+          .mapToObj(i -> CompletableFuture.runAsync(() -> {
+            for (int j = 0; j < 50_000; j++) {
+              ids.add(generator.next());
+            }
+          }, callers))
+          .toList();
+    }
+
+    threads.forEach(CompletableFuture::join);
+    assertThat(ids).hasSize(400_000);
+  }
+
+  @Test
+  void virtualThreadPerCallNeverMakesTheSameId() {
+    List<CompletableFuture<UUID>> calls;
+    try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+      calls = IntStream.range(0, 10_000)
+          .mapToObj(i -> CompletableFuture.supplyAsync(generator::next, callers))
+          .toList();
+    }
+    Set<UUID> ids = ConcurrentHashMap.newKeySet();
+    calls.forEach(call -> ids.add(call.join()));
+
+    assertThat(ids).hasSize(10_000);
+  }
+}
@@ -0,0 +1,208 @@
+package com.checkout.payment.gateway.controller.gateway.support;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process stand-in for the mountebank bank simulator in {@code imposters/bank_simulator.ejs}:
+ * card numbers ending in an odd digit are authorised, an even digit declined, and 0 answers 503.
+ * Responses can be delayed to model a slow acquirer, every one of them or only an occasional
+ * straggler, or the whole bank made unavailable. {@code /payments/batch} takes an array of
+ * payments and answers an array of results in the same order, with {@code null} in the slot of a
+ * payment the bank could not process, or can be made to drop the last result. The stub records
+ * how many requests it was serving at once and the idempotency keys it was sent.
+ */
+public class BankSimulatorStub implements AutoCloseable {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final List<String> REQUIRED_FIELDS =
+      List.of("card_number", "expiry_date", "currency", "amount", "cvv");
+
+  private final HttpServer server;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final AtomicInteger requests = new AtomicInteger();
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+  private final AtomicInteger batchedPayments = new AtomicInteger();
+  private final Queue<String> idempotencyKeys = new ConcurrentLinkedQueue<>();
+  private volatile Duration delay = Duration.ZERO;
+  private volatile int slowEvery;
+  private volatile Duration slowDelay = Duration.ZERO;
+  private volatile boolean unavailable;
+  private volatile boolean truncatedBatches;
+  private volatile boolean emptyAnswers;
+
+  public BankSimulatorStub() {
+    try {
+      server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not start the bank simulator stub", e);
+    }
+    server.createContext("/payments", this::handle);
+    server.createContext("/payments/batch", this::handle);
+    server.setExecutor(executor);
+    server.start();
+  }
+
+  public String url() {
+    return "http://localhost:" + server.getAddress().getPort();
+  }
+
+  public void setDelay(Duration delay) {
+    this.delay = delay;
+  }
+
+  /**
+   * Delays the 1st, {@code (n + 1)}th, {@code (2n + 1)}th, ... request by {@code slowDelay} on top
+   * of the usual delay.
+   */
+  public void setSlowResponses(int everyNth, Duration slowDelay) {
+    this.slowEvery = everyNth;
+    this.slowDelay = slowDelay;
+  }
+
+  /** Answers every request with 503 while {@code unavailable}. */
+  public void setUnavailable(boolean unavailable) {
+    this.unavailable = unavailable;
+  }
+
+  /** Leaves the last payment's result out of every batch answer while {@code truncated}. */
+  public void setTruncatedBatches(boolean truncated) {
+    this.truncatedBatches = truncated;
+  }
+
+  /** Answers every payment with a 200 and no body while {@code empty}. */
+  public void setEmptyAnswers(boolean empty) {
+    this.emptyAnswers = empty;
+  }
+
+  public List<String> idempotencyKeys() {
+    return List.copyOf(idempotencyKeys);
+  }
+
+  public int requests() {
+    return requests.get();
+  }
+
+  /** Payments received in calls to {@code /payments/batch}. */
+  public int batchedPayments() {
+    return batchedPayments.get();
+  }
+
+  public int maxInFlight() {
+    return maxInFlight.get();
+  }
+
+  public void reset() {
+    requests.set(0);
+    maxInFlight.set(0);
+    batchedPayments.set(0);
+    idempotencyKeys.clear();
+    delay = Duration.ZERO;
+    slowEvery = 0;
+    unavailable = false;
+    truncatedBatches = false;
+    emptyAnswers = false;
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    int request = requests.incrementAndGet();
+    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+    String idempotencyKey = exchange.getRequestHeaders().getFirst("Idempotency-Key");
+    if (idempotencyKey != null) {
+      idempotencyKeys.add(idempotencyKey);
+    }
+    try (exchange) {
+      long delayMillis = delay.toMillis();
+      if (slowEvery > 0 && (request - 1) % slowEvery == 0) {
+        delayMillis += slowDelay.toMillis();
+      }
+      if (delayMillis > 0) {
+        Thread.sleep(delayMillis);
+      }
+      JsonNode body = MAPPER.readTree(exchange.getRequestBody());
+      boolean batch = exchange.getRequestURI().getPath().endsWith("/batch");
+      if (!"POST".equals(exchange.getRequestMethod()) || body == null
+          || (batch ? !body.isArray() || !allValid(body) : !isValid(body))) {
+        respond(exchange, 400,
+            "{\"error_message\":\"Not all required properties were sent in the request\"}");
+        return;
+      }
+      if (unavailable) {
+        respond(exchange, 503, "{}");
+      } else if (emptyAnswers) {
+        respond(exchange, 200, "");
+      } else if (batch) {
+        batchedPayments.addAndGet(body.size());
+        StringJoiner results = new StringJoiner(",", "[", "]");
+        int answered = truncatedBatches ? body.size() - 1 : body.size();
+        for (int i = 0; i < answered; i++) {
+          results.add(String.valueOf(result(body.get(i))));
+        }
+        respond(exchange, 200, results.toString());
+      } else {
+        String result = result(body);
+        respond(exchange, result != null ? 200 : 503, result != null ? result : "{}");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      inFlight.decrementAndGet();
+    }
+  }
+
+  static boolean isValid(JsonNode payment) {
+    return REQUIRED_FIELDS.stream().allMatch(payment::hasNonNull);
+  }
+
+  private static boolean allValid(JsonNode payments) {
+    for (JsonNode payment : payments) {
+      if (!isValid(payment)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** The bank's answer to one payment, or null when it cannot process it. */
+  static String result(JsonNode payment) {
+    String cardNumber = payment.get("card_number").asText();
+    char lastDigit = cardNumber.charAt(cardNumber.length() - 1);
+    if (lastDigit == '0') {
+      return null;
+    } else if ((lastDigit - '0') % 2 == 1) {
+      return "{\"authorized\":true,\"authorization_code\":\"" + UUID.randomUUID() + "\"}";
+    }
+    return "{\"authorized\":false,\"authorization_code\":\"\"}";
+  }
+
+  private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package com.checkout.payment.gateway.controller.gateway.support;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerResponse;
+
+/**
+ * {@link BankSimulatorStub}'s {@code /payments} with the same card rules, served by Reactor Netty
+ * over both HTTP/1.1 and clear-text HTTP/2 (prior knowledge or upgrade), for clients that
+ * multiplex their calls. Delays do not hold a thread, and the stub records how many connections
+ * its requests arrived on.
+ */
+public class Http2BankSimulatorStub implements AutoCloseable {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final DisposableServer server;
+  private final AtomicInteger requests = new AtomicInteger();
+  private final Set<SocketAddress> connections = ConcurrentHashMap.newKeySet();
+  private volatile Duration delay = Duration.ZERO;
+
+  public Http2BankSimulatorStub() {
+    server = HttpServer.create()
+        .host("localhost")
+        .port(0)
+        .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+        .route(routes -> routes.post("/payments", (request, response) -> {
+          requests.incrementAndGet();
+          // Streams of one HTTP/2 connection all report the connection's address
+          connections.add(request.remoteAddress());
+          return request.receive().aggregate().asString()
+              .delayElement(delay)
+              .flatMap(body -> answer(body, response));
+        }))
+        .bindNow();
+  }
+
+  public String url() {
+    return "http://localhost:" + server.port();
+  }
+
+  public void setDelay(Duration delay) {
+    this.delay = delay;
+  }
+
+  public int requests() {
+    return requests.get();
+  }
+
+  /** Connections the requests so far were received on. */
+  public int connections() {
+    return connections.size();
+  }
+
+  @Override
+  public void close() {
+    server.disposeNow();
+  }
+
+  private static Mono<Void> answer(String body, HttpServerResponse response) {
+    JsonNode payment;
+    try {
+      payment = MAPPER.readTree(body);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    response.header("Content-Type", "application/json");
+    if (payment == null || !BankSimulatorStub.isValid(payment)) {
+      return response.status(400)
+          .sendString(Mono.just(
+              "{\"error_message\":\"Not all required properties were sent in the request\"}"))
+          .then();
+    }
+    String result = BankSimulatorStub.result(payment);
+    return response.status(result != null ? 200 : 503)
+        .sendString(Mono.just(result != null ? result : "{}"))
+        .then();
+  }
+}
@@ -2,8 +2,11 @@ package com.checkout.payment.gateway.controller.gateway.validation;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.checkout.payment.gateway.controller.gateway.support.MutableClock;
 import com.checkout.payment.gateway.model.PostPaymentRequest;
 import com.checkout.payment.gateway.validation.PaymentRequestValidator;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,7 +17,7 @@ class PaymentRequestValidatorTest {
 
   @BeforeEach
   void setUp() {
-    validator = new PaymentRequestValidator();
+    validator = new PaymentRequestValidator(Clock.systemUTC());
   }
 
   @Test
@@ -207,6 +210,42 @@ class PaymentRequestValidatorTest {
     assertThat(errors).anyMatch(e -> e.contains("numeric"));
   }
 
+  @Test
+  void nonAsciiDigitsAreNotNumeric() {
+    PostPaymentRequest request = createValidRequest();
+    request.setCvv("\u0661\u0662\u0663");
+    List<String> errors = validator.validate(request);
+    assertThat(errors).containsExactly("CVV must contain only numeric characters");
+  }
+
+  @Test
+  void lowerCaseCurrencyIsSupported() {
+    PostPaymentRequest request = createValidRequest();
+    request.setCurrency("usd");
+    assertThat(validator.validate(request)).isEmpty();
+  }
+
+  @Test
+  void validRequestsShareOneEmptyResult() {
+    assertThat(validator.validate(createValidRequest()))
+        .isSameAs(validator.validate(createValidRequest()));
+  }
+
+  @Test
+  void cardExpiringThisMonthIsRejectedAndTheMonthMovesWithTheClock() {
+    MutableClock clock = new MutableClock();
+    PaymentRequestValidator clockedValidator = new PaymentRequestValidator(clock);
+    PostPaymentRequest request = createValidRequest();
+    request.setExpiryYear(2024);
+    request.setExpiryMonth(2);
+    assertThat(clockedValidator.validate(request)).isEmpty();
+
+    clock.advance(Duration.ofDays(31));
+
+    assertThat(clockedValidator.validate(request))
+        .containsExactly("Card expiry date must be in the future");
+  }
+
   private PostPaymentRequest createValidRequest() {
     PostPaymentRequest request = new PostPaymentRequest();
     request.setCardNumber("2222405343248877");